@@ -26,12 +26,10 @@
  */
 package org.mashti.jetson;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInboundHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOutboundHandler;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
@@ -40,28 +38,27 @@ import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-abstract class BaseChannelInitializer extends ChannelInitializer<SocketChannel> {
+abstract class BaseChannelInitializer extends ChannelInitializer<Channel> {
 
-    private static final int DEFAULT_LENGTH_FIELD_LENGTH = 2;
-    private static final int DEFAULT_MAX_FRAME_LENGTH = 0xFFFF;
     private static final Logger LOGGER = LoggerFactory.getLogger(BaseChannelInitializer.class);
     private static final long DEFAULT_READ_TIMEOUT_IN_SECONDS = 30;
     private static final long DEFAULT_WRITE_TIMEOUT_IN_SECONDS = DEFAULT_READ_TIMEOUT_IN_SECONDS;
-    private static final LengthFieldPrepender DEFAULT_FRAME_ENCODER = new LengthFieldPrepender(DEFAULT_LENGTH_FIELD_LENGTH);
     private static final LoggingHandler LOGGING = new LoggingHandler(LogLevel.INFO);
+    private final Framing framing;
     private volatile long read_timeout;
     private volatile TimeUnit read_timeout_unit;
     private volatile long write_timeout;
     private volatile TimeUnit write_timeout_unit;
 
-    BaseChannelInitializer() {
+    BaseChannelInitializer(final Framing framing) {
 
+        this.framing = framing;
         setReadTimeout(DEFAULT_READ_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
         setWriteTimeout(DEFAULT_WRITE_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
     }
 
     @Override
-    public void initChannel(final SocketChannel channel) throws Exception {
+    public void initChannel(final Channel channel) throws Exception {
 
         if (LOGGER.isDebugEnabled()) {
             channel.pipeline().addLast(LOGGING);
@@ -72,6 +69,16 @@ abstract class BaseChannelInitializer extends ChannelInitializer<SocketChannel>
         channel.pipeline().addLast("frame_encoder", getFrameEncoder());
     }
 
+    /**
+     * Gets the framing by which messages are delimited on the channels that are initialised by this initializer.
+     *
+     * @return the framing of this initializer
+     */
+    public Framing getFraming() {
+
+        return framing;
+    }
+
     void setReadTimeout(final long timeout, final TimeUnit unit) {
 
         read_timeout = timeout;
@@ -86,12 +93,12 @@ abstract class BaseChannelInitializer extends ChannelInitializer<SocketChannel>
 
     ChannelOutboundHandler getFrameEncoder() {
 
-        return DEFAULT_FRAME_ENCODER;
+        return framing.getEncoder();
     }
 
     ChannelInboundHandler getFrameDecoder() {
 
-        return new LengthFieldBasedFrameDecoder(DEFAULT_MAX_FRAME_LENGTH, 0, DEFAULT_LENGTH_FIELD_LENGTH, 0, DEFAULT_LENGTH_FIELD_LENGTH);
+        return framing.newDecoder();
     }
 
     private WriteTimeoutHandler createWriteTimeoutHandler() {
@@ -0,0 +1,164 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PoolArenaMetric;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.List;
+
+/**
+ * A snapshot of the arena statistics of a {@link PooledByteBufAllocator pooled} buffer allocator.
+ * The counts are summed over all the arenas of the allocator at the time the snapshot is taken. This class is immutable.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ * @see ClientFactory#getBufferPoolStatistics()
+ * @see ServerFactory#getBufferPoolStatistics()
+ */
+public final class BufferPoolStatistics {
+
+    private final ArenaTotals direct;
+    private final ArenaTotals heap;
+    private final int thread_local_cache_count;
+
+    private BufferPoolStatistics(final PooledByteBufAllocator allocator) {
+
+        direct = new ArenaTotals(allocator.directArenas());
+        heap = new ArenaTotals(allocator.heapArenas());
+        thread_local_cache_count = allocator.numThreadLocalCaches();
+    }
+
+    /**
+     * Takes a snapshot of the arena statistics of the given allocator.
+     *
+     * @param allocator the allocator
+     * @return the statistics of the allocator, or {@code null} if the allocator is not a {@link PooledByteBufAllocator}
+     */
+    public static BufferPoolStatistics of(final ByteBufAllocator allocator) {
+
+        return allocator instanceof PooledByteBufAllocator ? new BufferPoolStatistics((PooledByteBufAllocator) allocator) : null;
+    }
+
+    public int getDirectArenaCount() {
+
+        return direct.arena_count;
+    }
+
+    public int getHeapArenaCount() {
+
+        return heap.arena_count;
+    }
+
+    public int getThreadLocalCacheCount() {
+
+        return thread_local_cache_count;
+    }
+
+    /**
+     * Gets the number of bytes that are currently allocated from the direct arenas, including the buffers that are too large to be pooled.
+     *
+     * @return the number of bytes that are currently allocated from the direct arenas
+     */
+    public long getActiveDirectBytes() {
+
+        return direct.active_bytes;
+    }
+
+    /**
+     * Gets the number of bytes that are currently allocated from the heap arenas, including the buffers that are too large to be pooled.
+     *
+     * @return the number of bytes that are currently allocated from the heap arenas
+     */
+    public long getActiveHeapBytes() {
+
+        return heap.active_bytes;
+    }
+
+    public long getAllocationCount() {
+
+        return direct.allocation_count + heap.allocation_count;
+    }
+
+    public long getDeallocationCount() {
+
+        return direct.deallocation_count + heap.deallocation_count;
+    }
+
+    public long getActiveAllocationCount() {
+
+        return direct.active_allocation_count + heap.active_allocation_count;
+    }
+
+    /**
+     * Gets the number of allocations that were too large to be served from a pooled chunk, and were allocated and freed individually.
+     *
+     * @return the number of unpooled allocations
+     */
+    public long getHugeAllocationCount() {
+
+        return direct.huge_allocation_count + heap.huge_allocation_count;
+    }
+
+    /**
+     * Gets the fraction of the allocations that were served from the pool, as opposed to being {@link #getHugeAllocationCount() allocated individually}.
+     *
+     * @return the fraction of the allocations that were served from the pool, or {@code 1} if no buffer has been allocated
+     */
+    public double getPoolHitRatio() {
+
+        final long allocation_count = getAllocationCount();
+        return allocation_count == 0 ? 1 : 1 - (double) getHugeAllocationCount() / allocation_count;
+    }
+
+    @Override
+    public String toString() {
+
+        return "BufferPoolStatistics{direct_arenas=" + direct.arena_count + ", heap_arenas=" + heap.arena_count + ", active_direct_bytes=" + direct.active_bytes + ", active_heap_bytes=" + heap.active_bytes + ", allocations=" + getAllocationCount() + ", active_allocations=" + getActiveAllocationCount() + ", pool_hit_ratio=" + getPoolHitRatio() + '}';
+    }
+
+    private static final class ArenaTotals {
+
+        private final int arena_count;
+        private long allocation_count;
+        private long huge_allocation_count;
+        private long deallocation_count;
+        private long active_allocation_count;
+        private long active_bytes;
+
+        private ArenaTotals(final List<PoolArenaMetric> arenas) {
+
+            arena_count = arenas.size();
+            for (final PoolArenaMetric arena : arenas) {
+                allocation_count += arena.numAllocations();
+                huge_allocation_count += arena.numHugeAllocations();
+                deallocation_count += arena.numDeallocations();
+                active_allocation_count += arena.numActiveAllocations();
+                active_bytes += arena.numActiveBytes();
+            }
+        }
+    }
+}
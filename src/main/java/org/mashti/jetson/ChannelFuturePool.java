@@ -29,28 +29,68 @@ package org.mashti.jetson;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.util.Attribute;
 import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
 import java.net.InetSocketAddress;
-import java.util.Iterator;
+import java.net.SocketAddress;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import org.mashti.jetson.exception.RPCException;
 import org.mashti.jetson.exception.TransportException;
+import org.mashti.jetson.util.ClockCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A pool of channels to remote endpoints. By default a single channel is kept per endpoint;
+ * {@link #setChannelsPerEndpoint(int) more channels} can be kept so that calls to a busy endpoint are spread over several sockets and event loops.
+ * The number of pooled endpoints can be {@link #setMaxPooledEndpoints(int) bounded}, in which case the least recently used endpoints are evicted and their channels are closed.
+ * <p>
+ * Once a channel is created, a background sweeper periodically visits the pooled channels, a few times per the shorter of the idle timeout and the keep-alive interval.
+ * The sweeper is not started if neither is set. The sweeper removes the channels that are closed or have failed to connect,
+ * evicts the channels on which no call is made for longer than the {@link #setIdleTimeout(long, TimeUnit) idle timeout}, and
+ * pings the channels that are not written to for longer than the {@link #setKeepAliveInterval(long, TimeUnit) keep-alive interval} so that the read timeout on either side does not close them.
+ * Channels on which calls are pending are not pinged, so that a server that stops responding to calls is still detected by the read timeout.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
 public class ChannelFuturePool {
 
-    static final AttributeKey<Set<FutureResponse<?>>> FUTURE_RESPONSES_ATTRIBUTE_KEY = AttributeKey.valueOf("future_responses");
+    static final AttributeKey<PendingFutureResponses> FUTURE_RESPONSES_ATTRIBUTE_KEY = AttributeKey.valueOf("future_responses");
     private static final AttributeKey<Long> CREATION_TIME_ATTRIBUTE = AttributeKey.valueOf("creation_time");
+    private static final AttributeKey<ChannelActivity> ACTIVITY_ATTRIBUTE = AttributeKey.valueOf("activity");
     private static final Logger LOGGER = LoggerFactory.getLogger(ChannelFuturePool.class);
+    private static final int DEFAULT_CHANNELS_PER_ENDPOINT = 1;
+    private static final ChannelSelectionStrategy DEFAULT_CHANNEL_SELECTION_STRATEGY = ChannelSelectionStrategy.ROUND_ROBIN;
+    private static final long DEFAULT_IDLE_TIMEOUT_IN_SECONDS = 60;
+    private static final long DEFAULT_KEEP_ALIVE_INTERVAL_IN_SECONDS = 10;
+    private static final int SWEEPS_PER_INTERVAL = 4;
+    private static final long MIN_SWEEP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
     private final Bootstrap bootstrap;
     private int max_age_millis = 2000;
-    private final ConcurrentMap<InetSocketAddress, ChannelFuture> channel_future_pool = new ConcurrentHashMap<InetSocketAddress, ChannelFuture>();
+    private volatile int channels_per_endpoint = DEFAULT_CHANNELS_PER_ENDPOINT;
+    private volatile ChannelSelectionStrategy selection_strategy = DEFAULT_CHANNEL_SELECTION_STRATEGY;
+    private volatile long idle_timeout_nanos = TimeUnit.SECONDS.toNanos(DEFAULT_IDLE_TIMEOUT_IN_SECONDS);
+    private volatile long keep_alive_interval_nanos = TimeUnit.SECONDS.toNanos(DEFAULT_KEEP_ALIVE_INTERVAL_IN_SECONDS);
+    private final AtomicBoolean sweeper_started = new AtomicBoolean();
+    private ScheduledFuture<?> sweeper;
+    private long sweep_interval_nanos;
+    private boolean closed;
+    private final ClockCache<SocketAddress, EndpointChannels> channel_future_pool = new ClockCache<SocketAddress, EndpointChannels>(ClockCache.UNBOUNDED, this::evict);
+    private volatile Consumer<SocketAddress> endpoint_eviction_listener;
 
     public ChannelFuturePool(final Bootstrap bootstrap) {
 
@@ -67,37 +107,170 @@ public class ChannelFuturePool {
         return max_age_millis;
     }
 
-    public Set<Map.Entry<InetSocketAddress, ChannelFuture>> getPooledEntries() {
+    /**
+     * Sets the number of channels to keep per endpoint. The new number applies to the endpoints that are connected to after this method is called.
+     *
+     * @param channels_per_endpoint the number of channels per endpoint, must be at least {@code 1}
+     */
+    public void setChannelsPerEndpoint(final int channels_per_endpoint) {
 
-        return channel_future_pool.entrySet();
+        if (channels_per_endpoint < 1) { throw new IllegalArgumentException("channels per endpoint must be at least 1"); }
+        this.channels_per_endpoint = channels_per_endpoint;
     }
 
-    public synchronized void clear() {
+    public int getChannelsPerEndpoint() {
 
-        final Iterator<Map.Entry<InetSocketAddress, ChannelFuture>> iterator = channel_future_pool.entrySet()
-                .iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<InetSocketAddress, ChannelFuture> next = iterator.next();
-            iterator.remove();
-            destroy(next.getValue());
-        }
+        return channels_per_endpoint;
+    }
+
+    /**
+     * Sets the strategy by which one of the channels to an endpoint is chosen when more than one channel is kept per endpoint.
+     *
+     * @param selection_strategy the channel selection strategy
+     */
+    public void setChannelSelectionStrategy(final ChannelSelectionStrategy selection_strategy) {
+
+        if (selection_strategy == null) { throw new NullPointerException("selection strategy must not be null"); }
+        this.selection_strategy = selection_strategy;
+    }
+
+    public ChannelSelectionStrategy getChannelSelectionStrategy() {
+
+        return selection_strategy;
+    }
+
+    /**
+     * Sets the maximum number of endpoints to which channels are pooled. When the maximum is exceeded, the channels to the least recently used endpoints are closed.
+     * The number of pooled endpoints is unbounded by default.
+     *
+     * @param max_pooled_endpoints the maximum number of pooled endpoints, must be at least {@code 1}
+     */
+    public void setMaxPooledEndpoints(final int max_pooled_endpoints) {
+
+        channel_future_pool.setCapacity(max_pooled_endpoints);
+    }
+
+    public int getMaxPooledEndpoints() {
+
+        return channel_future_pool.getCapacity();
+    }
+
+    /**
+     * Sets the listener that is notified when an endpoint is evicted from this pool, either because the number of pooled endpoints exceeds the maximum,
+     * or because all the channels to the endpoint are idle-evicted, or because this pool is {@link #clear() cleared}.
+     *
+     * @param listener the listener, or {@code null} if no listener should be notified
+     */
+    public void setEndpointEvictionListener(final Consumer<SocketAddress> listener) {
+
+        endpoint_eviction_listener = listener;
+    }
+
+    /**
+     * Sets the duration after which a pooled channel on which no call is made, and no call is pending, is evicted and closed.
+     *
+     * @param idle_timeout the idle timeout, or {@code zero} if idle channels should never be evicted
+     * @param unit the unit of the idle timeout
+     */
+    public void setIdleTimeout(final long idle_timeout, final TimeUnit unit) {
+
+        if (idle_timeout < 0) { throw new IllegalArgumentException("idle timeout must not be negative"); }
+        idle_timeout_nanos = unit.toNanos(idle_timeout);
+        rescheduleSweeper();
+    }
+
+    public long getIdleTimeout(final TimeUnit unit) {
+
+        return unit.convert(idle_timeout_nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the duration after which a pooled channel that is not written to is pinged. The remote server answers each ping,
+     * which keeps the read timeout on either side of a quiet channel from closing it. The keep-alive interval should be shorter than the read timeout of the channels.
+     *
+     * @param keep_alive_interval the keep-alive interval, or {@code zero} if channels should never be pinged
+     * @param unit the unit of the keep-alive interval
+     */
+    public void setKeepAliveInterval(final long keep_alive_interval, final TimeUnit unit) {
+
+        if (keep_alive_interval < 0) { throw new IllegalArgumentException("keep-alive interval must not be negative"); }
+        keep_alive_interval_nanos = unit.toNanos(keep_alive_interval);
+        rescheduleSweeper();
+    }
+
+    public long getKeepAliveInterval(final TimeUnit unit) {
+
+        return unit.convert(keep_alive_interval_nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets a snapshot of the pooled channels. An endpoint appears once per pooled channel.
+     *
+     * @return a snapshot of the pooled channels
+     */
+    public Set<Map.Entry<SocketAddress, ChannelFuture>> getPooledEntries() {
+
+        final Set<Map.Entry<SocketAddress, ChannelFuture>> entries = new HashSet<Map.Entry<SocketAddress, ChannelFuture>>();
+        channel_future_pool.forEach((address, endpoint_channels) -> {
+            final AtomicReferenceArray<ChannelFuture> channels = endpoint_channels.channels;
+            for (int i = 0; i < channels.length(); i++) {
+                final ChannelFuture channel_future = channels.get(i);
+                if (channel_future != null) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<SocketAddress, ChannelFuture>(address, channel_future));
+                }
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Gets the number of endpoints to which channels are pooled.
+     *
+     * @return the number of pooled endpoints
+     */
+    public int getPooledEndpointCount() {
+
+        return channel_future_pool.size();
+    }
+
+    public void clear() {
 
         channel_future_pool.clear();
     }
 
-    static boolean addFutureResponse(final Channel channel, final FutureResponse<?> response) {
+    /** Stops the background sweeper and closes all the pooled channels. This pool must not be used after it is closed. */
+    public void close() {
 
-        final Set<FutureResponse<?>> responses = getFutureResponsesByChannel(channel);
-        final boolean added = responses.add(response);
-        if (added) {
-            response.thenRun(() -> responses.remove(response));
+        synchronized (this) {
+            closed = true;
+            scheduleSweeper(0);
         }
-        return added;
+        clear();
+    }
+
+    /**
+     * Gets the period at which the background sweeper visits the pooled channels.
+     *
+     * @param unit the unit of the returned period
+     * @return the sweep period, or {@code zero} if the sweeper is not running
+     */
+    synchronized long getSweepInterval(final TimeUnit unit) {
+
+        return unit.convert(sweep_interval_nanos, TimeUnit.NANOSECONDS);
+    }
+
+    static int addFutureResponse(final Channel channel, final FutureResponse<?> response) {
+
+        final PendingFutureResponses responses = getFutureResponsesByChannel(channel);
+        final int id = responses.add(response);
+        response.setId(id);
+        response.setPendingResponses(responses);
+        return id;
     }
 
     static void notifyChannelInactivation(final Channel channel) {
 
-        final Set<FutureResponse<?>> responses = getFutureResponsesByChannel(channel);
+        final List<FutureResponse<?>> responses = getPendingFutureResponses(channel);
         if (responses != null && !responses.isEmpty()) {
             final RPCException exception = new TransportException("channel was closed");
             responses.stream()
@@ -110,7 +283,7 @@ public class ChannelFuturePool {
 
     static void notifyCaughtException(final Channel channel, Throwable cause) {
 
-        final Set<FutureResponse<?>> responses = getFutureResponsesByChannel(channel);
+        final List<FutureResponse<?>> responses = getPendingFutureResponses(channel);
         if (responses != null && !responses.isEmpty()) {
             final RPCException exception = new RPCException(cause);
             responses.stream()
@@ -120,74 +293,140 @@ public class ChannelFuturePool {
         }
     }
 
-    static Optional<FutureResponse<?>> getFutureResponse(final Channel channel, final Integer id) {
+    static FutureResponse<?> getFutureResponse(final Channel channel, final int id) {
 
-        final Set<FutureResponse<?>> responses = getFutureResponsesByChannel(channel);
+        final PendingFutureResponses responses = getFutureResponsesByChannel(channel);
         assert responses != null : id + " unknown channel: " + channel;
 
-        return responses.stream()
-                .filter(response -> response.getId()
-                        .equals(id))
-                .findFirst();
+        return responses.get(id);
     }
 
-    static Set<FutureResponse<?>> getFutureResponsesByChannel(final Channel channel) {
+    static PendingFutureResponses getFutureResponsesByChannel(final Channel channel) {
 
         return channel.attr(FUTURE_RESPONSES_ATTRIBUTE_KEY)
                 .get();
     }
 
-    public ChannelFuture get(InetSocketAddress address) {
+    private static List<FutureResponse<?>> getPendingFutureResponses(final Channel channel) {
+
+        final PendingFutureResponses responses = getFutureResponsesByChannel(channel);
+        return responses != null ? responses.snapshot() : null;
+    }
+
+    public ChannelFuture get(final InetSocketAddress address) {
+
+        return get((SocketAddress) address);
+    }
+
+    public ChannelFuture get(final SocketAddress address) {
+
+        ChannelFuture channel_future;
+        do {
+            final EndpointChannels endpoint_channels = getEndpointChannels(address);
+            final AtomicReferenceArray<ChannelFuture> channels = endpoint_channels.channels;
+            final int index = channels.length() == 1 ? 0 : selection_strategy.select(channels, endpoint_channels.sequence);
+            channel_future = get(address, endpoint_channels, index);
+        }
+        while (channel_future == null);
+        return channel_future;
+    }
+
+    /**
+     * Connects all the channels to each of the given endpoints ahead of the first call, with at most the given number of connection attempts in progress at a time.
+     * The returned future completes once every connection attempt has finished, whether or not it succeeded.
+     * An endpoint that cannot be connected to is treated like any other unreachable endpoint: calls to it fail until the {@link #setMaxPooledObjectAgeInMillis(int) maximum pooled object age} passes.
+     *
+     * @param addresses the endpoints to connect to
+     * @param max_concurrent_connects the maximum number of connection attempts in progress at a time
+     * @return a future that completes when the pool is warm
+     */
+    public CompletableFuture<Void> prewarm(final Collection<? extends SocketAddress> addresses, final int max_concurrent_connects) {
+
+        if (max_concurrent_connects < 1) { throw new IllegalArgumentException("maximum concurrent connects must be at least 1"); }
+
+        final Prewarm prewarm = new Prewarm(addresses);
+        for (int i = 0; i < max_concurrent_connects && !prewarm.isDispatched(); i++) {
+            prewarm.connectNext();
+        }
+        return prewarm.warm;
+    }
+
+    /**
+     * Gets the channel at the given slot of the given endpoint, creating a new channel if the slot is empty or holds an invalid channel.
+     * Returns {@code null} if the endpoint is evicted concurrently, in which case the caller should retry with the endpoint's new channels.
+     */
+    private ChannelFuture get(final SocketAddress address, final EndpointChannels endpoint_channels, final int index) {
 
-        final ChannelFuture channel_future = channel_future_pool.get(address);
+        final ChannelFuture channel_future = getOrCreate(address, endpoint_channels.channels, index);
+        if (!endpoint_channels.evicted) { return channel_future; }
+
+        // The endpoint was evicted while the slot was being filled; make sure the channel is not left open outside the pool.
+        if (endpoint_channels.channels.compareAndSet(index, channel_future, null)) {
+            destroy(channel_future);
+        }
+        return null;
+    }
+
+    private ChannelFuture getOrCreate(final SocketAddress address, final AtomicReferenceArray<ChannelFuture> channels, final int index) {
+
+        final ChannelFuture channel_future = channels.get(index);
         if (channel_future != null) {
 
             if (isValid(channel_future)) {
                 return channel_future;
             }
             else {
-                channel_future_pool.remove(address, channel_future);
+                channels.compareAndSet(index, channel_future, null);
             }
         }
 
         final ChannelFuture newly_created = create(address);
-        final ChannelFuture existing = channel_future_pool.putIfAbsent(address, newly_created);
-        if (existing == null) {
+        if (channels.compareAndSet(index, null, newly_created)) {
             return newly_created;
         }
         else {
-            if (isValid(existing)) {
+            final ChannelFuture existing = channels.get(index);
+            if (existing != null && isValid(existing)) {
                 destroy(newly_created);
                 return existing;
             }
             else {
-                channel_future_pool.remove(address, existing);
+                channels.compareAndSet(index, existing, newly_created);
                 return newly_created;
             }
         }
     }
 
-    protected ChannelFuture create(final InetSocketAddress address) {
+    protected ChannelFuture create(final SocketAddress address) {
 
         LOGGER.trace("making new channel for {}", address);
         final ChannelFuture channel_future = bootstrap.connect(address);
         channel_future.channel()
                 .attr(FUTURE_RESPONSES_ATTRIBUTE_KEY)
-                .set(new ConcurrentSkipListSet<FutureResponse<?>>());
+                .set(new PendingFutureResponses());
         channel_future.channel()
                 .attr(CREATION_TIME_ATTRIBUTE)
                 .set(System.currentTimeMillis());
+        startSweeper();
         return channel_future;
     }
 
+    /**
+     * Checks whether a pooled channel can be used. A connected channel is valid until it is closed. A channel that has failed to connect remains valid
+     * for up to the {@link #setMaxPooledObjectAgeInMillis(int) maximum pooled object age}, so that calls to an unreachable endpoint fail fast instead of reconnecting.
+     *
+     * @param channel_future the pooled channel
+     * @return whether the channel can be used
+     */
     protected boolean isValid(ChannelFuture channel_future) {
 
+        if (channel_future.isSuccess()) { return channel_future.channel().isOpen(); }
+        if (!channel_future.isDone()) { return true; }
+
         final long since_creation_time = System.currentTimeMillis() - channel_future.channel()
                 .attr(CREATION_TIME_ATTRIBUTE)
                 .get();
-        return !channel_future.isDone() || !channel_future.isSuccess() && since_creation_time < max_age_millis || channel_future.isSuccess() && !channel_future.channel()
-                .closeFuture()
-                .isDone();
+        return since_creation_time < max_age_millis;
     }
 
     protected void destroy(ChannelFuture channel_future) {
@@ -201,4 +440,244 @@ public class ChannelFuturePool {
             channel_future.cancel(true);
         }
     }
-}
\ No newline at end of file
+
+    private void startSweeper() {
+
+        if (sweeper_started.compareAndSet(false, true)) {
+            rescheduleSweeper();
+        }
+    }
+
+    private void rescheduleSweeper() {
+
+        if (sweeper_started.get()) {
+            synchronized (this) {
+                if (!closed) {
+                    scheduleSweeper(getSweepIntervalNanos());
+                }
+            }
+        }
+    }
+
+    private long getSweepIntervalNanos() {
+
+        final long idle_timeout = idle_timeout_nanos;
+        final long keep_alive_interval = keep_alive_interval_nanos;
+        final long interval;
+        if (idle_timeout > 0 && keep_alive_interval > 0) {
+            interval = Math.min(idle_timeout, keep_alive_interval);
+        }
+        else {
+            interval = Math.max(idle_timeout, keep_alive_interval);
+        }
+        return interval > 0 ? Math.max(interval / SWEEPS_PER_INTERVAL, MIN_SWEEP_INTERVAL_NANOS) : 0;
+    }
+
+    /** Replaces the sweeper with one that runs at the given period, or stops it if the period is {@code zero}. Must be called while holding the lock of this pool. */
+    private void scheduleSweeper(final long interval_nanos) {
+
+        if (interval_nanos == sweep_interval_nanos) { return; }
+        if (sweeper != null) {
+            sweeper.cancel(false);
+            sweeper = null;
+        }
+        sweep_interval_nanos = interval_nanos;
+        if (interval_nanos > 0) {
+            sweeper = bootstrap.group()
+                    .scheduleWithFixedDelay(this::sweep, interval_nanos, interval_nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void sweep() {
+
+        final long now = System.nanoTime();
+        channel_future_pool.forEach((address, endpoint_channels) -> {
+            final AtomicReferenceArray<ChannelFuture> channels = endpoint_channels.channels;
+            boolean empty = true;
+            for (int index = 0; index < channels.length(); index++) {
+                final ChannelFuture channel_future = channels.get(index);
+                if (channel_future == null) {
+                    continue;
+                }
+
+                if (!isValid(channel_future)) {
+                    if (channels.compareAndSet(index, channel_future, null)) {
+                        LOGGER.trace("swept invalid channel {}", channel_future.channel());
+                        destroy(channel_future);
+                    }
+                }
+                else if (!channel_future.isSuccess() || !sweep(channels, index, channel_future, now)) {
+                    empty = false;
+                }
+            }
+
+            if (empty && channel_future_pool.remove(address, endpoint_channels)) {
+                evict(address, endpoint_channels);
+            }
+        });
+    }
+
+    /** Sweeps a connected channel, and returns whether it is evicted. */
+    private boolean sweep(final AtomicReferenceArray<ChannelFuture> channels, final int index, final ChannelFuture channel_future, final long now) {
+
+        final Channel channel = channel_future.channel();
+        final PendingFutureResponses responses = getFutureResponsesByChannel(channel);
+        final int next_id = responses.getNextId();
+        final ChannelActivity activity = getActivity(channel, next_id, now);
+
+        if (activity.next_id != next_id) {
+            activity.next_id = next_id;
+            activity.last_request_time = now;
+            activity.last_write_time = now;
+            return false;
+        }
+
+        final long idle_timeout = idle_timeout_nanos;
+        if (idle_timeout > 0 && now - activity.last_request_time >= idle_timeout && responses.size() == 0) {
+            if (channels.compareAndSet(index, channel_future, null)) {
+                LOGGER.trace("evicted idle channel {}", channel);
+                destroy(channel_future);
+            }
+            return true;
+        }
+
+        final long keep_alive_interval = keep_alive_interval_nanos;
+        if (keep_alive_interval > 0 && now - activity.last_write_time >= keep_alive_interval && responses.size() == 0) {
+            activity.last_write_time = now;
+            KeepAliveHandler.ping(channel);
+        }
+        return false;
+    }
+
+    private static ChannelActivity getActivity(final Channel channel, final int next_id, final long now) {
+
+        final Attribute<ChannelActivity> attribute = channel.attr(ACTIVITY_ATTRIBUTE);
+        ChannelActivity activity = attribute.get();
+        if (activity == null) {
+            activity = new ChannelActivity(next_id, now);
+            attribute.set(activity);
+        }
+        return activity;
+    }
+
+    private void evict(final SocketAddress address, final EndpointChannels endpoint_channels) {
+
+        LOGGER.trace("evicting endpoint {}", address);
+        endpoint_channels.evicted = true;
+        final AtomicReferenceArray<ChannelFuture> channels = endpoint_channels.channels;
+        for (int i = 0; i < channels.length(); i++) {
+            final ChannelFuture channel_future = channels.getAndSet(i, null);
+            if (channel_future != null) {
+                destroy(channel_future);
+            }
+        }
+
+        final Consumer<SocketAddress> listener = endpoint_eviction_listener;
+        if (listener != null) {
+            listener.accept(address);
+        }
+    }
+
+    private EndpointChannels getEndpointChannels(final SocketAddress address) {
+
+        final EndpointChannels endpoint_channels = channel_future_pool.get(address);
+        if (endpoint_channels != null) { return endpoint_channels; }
+
+        final EndpointChannels new_endpoint_channels = new EndpointChannels(channels_per_endpoint);
+        final EndpointChannels existing = channel_future_pool.putIfAbsent(address, new_endpoint_channels);
+        return existing != null ? existing : new_endpoint_channels;
+    }
+
+    /** Connects the channels to a set of endpoints, one channel at a time per permitted concurrent connect. */
+    private final class Prewarm implements GenericFutureListener<ChannelFuture> {
+
+        private final List<SocketAddress> addresses = new ArrayList<SocketAddress>();
+        private final List<EndpointChannels> channels = new ArrayList<EndpointChannels>();
+        private final List<Integer> indices = new ArrayList<Integer>();
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Void> warm = new CompletableFuture<Void>();
+
+        private Prewarm(final Collection<? extends SocketAddress> endpoints) {
+
+            for (final SocketAddress address : new HashSet<SocketAddress>(endpoints)) {
+                final EndpointChannels endpoint_channels = getEndpointChannels(address);
+                for (int index = 0; index < endpoint_channels.channels.length(); index++) {
+                    addresses.add(address);
+                    channels.add(endpoint_channels);
+                    indices.add(index);
+                }
+            }
+            remaining = new AtomicInteger(addresses.size());
+            if (addresses.isEmpty()) {
+                warm.complete(null);
+            }
+        }
+
+        private boolean isDispatched() {
+
+            return next.get() >= addresses.size();
+        }
+
+        private void connectNext() {
+
+            int task;
+            while ((task = next.getAndIncrement()) < addresses.size()) {
+                final ChannelFuture channel_future = get(addresses.get(task), channels.get(task), indices.get(task));
+                if (channel_future == null) {
+                    notifyConnectCompletion(null);
+                    continue;
+                }
+                if (!channel_future.isDone()) {
+                    channel_future.addListener(this);
+                    return;
+                }
+                notifyConnectCompletion(channel_future);
+            }
+        }
+
+        @Override
+        public void operationComplete(final ChannelFuture channel_future) throws Exception {
+
+            notifyConnectCompletion(channel_future);
+            connectNext();
+        }
+
+        private void notifyConnectCompletion(final ChannelFuture channel_future) {
+
+            if (channel_future != null && !channel_future.isSuccess()) {
+                LOGGER.debug("failed to prewarm channel {}", channel_future.channel(), channel_future.cause());
+            }
+            if (remaining.decrementAndGet() == 0) {
+                warm.complete(null);
+            }
+        }
+    }
+
+    /** The activity of a pooled channel as last observed by the sweeper. Only accessed by the sweeper. */
+    private static final class ChannelActivity {
+
+        private int next_id;
+        private long last_request_time;
+        private long last_write_time;
+
+        private ChannelActivity(final int next_id, final long now) {
+
+            this.next_id = next_id;
+            last_request_time = now;
+            last_write_time = now;
+        }
+    }
+
+    private static final class EndpointChannels {
+
+        private final AtomicReferenceArray<ChannelFuture> channels;
+        private final AtomicInteger sequence = new AtomicInteger();
+        private volatile boolean evicted;
+
+        private EndpointChannels(final int size) {
+
+            channels = new AtomicReferenceArray<ChannelFuture>(size);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.channel.ChannelFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Strategies for choosing one of the pooled channels to an endpoint when a {@link ChannelFuturePool} keeps more than one channel per endpoint.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ * @see ChannelFuturePool#setChannelsPerEndpoint(int)
+ */
+public enum ChannelSelectionStrategy {
+
+    /** Cycles through the channels of an endpoint in turn. */
+    ROUND_ROBIN {
+        @Override
+        int select(final AtomicReferenceArray<ChannelFuture> channels, final AtomicInteger sequence) {
+
+            return Math.floorMod(sequence.getAndIncrement(), channels.length());
+        }
+    },
+
+    /** Chooses the channel with the fewest requests awaiting a response. Channels that are not yet connected count as idle, and so are opened as the load grows. */
+    LEAST_OUTSTANDING_REQUESTS {
+        @Override
+        int select(final AtomicReferenceArray<ChannelFuture> channels, final AtomicInteger sequence) {
+
+            final int length = channels.length();
+            final int offset = Math.floorMod(sequence.getAndIncrement(), length);
+            int selected = offset;
+            int min_outstanding = Integer.MAX_VALUE;
+            for (int i = 0; i < length; i++) {
+                final int index = (offset + i) % length;
+                final int outstanding = getOutstandingRequestCount(channels.get(index));
+                if (outstanding < min_outstanding) {
+                    min_outstanding = outstanding;
+                    selected = index;
+                    if (outstanding == 0) {
+                        break;
+                    }
+                }
+            }
+            return selected;
+        }
+    },
+
+    /** Always chooses the same channel for a given calling thread, so that requests issued by one thread are written in order on a single channel. */
+    THREAD_AFFINE {
+        @Override
+        int select(final AtomicReferenceArray<ChannelFuture> channels, final AtomicInteger sequence) {
+
+            final long thread_id = Thread.currentThread()
+                    .getId();
+            return Math.floorMod(Long.hashCode(thread_id * 0x9E3779B97F4A7C15L), channels.length());
+        }
+    };
+
+    /**
+     * Selects the index of a channel.
+     *
+     * @param channels the pooled channels of an endpoint, some of which may be {@code null} if not yet connected
+     * @param sequence a sequence number that is shared by all selections for the endpoint
+     * @return the index of the selected channel
+     */
+    abstract int select(AtomicReferenceArray<ChannelFuture> channels, AtomicInteger sequence);
+
+    private static int getOutstandingRequestCount(final ChannelFuture channel_future) {
+
+        if (channel_future == null) { return 0; }
+        final PendingFutureResponses responses = ChannelFuturePool.getFutureResponsesByChannel(channel_future.channel());
+        return responses != null ? responses.size() : 0;
+    }
+}
@@ -32,9 +32,11 @@ import io.netty.util.concurrent.GenericFutureListener;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
-import org.mashti.jetson.exception.InternalServerException;
+import java.net.SocketAddress;
+import java.util.Map;
 import org.mashti.jetson.exception.RPCException;
 import org.mashti.jetson.exception.TransportException;
+import org.mashti.jetson.util.ReflectionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,21 +44,59 @@ import org.slf4j.LoggerFactory;
 public class Client implements InvocationHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Client.class);
-    protected final InetSocketAddress address;
+    protected final SocketAddress address;
     private final Method[] dispatch;
+    private final Map<Method, Integer> dispatch_indices;
     private final ChannelFuturePool channel_pool;
+    private final FlushConsolidator flush_consolidator;
+    private final DeadlineScheduler deadline_scheduler;
+    private final DirectDispatcher direct_dispatcher;
     protected volatile WrittenByteCountListener written_byte_count_listener;
 
     protected Client(final InetSocketAddress address, final Method[] dispatch, final ChannelFuturePool channel_pool) {
 
+        this((SocketAddress) address, dispatch, channel_pool);
+    }
+
+    protected Client(final SocketAddress address, final Method[] dispatch, final ChannelFuturePool channel_pool) {
+
+        this(address, dispatch, ReflectionUtil.mapMethodsToIndices(dispatch), channel_pool, null, null);
+    }
+
+    protected Client(final SocketAddress address, final Method[] dispatch, final Map<Method, Integer> dispatch_indices, final ChannelFuturePool channel_pool, final FlushConsolidator flush_consolidator, final DeadlineScheduler deadline_scheduler) {
+
+        this(address, dispatch, dispatch_indices, channel_pool, flush_consolidator, deadline_scheduler, null);
+    }
+
+    Client(final SocketAddress address, final Method[] dispatch, final Map<Method, Integer> dispatch_indices, final ChannelFuturePool channel_pool, final FlushConsolidator flush_consolidator, final DeadlineScheduler deadline_scheduler, final DirectDispatcher direct_dispatcher) {
+
         this.address = address;
         this.dispatch = dispatch;
+        this.dispatch_indices = dispatch_indices;
         this.channel_pool = channel_pool;
-
+        this.flush_consolidator = flush_consolidator;
+        this.deadline_scheduler = deadline_scheduler;
+        this.direct_dispatcher = direct_dispatcher;
     }
 
+    /**
+     * Gets the Internet socket address of the remote endpoint.
+     *
+     * @return the Internet socket address of the remote endpoint, or {@code null} if the endpoint has a different type of address
+     * @see #getRemoteAddress()
+     */
     public InetSocketAddress getAddress() {
 
+        return address instanceof InetSocketAddress ? (InetSocketAddress) address : null;
+    }
+
+    /**
+     * Gets the address of the remote endpoint.
+     *
+     * @return the address of the remote endpoint
+     */
+    public SocketAddress getRemoteAddress() {
+
         return address;
     }
 
@@ -68,15 +108,9 @@ public class Client implements InvocationHandler {
     @Override
     public Object invoke(final Object proxy, final Method method, final Object[] params) throws Throwable {
 
-        if (dispatchContains(method)) {
-
-            final FutureResponse<?> future_response = writeRequest(method, params);
-            try {
-                return future_response;
-            }
-            catch (Exception e) {
-                throw new InternalServerException(e);
-            }
+        final int index = indexOf(method);
+        if (index != -1) {
+            return writeRequest(index, params);
         }
         else {
             LOGGER.debug("method {} was not found in dispatch; executing method on proxy object", method);
@@ -84,6 +118,19 @@ public class Client implements InvocationHandler {
         }
     }
 
+    /**
+     * Makes a remote call to the method at the given index of the dispatch.
+     * This is the entry point of the calls that are made through {@link ClientStub generated stubs}.
+     *
+     * @param index the index of the method in the dispatch
+     * @param params the arguments of the call
+     * @return the response to the call
+     */
+    FutureResponse<?> call(final int index, final Object[] params) {
+
+        return writeRequest(index, params);
+    }
+
     @Override
     public String toString() {
 
@@ -92,18 +139,35 @@ public class Client implements InvocationHandler {
 
     public FutureResponse<?> newFutureResponse(final Method method, final Object[] arguments) {
 
-        final FutureResponse<?> response = new FutureResponse();
-        response.setMethod(method);
-        response.setArguments(arguments);
-        response.setWrittenByteCountListener(written_byte_count_listener);
+        final FutureResponse<?> response = new FutureResponse(method, arguments);
+        final WrittenByteCountListener listener = written_byte_count_listener;
+        if (listener != null) {
+            response.setWrittenByteCountListener(listener);
+        }
         return response;
     }
 
+    /**
+     * Writes the request of the given response.
+     * If the channel to the remote endpoint is already connected, which is the common case, the request is written straight away; otherwise the request is written once the channel is connected.
+     * If {@link ClientFactory#setDirectDispatchEnabled(boolean) direct dispatch} is enabled and the remote endpoint is a server in the same JVM, the request is handed to the server without being written at all.
+     *
+     * @param future_response the response whose request to write
+     * @return the given response
+     */
     protected FutureResponse<?> writeRequest(final FutureResponse<?> future_response) {
 
+        if (deadline_scheduler != null) {
+            deadline_scheduler.schedule(future_response);
+        }
+        if (direct_dispatcher != null && direct_dispatcher.dispatch(address, future_response)) { return future_response; }
         final ChannelFuture channel_future = channel_pool.get(address);
-        final GenericFutureListener<ChannelFuture> listener = new WriteRequestListener(channel_future, future_response);
-        channel_future.addListener(listener);
+        if (channel_future.isDone()) {
+            writeRequest(channel_future, future_response);
+        }
+        else {
+            channel_future.addListener(new WriteRequestListener(channel_future, future_response));
+        }
         return future_response;
     }
 
@@ -118,44 +182,74 @@ public class Client implements InvocationHandler {
         // Do nothing; reserved for customization via extending classes
     }
 
-    protected boolean dispatchContains(final Method target) {
+    protected void flush(final Channel channel) {
 
-        for (final Method method : dispatch) {
-            if (method.equals(target)) { return true; }
+        if (flush_consolidator != null) {
+            flush_consolidator.flush(channel);
+        }
+        else {
+            channel.flush();
         }
-        return false;
     }
 
-    private FutureResponse<?> writeRequest(final Method method, final Object[] params) {
+    protected boolean dispatchContains(final Method target) {
 
-        final FutureResponse<?> future_response = newFutureResponse(method, params);
-        return writeRequest(future_response);
+        return indexOf(target) != -1;
     }
 
-    protected void writeToChannel(Channel channel, FutureResponse future_response) {
+    private int indexOf(final Method method) {
 
-        final ChannelFuture write = channel.write(future_response);
-        write.addListener(new ExceptionListener(future_response));
+        final Integer index = dispatch_indices.get(method);
+        return index != null ? index : -1;
     }
 
-    protected static class ExceptionListener implements GenericFutureListener<ChannelFuture> {
+    private void writeRequest(final ChannelFuture channel_future, final FutureResponse<?> future_response) {
 
-        private final FutureResponse<?> future_response;
+        if (future_response.isDone()) {
+            LOGGER.trace("skipped writing request of completed response {}", future_response);
+        }
+        else if (channel_future.isSuccess()) {
+            final Channel channel = channel_future.channel();
+            if (flush_consolidator != null && flush_consolidator.isEnabled() && !channel.eventLoop()
+                    .inEventLoop()) {
+                flush_consolidator.enqueue(channel, this, future_response);
+            }
+            else {
+                write(channel, future_response);
+                flush(channel);
+            }
+        }
+        else {
+            setException(channel_future.cause(), future_response);
+        }
+    }
 
-        public ExceptionListener(final FutureResponse<?> future_response) {
+    void write(final Channel channel, final FutureResponse<?> future_response) {
 
-            this.future_response = future_response;
+        writeToChannel(channel, future_response);
+        try {
+            beforeFlush(channel, future_response);
+        }
+        catch (final RPCException e) {
+            future_response.completeExceptionally(e);
         }
+    }
 
-        @Override
-        public void operationComplete(final ChannelFuture future) throws Exception {
+    private FutureResponse<?> writeRequest(final int index, final Object[] params) {
 
-            if (!future.isSuccess()) {
-                setException(future.cause(), future_response);
-            }
-        }
+        final Method method = dispatch[index];
+        final FutureResponse<?> future_response = newFutureResponse(method, params);
+        future_response.setMethod(method, index);
+        return writeRequest(future_response);
     }
 
+    protected void writeToChannel(Channel channel, FutureResponse future_response) {
+
+        channel.write(future_response)
+                .addListener(future_response);
+    }
+
+    /** Writes a request once the channel to the remote endpoint is connected. */
     protected class WriteRequestListener implements GenericFutureListener<ChannelFuture> {
 
         private final ChannelFuture channel_future;
@@ -170,15 +264,7 @@ public class Client implements InvocationHandler {
         @Override
         public void operationComplete(final ChannelFuture future) throws Exception {
 
-            if (future.isSuccess()) {
-                final Channel channel = channel_future.channel();
-                writeToChannel(channel, future_response);
-                beforeFlush(channel, future_response);
-                channel.flush();
-            }
-            else {
-                setException(future.cause(), future_response);
-            }
+            writeRequest(channel_future, future_response);
             future.removeListener(this);
         }
     }
@@ -26,8 +26,8 @@
  */
 package org.mashti.jetson;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.socket.SocketChannel;
 
 public class ClientChannelInitializer extends BaseChannelInitializer {
 
@@ -37,17 +37,31 @@ public class ClientChannelInitializer extends BaseChannelInitializer {
 
     public ClientChannelInitializer(final RequestEncoder request_encoder, final ResponseDecoder response_decoder) {
 
+        this(request_encoder, response_decoder, Framing.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new initializer of client channels.
+     *
+     * @param request_encoder the request encoder
+     * @param response_decoder the response decoder
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote servers
+     */
+    public ClientChannelInitializer(final RequestEncoder request_encoder, final ResponseDecoder response_decoder, final Framing framing) {
+
+        super(framing);
         this.request_encoder = request_encoder;
         this.response_decoder = response_decoder;
         client_handler = new ResponseHandler();
     }
 
     @Override
-    public void initChannel(final SocketChannel channel) throws Exception {
+    public void initChannel(final Channel channel) throws Exception {
 
         super.initChannel(channel);
         final ChannelPipeline pipeline = channel.pipeline();
 
+        pipeline.addLast(KeepAliveHandler.NAME, KeepAliveHandler.CLIENT);
         pipeline.addLast("encoder", request_encoder);
         pipeline.addLast("decoder", response_decoder);
         pipeline.addLast("handler", client_handler);
@@ -27,15 +27,24 @@
 package org.mashti.jetson;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.HashedWheelTimer;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.InetSocketAddress;
-import java.util.concurrent.ConcurrentHashMap;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.mashti.jetson.util.ClockCache;
 import org.mashti.jetson.util.NamedThreadFactory;
 import org.mashti.jetson.util.ReflectionUtil;
 import org.slf4j.Logger;
@@ -50,32 +59,110 @@ import org.slf4j.LoggerFactory;
 public class ClientFactory<Service> {
 
     private static final int DEFAULT_CONNECTION_TIMEOUT_IN_MILLIS = 5000;
+    private static final long DEADLINE_TIMER_TICK_IN_MILLIS = 10;
+    private static final int DEFAULT_MAX_CONCURRENT_CONNECTS = 32;
     private static final Logger LOGGER = LoggerFactory.getLogger(ClientFactory.class);
     protected final Method[] dispatch;
+    protected final Map<Method, Integer> dispatch_indices;
     private final Bootstrap bootstrap;
     private final ClassLoader class_loader;
     private final Class<?>[] interfaces;
-    private final ConcurrentHashMap<InetSocketAddress, Service> cached_proxy_map = new ConcurrentHashMap<InetSocketAddress, Service>();
+    private final Constructor<?>[] stub_constructors;
+    private final ClockCache<SocketAddress, Object[]> cached_proxy_map = new ClockCache<SocketAddress, Object[]>(ClockCache.UNBOUNDED, (address, proxies) -> {});
     protected final ChannelFuturePool channel_pool;
+    protected final FlushConsolidator flush_consolidator = new FlushConsolidator();
+    private final DirectDispatcher direct_dispatcher = new DirectDispatcher();
+    protected final DeadlineScheduler deadline_scheduler;
+    private volatile int max_concurrent_connects = DEFAULT_MAX_CONCURRENT_CONNECTS;
+    private final TransportResources resources;
+    private final AtomicBoolean shut_down = new AtomicBoolean();
+    private volatile ByteBufAllocator allocator;
 
     public ClientFactory(final Class<Service> service_interface, final ClientChannelInitializer handler) {
 
-        this(service_interface, createDefaultBootstrap(handler));
+        this(new Class<?>[] {service_interface}, ReflectionUtil.getSortedMethods(service_interface), createDefaultBootstrap(handler), null, PooledByteBufAllocator.DEFAULT);
     }
 
     public ClientFactory(final Class<Service> service_interface, final Bootstrap bootstrap) {
 
-        this(service_interface, ReflectionUtil.checkAndSort(service_interface.getMethods()), bootstrap);
+        this(service_interface, ReflectionUtil.getSortedMethods(service_interface), bootstrap);
 
     }
 
     public ClientFactory(final Class<Service> service_interface, Method[] dispatch, final Bootstrap bootstrap) {
 
+        this(new Class<?>[] {service_interface}, dispatch, bootstrap);
+    }
+
+    /**
+     * Instantiates a new factory of clients to remote endpoints that expose several services.
+     * The calls to all the given services share the same connections. The proxies to each service are {@link #get(SocketAddress, Class) looked up by its interface}.
+     *
+     * @param service_interfaces the interfaces of the remote services
+     * @param handler the channel initializer, whose codecs must cover the methods of all the given interfaces
+     */
+    public ClientFactory(final Class<?>[] service_interfaces, final ClientChannelInitializer handler) {
+
+        this(service_interfaces, ReflectionUtil.getSortedMethods(service_interfaces), createDefaultBootstrap(handler), null, PooledByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new factory of clients to remote endpoints that expose several services, whose connections run on the given transport.
+     * If the given transport is not {@link Transport#isAvailable() available}, the {@link Transport#NIO NIO} transport is used instead.
+     *
+     * @param service_interfaces the interfaces of the remote services
+     * @param handler the channel initializer, whose codecs must cover the methods of all the given interfaces
+     * @param transport the transport of the connections
+     * @throws IllegalStateException if the given transport is not available and cannot fall back to NIO
+     */
+    public ClientFactory(final Class<?>[] service_interfaces, final ClientChannelInitializer handler, final Transport transport) {
+
+        this(service_interfaces, ReflectionUtil.getSortedMethods(service_interfaces), createDefaultBootstrap(handler, transport), null, PooledByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new factory of clients to remote endpoints that expose several services, whose connections run on the given shared resources.
+     * The factory {@link TransportResources#retain() retains} the resources, and {@link TransportResources#release() releases} them when it is {@link #shutdown() shut down}.
+     *
+     * @param service_interfaces the interfaces of the remote services
+     * @param handler the channel initializer, whose codecs must cover the methods of all the given interfaces
+     * @param resources the shared event loops, deadline timer and buffer allocator of the connections
+     * @throws IllegalStateException if the given resources are already released
+     */
+    public ClientFactory(final Class<?>[] service_interfaces, final ClientChannelInitializer handler, final TransportResources resources) {
+
+        this(service_interfaces, ReflectionUtil.getSortedMethods(service_interfaces), createSharedBootstrap(handler, resources), resources.retain(), resources.getAllocator());
+    }
+
+    /**
+     * Instantiates a new factory of clients to remote endpoints that expose several services, whose connections are made by the given bootstrap.
+     * The options of the given bootstrap are left as they are, including its {@link ChannelOption#ALLOCATOR allocator}, unless the allocator is {@link #setAllocator(ByteBufAllocator) set} on this factory.
+     *
+     * @param service_interfaces the interfaces of the remote services
+     * @param dispatch the methods of the given interfaces, in the order of their indices
+     * @param bootstrap the bootstrap of the connections
+     */
+    public ClientFactory(final Class<?>[] service_interfaces, final Method[] dispatch, final Bootstrap bootstrap) {
+
+        this(service_interfaces, dispatch, bootstrap, null, null);
+    }
+
+    private ClientFactory(final Class<?>[] service_interfaces, final Method[] dispatch, final Bootstrap bootstrap, final TransportResources resources, final ByteBufAllocator allocator) {
+
         this.dispatch = dispatch;
+        dispatch_indices = ReflectionUtil.mapMethodsToIndices(dispatch);
         class_loader = ClassLoader.getSystemClassLoader();
-        interfaces = new Class<?>[] {service_interface};
+        interfaces = service_interfaces.clone();
+        stub_constructors = generateStubs(interfaces, dispatch);
         this.bootstrap = bootstrap;
         channel_pool = constructChannelPool(bootstrap);
+        channel_pool.setEndpointEvictionListener(cached_proxy_map::remove);
+        this.resources = resources;
+        deadline_scheduler = new DeadlineScheduler(resources != null ? resources.getDeadlineTimer() : createDeadlineTimer(), dispatch);
+        this.allocator = allocator;
+        if (allocator != null) {
+            bootstrap.option(ChannelOption.ALLOCATOR, allocator);
+        }
     }
 
     protected ChannelFuturePool constructChannelPool(final Bootstrap bootstrap) {
@@ -91,39 +178,331 @@ public class ClientFactory<Service> {
      */
     public Service get(final InetSocketAddress address) {
 
-        if (cached_proxy_map.containsKey(address)) { return cached_proxy_map.get(address); }
+        return get((SocketAddress) address);
+    }
+
+    /**
+     * Gets a proxy to the remote service.
+     *
+     * @param address the address
+     * @return the service
+     */
+    @SuppressWarnings("unchecked")
+    public Service get(final SocketAddress address) {
+
+        return (Service) getProxies(address)[0];
+    }
+
+    /**
+     * Gets a proxy to one of the services of a remote endpoint, sharing the connections to the endpoint with the proxies to its other services.
+     *
+     * @param address the address
+     * @param service_interface one of the interfaces with which this factory is constructed
+     * @param <S> the type of the service
+     * @return the service
+     * @throws IllegalArgumentException if this factory is not constructed with the given interface
+     */
+    public <S> S get(final InetSocketAddress address, final Class<S> service_interface) {
+
+        return get((SocketAddress) address, service_interface);
+    }
+
+    /**
+     * Gets a proxy to one of the services of a remote endpoint, sharing the connections to the endpoint with the proxies to its other services.
+     *
+     * @param address the address
+     * @param service_interface one of the interfaces with which this factory is constructed
+     * @param <S> the type of the service
+     * @return the service
+     * @throws IllegalArgumentException if this factory is not constructed with the given interface
+     */
+    public <S> S get(final SocketAddress address, final Class<S> service_interface) {
+
+        for (int i = 0; i < interfaces.length; i++) {
+            if (interfaces[i] == service_interface) { return service_interface.cast(getProxies(address)[i]); }
+        }
+        throw new IllegalArgumentException(this + " does not support " + service_interface);
+    }
+
+    private Object[] getProxies(final SocketAddress address) {
+
+        final Object[] cached_proxies = cached_proxy_map.get(address);
+        if (cached_proxies != null) { return cached_proxies; }
         final Client handler = createClient(address);
-        final Service new_proxy = createProxy(handler);
-        final Service existing_proxy = cached_proxy_map.putIfAbsent(address, new_proxy);
-        return existing_proxy != null ? existing_proxy : new_proxy;
+        final Object[] new_proxies = new Object[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            new_proxies[i] = createProxy(handler, i);
+        }
+        final Object[] existing_proxies = cached_proxy_map.putIfAbsent(address, new_proxies);
+        return existing_proxies != null ? existing_proxies : new_proxies;
+    }
+
+    /**
+     * Sets the maximum number of remote endpoints for which proxies and channels are cached. When the maximum is exceeded, the least recently used proxies are
+     * discarded and the channels to the least recently used endpoints are closed. A discarded proxy remains usable, but is no longer returned by {@link #get(SocketAddress)}.
+     * The number of cached endpoints is unbounded by default; endpoints whose channels are all closed by the {@link #setIdleTimeout(long, TimeUnit) idle timeout} are discarded regardless.
+     *
+     * @param max_cached_endpoints the maximum number of cached endpoints, must be at least {@code 1}
+     */
+    public void setMaxCachedEndpoints(final int max_cached_endpoints) {
+
+        cached_proxy_map.setCapacity(max_cached_endpoints);
+        channel_pool.setMaxPooledEndpoints(max_cached_endpoints);
+    }
+
+    /**
+     * Connects to the given remote endpoints ahead of the first call to each, so that the first calls do not pay for connection establishment.
+     * At most {@link #setMaxConcurrentConnects(int) a limited number} of connection attempts are in progress at a time.
+     * The returned future completes once every connection attempt has finished, whether or not it succeeded.
+     *
+     * @param addresses the addresses of the remote endpoints
+     * @return a future that completes when the connections to the given endpoints are established
+     */
+    public CompletableFuture<Void> prewarm(final Collection<? extends SocketAddress> addresses) {
+
+        for (final SocketAddress address : addresses) {
+            get(address);
+        }
+        return channel_pool.prewarm(addresses, max_concurrent_connects);
+    }
+
+    /**
+     * Sets the maximum number of connection attempts that are in progress at a time while {@link #prewarm(Collection) prewarming}.
+     *
+     * @param max_concurrent_connects the maximum number of concurrent connection attempts, must be at least {@code 1}
+     */
+    public void setMaxConcurrentConnects(final int max_concurrent_connects) {
+
+        if (max_concurrent_connects < 1) { throw new IllegalArgumentException("maximum concurrent connects must be at least 1"); }
+        this.max_concurrent_connects = max_concurrent_connects;
+    }
+
+    /**
+     * Sets the number of channels that clients constructed by this factory keep open to each remote endpoint.
+     * Spreading calls to a busy endpoint over several channels lets a single client use more than one event loop thread.
+     *
+     * @param channels_per_endpoint the number of channels per endpoint, must be at least {@code 1}
+     * @see ChannelFuturePool#setChannelsPerEndpoint(int)
+     */
+    public void setChannelsPerEndpoint(final int channels_per_endpoint) {
+
+        channel_pool.setChannelsPerEndpoint(channels_per_endpoint);
+    }
+
+    /**
+     * Sets the strategy by which a channel is chosen for each call when more than one channel is kept per endpoint.
+     *
+     * @param selection_strategy the channel selection strategy
+     * @see #setChannelsPerEndpoint(int)
+     */
+    public void setChannelSelectionStrategy(final ChannelSelectionStrategy selection_strategy) {
+
+        channel_pool.setChannelSelectionStrategy(selection_strategy);
+    }
+
+    /**
+     * Sets the duration after which a channel on which no call is made is closed.
+     *
+     * @param idle_timeout the idle timeout, or {@code zero} if idle channels should never be closed
+     * @param unit the unit of the idle timeout
+     * @see ChannelFuturePool#setIdleTimeout(long, TimeUnit)
+     */
+    public void setIdleTimeout(final long idle_timeout, final TimeUnit unit) {
+
+        channel_pool.setIdleTimeout(idle_timeout, unit);
+    }
+
+    /**
+     * Sets the duration after which a channel that is not written to is pinged to keep it open.
+     *
+     * @param keep_alive_interval the keep-alive interval, or {@code zero} if channels should never be pinged
+     * @param unit the unit of the keep-alive interval
+     * @see ChannelFuturePool#setKeepAliveInterval(long, TimeUnit)
+     */
+    public void setKeepAliveInterval(final long keep_alive_interval, final TimeUnit unit) {
+
+        channel_pool.setKeepAliveInterval(keep_alive_interval, unit);
+    }
+
+    /**
+     * Sets the deadline of calls made by the clients constructed by this factory. The deadline of each call starts when the call is made.
+     * When a deadline passes, the call completes exceptionally with {@link org.mashti.jetson.exception.DeadlineExceededException}.
+     * Methods annotated with {@link Deadline} use their annotated deadline instead.
+     *
+     * @param deadline the deadline, or {@code zero} if calls should never time out
+     * @param unit the unit of the deadline
+     */
+    public void setCallDeadline(final long deadline, final TimeUnit unit) {
+
+        deadline_scheduler.setDefaultDeadline(deadline, unit);
+    }
+
+    /**
+     * Gets the consolidator of request flushes for the clients constructed by this factory.
+     * Flush consolidation is disabled by default; once {@link FlushConsolidator#setEnabled(boolean) enabled} the requests written within the same event loop tick are flushed together.
+     *
+     * @return the flush consolidator of this factory
+     */
+    public FlushConsolidator getFlushConsolidator() {
+
+        return flush_consolidator;
+    }
+
+    /**
+     * Sets whether the calls to servers that are exposed on a {@link io.netty.channel.local.LocalAddress local address} in the same JVM are handed to the servers directly, without a channel.
+     * Direct calls skip the framing and the codecs: the arguments and the results are passed by reference rather than copied, so direct dispatch should only be enabled for services whose argument and result types are immutable.
+     * The calls to any other address are unaffected. Direct dispatch is disabled by default.
+     *
+     * @param enabled whether to enable direct dispatch
+     */
+    public void setDirectDispatchEnabled(final boolean enabled) {
+
+        direct_dispatcher.setEnabled(enabled);
+    }
+
+    /**
+     * Checks whether the calls to servers that are exposed on a {@link io.netty.channel.local.LocalAddress local address} in the same JVM are handed to the servers directly.
+     *
+     * @return whether direct dispatch is enabled
+     * @see #setDirectDispatchEnabled(boolean)
+     */
+    public boolean isDirectDispatchEnabled() {
+
+        return direct_dispatcher.isEnabled();
+    }
+
+    /**
+     * Sets an option of the connections that are established after this method is called, such as the Linux-specific {@link io.netty.channel.epoll.EpollChannelOption options} of the {@link Transport#EPOLL epoll} transport.
+     * Options that are not supported by the transport of this factory are ignored.
+     *
+     * @param option the option to set
+     * @param value the value of the option
+     * @param <T> the type of the option value
+     */
+    public <T> void setOption(final ChannelOption<T> option, final T value) {
+
+        bootstrap.option(option, value);
+    }
+
+    /**
+     * Sets the allocator of the buffers of the connections that are established after this method is called.
+     * By default, buffers are allocated from the {@link PooledByteBufAllocator#DEFAULT shared pool}, which prefers direct memory, unless this factory is constructed with a bootstrap of its own.
+     *
+     * @param allocator the allocator of buffers
+     */
+    public void setAllocator(final ByteBufAllocator allocator) {
+
+        if (allocator == null) { throw new NullPointerException("allocator must not be null"); }
+        this.allocator = allocator;
+        bootstrap.option(ChannelOption.ALLOCATOR, allocator);
     }
 
-    /** Shuts down all the {@link EventLoopGroup threads} that are used by any client constructed using this factory. */
+    /**
+     * Gets the allocator that this factory sets on its connections.
+     *
+     * @return the allocator of the buffers of the connections, or {@code null} if this factory is constructed with a bootstrap of its own and no allocator is {@link #setAllocator(ByteBufAllocator) set}
+     */
+    public ByteBufAllocator getAllocator() {
+
+        return allocator;
+    }
+
+    /**
+     * Takes a snapshot of the arena statistics of the {@link #getAllocator() allocator} of this factory.
+     *
+     * @return the statistics of the allocator of this factory, or {@code null} if the allocator is not pooled
+     */
+    public BufferPoolStatistics getBufferPoolStatistics() {
+
+        return BufferPoolStatistics.of(allocator);
+    }
+
+    /**
+     * Shuts down all the {@link EventLoopGroup threads} that are used by any client constructed using this factory.
+     * If this factory is built on {@link TransportResources shared resources}, its connections are closed instead and the resources are {@link TransportResources#release() released},
+     * so that the threads are shut down only once the last of the factories that share them is shut down.
+     */
     public void shutdown() {
 
-        LOGGER.debug("shutting down client factory for service {}", interfaces[0]);
-        bootstrap.group().shutdownGracefully();
+        if (shut_down.compareAndSet(false, true)) {
+            LOGGER.debug("shutting down client factory for services {}", Arrays.toString(interfaces));
+            if (resources != null) {
+                channel_pool.close();
+                resources.release();
+            }
+            else {
+                deadline_scheduler.stop();
+                bootstrap.group().shutdownGracefully();
+            }
+        }
     }
 
-    protected Client createClient(final InetSocketAddress address) {
+    protected Client createClient(final SocketAddress address) {
 
-        return new Client(address, dispatch, channel_pool);
+        return new Client(address, dispatch, dispatch_indices, channel_pool, flush_consolidator, deadline_scheduler, direct_dispatcher);
     }
 
-    @SuppressWarnings("unchecked")
-    Service createProxy(final Client handler) {
+    private Object createProxy(final Client handler, final int interface_index) {
+
+        final Constructor<?> stub_constructor = stub_constructors[interface_index];
+        if (stub_constructor != null) {
+            try {
+                return stub_constructor.newInstance(handler);
+            }
+            catch (final ReflectiveOperationException e) {
+                LOGGER.debug("failed to instantiate generated stub; falling back to dynamic proxy", e);
+            }
+        }
+        return Proxy.newProxyInstance(class_loader, new Class<?>[] {interfaces[interface_index]}, handler);
+    }
+
+    private static Constructor<?>[] generateStubs(final Class<?>[] service_interfaces, final Method[] dispatch) {
+
+        final Constructor<?>[] stub_constructors = new Constructor<?>[service_interfaces.length];
+        for (int i = 0; i < service_interfaces.length; i++) {
+            try {
+                stub_constructors[i] = ClientStubGenerator.getStubConstructor(service_interfaces[i], dispatch);
+            }
+            catch (final Exception | LinkageError e) {
+                LOGGER.debug("failed to generate stub for service {}; falling back to dynamic proxy", service_interfaces[i], e);
+            }
+        }
+        return stub_constructors;
+    }
 
-        return (Service) Proxy.newProxyInstance(class_loader, interfaces, handler);
+    private static HashedWheelTimer createDeadlineTimer() {
+
+        final NamedThreadFactory thread_factory = new NamedThreadFactory("client_deadline_timer_");
+        thread_factory.setDaemon(true);
+        return new HashedWheelTimer(thread_factory, DEADLINE_TIMER_TICK_IN_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     private static Bootstrap createDefaultBootstrap(final ChannelHandler handler) {
 
+        return createDefaultBootstrap(handler, Transport.NIO);
+    }
+
+    private static Bootstrap createDefaultBootstrap(final ChannelHandler handler, final Transport transport) {
+
+        final Transport available_transport = transport.orFallback();
+        final EventLoopGroup client_event_loop = available_transport.newEventLoopGroup(new NamedThreadFactory("client_event_loop_"));
+        return createBootstrap(handler, available_transport, client_event_loop);
+    }
+
+    private static Bootstrap createSharedBootstrap(final ChannelHandler handler, final TransportResources resources) {
+
+        return createBootstrap(handler, resources.getTransport(), resources.getIoEventLoop());
+    }
+
+    private static Bootstrap createBootstrap(final ChannelHandler handler, final Transport available_transport, final EventLoopGroup client_event_loop) {
+
         final Bootstrap bootstrap = new Bootstrap();
-        final NioEventLoopGroup client_event_loop = new NioEventLoopGroup(0, new NamedThreadFactory("client_event_loop_"));
         bootstrap.group(client_event_loop);
-        bootstrap.channel(NioSocketChannel.class);
+        bootstrap.channel(available_transport.getChannelType());
         bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, DEFAULT_CONNECTION_TIMEOUT_IN_MILLIS);
-        bootstrap.option(ChannelOption.TCP_NODELAY, true);
+        if (available_transport.isTcp()) {
+            bootstrap.option(ChannelOption.TCP_NODELAY, true);
+        }
         bootstrap.handler(handler);
         return bootstrap;
     }
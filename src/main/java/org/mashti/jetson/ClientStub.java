@@ -0,0 +1,63 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+/**
+ * The base class of the client stubs that are generated per service interface by {@link ClientFactory}.
+ * Each method of a generated stub passes its arguments to {@link #call(int, Object[])} with the index of the method in the dispatch baked in,
+ * so that no reflection is involved in making a remote call.
+ * The arguments are still passed as an array, since the request holds on to them until it is encoded on the event loop, or handed to a server in the same JVM.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public abstract class ClientStub {
+
+    private final Client client;
+
+    protected ClientStub(final Client client) {
+
+        this.client = client;
+    }
+
+    /**
+     * Makes a remote call to the method at the given index of the dispatch.
+     *
+     * @param method_index the index of the method in the dispatch
+     * @param arguments the arguments of the call
+     * @return the response to the call
+     */
+    protected final FutureResponse<?> call(final int method_index, final Object[] arguments) {
+
+        return client.call(method_index, arguments);
+    }
+
+    @Override
+    public String toString() {
+
+        return client.toString();
+    }
+}
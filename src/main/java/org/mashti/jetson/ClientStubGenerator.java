@@ -0,0 +1,152 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.NotFoundException;
+
+/**
+ * Generates the {@link ClientStub client stub} classes of service interfaces using Javassist.
+ * Each generated class is defined by its own {@link GeneratedClassLoader}, and is generated once per service interface and dispatch.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+final class ClientStubGenerator {
+
+    private static final String STUB_CLASS_NAME_SUFFIX = "$$JetsonStub";
+    private static final AtomicInteger NEXT_STUB_CLASS_ID = new AtomicInteger();
+    private static final ConcurrentHashMap<List<Object>, Constructor<?>> STUB_CONSTRUCTORS = new ConcurrentHashMap<List<Object>, Constructor<?>>();
+
+    private ClientStubGenerator() {
+
+    }
+
+    /**
+     * Gets the constructor of the stub class that implements the given service interface for the given dispatch.
+     * The stub class is generated on the first call for the service interface and dispatch, and shared by the subsequent calls for an equal dispatch.
+     *
+     * @param service_interface the public service interface
+     * @param dispatch the methods of the service interface, in the order of their indices
+     * @return the constructor of the stub class
+     * @throws Exception if the stub class cannot be generated
+     * @see #generate(Class, Method[])
+     */
+    static Constructor<?> getStubConstructor(final Class<?> service_interface, final Method[] dispatch) throws Exception {
+
+        final List<Object> key = Arrays.<Object>asList(service_interface, Arrays.asList(dispatch.clone()));
+        final Constructor<?> cached = STUB_CONSTRUCTORS.get(key);
+        if (cached != null) { return cached; }
+
+        final Constructor<?> generated = generate(service_interface, dispatch);
+        final Constructor<?> existing = STUB_CONSTRUCTORS.putIfAbsent(key, generated);
+        return existing != null ? existing : generated;
+    }
+
+    /**
+     * Generates a stub class that implements the given service interface, and gets its constructor.
+     * The constructor of the generated class takes the {@link Client} to which the calls are passed.
+     * The dispatch may also contain the methods of other interfaces, whose calls share the same client; such methods are skipped.
+     *
+     * @param service_interface the public service interface
+     * @param dispatch the methods of the service interface, in the order of their indices
+     * @return the constructor of the generated stub class
+     * @throws Exception if the stub class cannot be generated
+     */
+    static Constructor<?> generate(final Class<?> service_interface, final Method[] dispatch) throws Exception {
+
+        if (!Modifier.isPublic(service_interface.getModifiers())) { throw new IllegalArgumentException("cannot generate a stub for non-public interface " + service_interface); }
+        if (!Arrays.asList(dispatch).containsAll(getAbstractMethods(service_interface))) { throw new IllegalArgumentException("dispatch does not cover all the methods of " + service_interface); }
+
+        final GeneratedClassLoader class_loader = new GeneratedClassLoader(service_interface);
+        final ClassPool pool = class_loader.newClassPool();
+
+        final String stub_class_name = service_interface.getName() + STUB_CLASS_NAME_SUFFIX + NEXT_STUB_CLASS_ID.getAndIncrement();
+        final CtClass stub_class = pool.makeClass(stub_class_name, pool.get(ClientStub.class.getName()));
+        stub_class.addInterface(pool.get(service_interface.getName()));
+        stub_class.addConstructor(CtNewConstructor.make(new CtClass[] {pool.get(Client.class.getName())}, new CtClass[0], "{ super($1); }", stub_class));
+
+        for (int index = 0; index < dispatch.length; index++) {
+            final Method method = dispatch[index];
+            if (Modifier.isStatic(method.getModifiers()) || !method.getDeclaringClass().isAssignableFrom(service_interface)) {
+                continue;
+            }
+
+            final CtClass return_type = toCtClass(pool, method.getReturnType());
+            final CtClass[] parameter_types = toCtClasses(pool, method.getParameterTypes());
+            final CtClass[] exception_types = toCtClasses(pool, method.getExceptionTypes());
+            final String arguments = parameter_types.length == 0 ? "null" : "$args";
+            final String body = "{ return ($r) call(" + index + ", " + arguments + "); }";
+            stub_class.addMethod(CtNewMethod.make(return_type, method.getName(), parameter_types, exception_types, body, stub_class));
+        }
+
+        final byte[] bytecode = stub_class.toBytecode();
+        stub_class.detach();
+        final Class<?> stub = class_loader.define(stub_class_name, bytecode);
+        return stub.getConstructor(Client.class);
+    }
+
+    private static List<Method> getAbstractMethods(final Class<?> service_interface) {
+
+        final List<Method> abstract_methods = new ArrayList<Method>();
+        for (final Method method : service_interface.getMethods()) {
+            if (Modifier.isAbstract(method.getModifiers())) {
+                abstract_methods.add(method);
+            }
+        }
+        return abstract_methods;
+    }
+
+    static CtClass[] toCtClasses(final ClassPool pool, final Class<?>[] types) throws NotFoundException {
+
+        final CtClass[] ct_classes = new CtClass[types.length];
+        for (int i = 0; i < types.length; i++) {
+            ct_classes[i] = toCtClass(pool, types[i]);
+        }
+        return ct_classes;
+    }
+
+    static CtClass toCtClass(final ClassPool pool, final Class<?> type) throws NotFoundException {
+
+        return pool.get(toCtClassName(type));
+    }
+
+    static String toCtClassName(final Class<?> type) {
+
+        return type.isArray() ? toCtClassName(type.getComponentType()) + "[]" : type.getName();
+    }
+}
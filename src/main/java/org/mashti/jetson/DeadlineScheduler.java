@@ -0,0 +1,167 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.mashti.jetson.exception.DeadlineExceededException;
+
+/**
+ * Enforces the deadlines of remote calls using a single {@link Timer timer}.
+ * When the deadline of a call passes, its {@link FutureResponse} is completed exceptionally with {@link DeadlineExceededException}, which in turn removes it from the pending responses of its channel.
+ * This class is thread-safe.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ * @see Deadline
+ */
+public class DeadlineScheduler {
+
+    private static final long NO_DEADLINE = 0;
+    private final Timer timer;
+    private final Map<Method, Long> annotated_deadlines_nanos;
+    private volatile long default_deadline_nanos = NO_DEADLINE;
+
+    /**
+     * Instantiates a new deadline scheduler.
+     *
+     * @param timer the timer that triggers the deadlines
+     * @param dispatch the methods of the remote service, whose {@link Deadline} annotations are read
+     */
+    public DeadlineScheduler(final Timer timer, final Method[] dispatch) {
+
+        this.timer = timer;
+        annotated_deadlines_nanos = new HashMap<Method, Long>();
+        for (final Method method : dispatch) {
+            Deadline deadline = method.getAnnotation(Deadline.class);
+            if (deadline == null) {
+                deadline = method.getDeclaringClass()
+                        .getAnnotation(Deadline.class);
+            }
+            if (deadline != null) {
+                annotated_deadlines_nanos.put(method, deadline.unit()
+                        .toNanos(deadline.value()));
+            }
+        }
+    }
+
+    /**
+     * Sets the deadline of calls to the methods that are not annotated with {@link Deadline}.
+     *
+     * @param deadline the deadline, or {@code zero} if calls should never time out
+     * @param unit the unit of the deadline
+     */
+    public void setDefaultDeadline(final long deadline, final TimeUnit unit) {
+
+        if (deadline < 0) { throw new IllegalArgumentException("deadline must not be negative"); }
+        default_deadline_nanos = unit.toNanos(deadline);
+    }
+
+    public long getDefaultDeadline(final TimeUnit unit) {
+
+        return unit.convert(default_deadline_nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the deadline of calls to the given method.
+     *
+     * @param method the method
+     * @param unit the unit in which to return the deadline
+     * @return the deadline of calls to the given method, or {@code zero} if calls to the method never time out
+     */
+    public long getDeadline(final Method method, final TimeUnit unit) {
+
+        return unit.convert(getDeadlineInNanos(method), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Schedules the deadline of the given response according to its method.
+     *
+     * @param future_response the response to schedule the deadline of
+     */
+    public void schedule(final FutureResponse<?> future_response) {
+
+        final long deadline_nanos = getDeadlineInNanos(future_response.getMethod());
+        if (deadline_nanos > NO_DEADLINE) {
+            schedule(future_response, deadline_nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Schedules a deadline for the given response.
+     *
+     * @param future_response the response to schedule the deadline of
+     * @param deadline the deadline
+     * @param unit the unit of the deadline
+     */
+    public void schedule(final FutureResponse<?> future_response, final long deadline, final TimeUnit unit) {
+
+        if (future_response.isDone()) { return; }
+
+        final DeadlineTask task = new DeadlineTask(future_response, deadline, unit);
+        future_response.setDeadlineTimeout(timer.newTimeout(task, deadline, unit));
+    }
+
+    /** Stops the timer of this scheduler. Any pending deadlines are abandoned. */
+    public void stop() {
+
+        timer.stop();
+    }
+
+    private long getDeadlineInNanos(final Method method) {
+
+        final Long annotated_deadline = annotated_deadlines_nanos.get(method);
+        return annotated_deadline != null ? annotated_deadline : default_deadline_nanos;
+    }
+
+    private static final class DeadlineTask implements TimerTask {
+
+        private final FutureResponse<?> future_response;
+        private final long deadline;
+        private final TimeUnit unit;
+
+        private DeadlineTask(final FutureResponse<?> future_response, final long deadline, final TimeUnit unit) {
+
+            this.future_response = future_response;
+            this.deadline = deadline;
+            this.unit = unit;
+        }
+
+        @Override
+        public void run(final Timeout timeout) throws Exception {
+
+            if (!future_response.isDone()) {
+                future_response.completeExceptionally(new DeadlineExceededException("call did not complete within " + deadline + " " + unit.toString()
+                        .toLowerCase()));
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.channel.local.LocalAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands the calls to servers in the same JVM straight to their dispatch, bypassing the channel and the codecs.
+ * Servers that are exposed on a {@link LocalAddress local address} are registered with this class for as long as they are exposed.
+ * Direct dispatch is disabled by default. This class is thread-safe.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+final class DirectDispatcher {
+
+    private static final ConcurrentHashMap<LocalAddress, Server> LOCAL_SERVERS = new ConcurrentHashMap<LocalAddress, Server>();
+    private volatile boolean enabled;
+
+    static void register(final LocalAddress address, final Server server) {
+
+        LOCAL_SERVERS.put(address, server);
+    }
+
+    static void unregister(final LocalAddress address, final Server server) {
+
+        LOCAL_SERVERS.remove(address, server);
+    }
+
+    boolean isEnabled() {
+
+        return enabled;
+    }
+
+    void setEnabled(final boolean enabled) {
+
+        this.enabled = enabled;
+    }
+
+    /**
+     * Dispatches the call of the given response directly to the server that is exposed on the given address, if direct dispatch is enabled and there is such a server.
+     *
+     * @param address the address of the remote endpoint
+     * @param future_response the response whose call to dispatch
+     * @return whether the call is dispatched directly; {@code false} if the call should be written to a channel instead
+     */
+    @SuppressWarnings("unchecked")
+    boolean dispatch(final SocketAddress address, final FutureResponse<?> future_response) {
+
+        if (!enabled || !(address instanceof LocalAddress)) { return false; }
+        final Server server = LOCAL_SERVERS.get(address);
+        if (server == null) { return false; }
+        server.dispatchDirectly((FutureResponse<Object>) future_response);
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+/**
+ * Specifies the threads on which a {@link Server} invokes the methods of its services.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ * @see Execution
+ * @see RequestExecutor
+ */
+public enum ExecutionPolicy {
+
+    /** Invokes methods on the event loop thread that reads the request. Suits methods that return quickly without blocking. */
+    INLINE,
+
+    /** Invokes methods on the bounded {@link RequestExecutor#setWorkerPool(int, int) worker pool}. Suits methods that block. */
+    WORKER_POOL,
+
+    /** Invokes methods on the {@link RequestExecutor#setForkJoinPool(java.util.concurrent.ForkJoinPool) fork-join pool}. Suits CPU-heavy methods that do not block. */
+    FORK_JOIN,
+
+    /**
+     * Invokes each method on a new virtual thread. Suits methods that block, without bounding the number of concurrent invocations by the size of a pool.
+     * On JDKs that do not {@link RequestExecutor#isVirtualThreadSupported() support virtual threads} methods are invoked on the {@link #WORKER_POOL worker pool} instead.
+     */
+    VIRTUAL_THREAD
+}
@@ -0,0 +1,288 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Consolidates the flushes of requests that are written to the same channel.
+ * When enabled, the requests that are written within the same event loop tick are flushed together, up to a {@link #setMaxBatchSize(int) maximum batch size}.
+ * Optionally, a flush may be {@link #setMaxDelay(long, TimeUnit) delayed} by a bounded amount of time in order to form larger batches under load.
+ * The requests of a client that are sent from outside the event loop of their channel are queued, and written by a single task per batch.
+ * Consolidation is disabled by default, in which case every request is flushed as soon as it is written.
+ * This class is thread-safe.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public class FlushConsolidator {
+
+    private static final AttributeKey<Batch> BATCH_ATTRIBUTE_KEY = AttributeKey.valueOf("flush_batch");
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    private final LongAdder flush_count = new LongAdder();
+    private final LongAdder flushed_request_count = new LongAdder();
+    private final AtomicLong max_flushed_batch_size = new AtomicLong();
+    private volatile boolean enabled;
+    private volatile int max_batch_size = DEFAULT_MAX_BATCH_SIZE;
+    private volatile long max_delay_nanos;
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+
+        this.enabled = enabled;
+    }
+
+    public int getMaxBatchSize() {
+
+        return max_batch_size;
+    }
+
+    /**
+     * Sets the maximum number of requests that are flushed together. A channel is flushed as soon as this many requests are written to it since the last flush.
+     *
+     * @param max_batch_size the maximum number of requests per flush, must be at least {@code 1}
+     */
+    public void setMaxBatchSize(final int max_batch_size) {
+
+        if (max_batch_size < 1) { throw new IllegalArgumentException("max batch size must be at least 1"); }
+        this.max_batch_size = max_batch_size;
+    }
+
+    public long getMaxDelay(final TimeUnit unit) {
+
+        return unit.convert(max_delay_nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the maximum time by which a flush may be delayed after a request is written. A delay of {@code zero} flushes at the end of the current event loop tick.
+     *
+     * @param max_delay the maximum delay
+     * @param unit the unit of the maximum delay
+     */
+    public void setMaxDelay(final long max_delay, final TimeUnit unit) {
+
+        if (max_delay < 0) { throw new IllegalArgumentException("max delay must not be negative"); }
+        max_delay_nanos = unit.toNanos(max_delay);
+    }
+
+    /**
+     * Gets the number of consolidated flushes performed so far.
+     *
+     * @return the number of flushes
+     */
+    public long getFlushCount() {
+
+        return flush_count.sum();
+    }
+
+    /**
+     * Gets the number of requests that have been flushed by the consolidated flushes so far.
+     *
+     * @return the number of flushed requests
+     */
+    public long getFlushedRequestCount() {
+
+        return flushed_request_count.sum();
+    }
+
+    /**
+     * Gets the average number of requests per consolidated flush.
+     *
+     * @return the average batch size, or {@code zero} if no flush has been performed
+     */
+    public double getAverageBatchSize() {
+
+        final long flushes = getFlushCount();
+        return flushes == 0 ? 0 : (double) getFlushedRequestCount() / flushes;
+    }
+
+    /**
+     * Gets the largest number of requests that are flushed together so far.
+     *
+     * @return the largest batch size
+     */
+    public long getMaxFlushedBatchSize() {
+
+        return max_flushed_batch_size.get();
+    }
+
+    /** Resets the flush statistics. */
+    public void resetStatistics() {
+
+        flush_count.reset();
+        flushed_request_count.reset();
+        max_flushed_batch_size.set(0);
+    }
+
+    /**
+     * Flushes the given channel, or schedules a consolidated flush if consolidation is enabled and this method is called by the event loop of the channel.
+     *
+     * @param channel the channel to which a request has been written
+     */
+    public void flush(final Channel channel) {
+
+        if (enabled && channel.eventLoop()
+                .inEventLoop()) {
+            getBatch(channel).add();
+        }
+        else {
+            channel.flush();
+        }
+    }
+
+    /**
+     * Queues the request of the given response to be written by the given client once the event loop of the given channel drains the queue.
+     * The drain task is submitted only when the queue of the channel goes from empty to non-empty.
+     *
+     * @param channel the channel to which to write the request
+     * @param client the client that writes the request
+     * @param future_response the response whose request to write
+     */
+    void enqueue(final Channel channel, final Client client, final FutureResponse<?> future_response) {
+
+        getBatch(channel).enqueue(client, future_response);
+    }
+
+    private Batch getBatch(final Channel channel) {
+
+        final Attribute<Batch> attribute = channel.attr(BATCH_ATTRIBUTE_KEY);
+        final Batch batch = attribute.get();
+        if (batch != null) { return batch; }
+
+        final Batch new_batch = new Batch(channel);
+        final Batch existing_batch = attribute.setIfAbsent(new_batch);
+        return existing_batch != null ? existing_batch : new_batch;
+    }
+
+    private void record(final int batch_size) {
+
+        flush_count.increment();
+        flushed_request_count.add(batch_size);
+        long max = max_flushed_batch_size.get();
+        while (batch_size > max && !max_flushed_batch_size.compareAndSet(max, batch_size)) {
+            max = max_flushed_batch_size.get();
+        }
+    }
+
+    /** A request queued by a thread other than the event loop of its channel. */
+    private static final class QueuedWrite {
+
+        private final Client client;
+        private final FutureResponse<?> future_response;
+
+        private QueuedWrite(final Client client, final FutureResponse<?> future_response) {
+
+            this.client = client;
+            this.future_response = future_response;
+        }
+    }
+
+    /** The requests awaiting flush on a single channel. Apart from the queue of writes, accessed only by the event loop of the channel. */
+    private final class Batch implements Runnable {
+
+        private final Channel channel;
+        private final Queue<QueuedWrite> queued_writes = new ConcurrentLinkedQueue<QueuedWrite>();
+        private final AtomicInteger queued_write_count = new AtomicInteger();
+        private final Runnable drain_task = this::drain;
+        private int pending_count;
+        private boolean scheduled;
+
+        private Batch(final Channel channel) {
+
+            this.channel = channel;
+        }
+
+        private void enqueue(final Client client, final FutureResponse<?> future_response) {
+
+            queued_writes.add(new QueuedWrite(client, future_response));
+            if (queued_write_count.getAndIncrement() == 0) {
+                channel.eventLoop()
+                        .execute(drain_task);
+            }
+        }
+
+        private void drain() {
+
+            int count = queued_write_count.get();
+            while (count > 0) {
+                for (int i = 0; i < count; i++) {
+                    final QueuedWrite queued_write = queued_writes.poll();
+                    queued_write.client.write(channel, queued_write.future_response);
+                    add();
+                }
+                count = queued_write_count.addAndGet(-count);
+            }
+        }
+
+        private void add() {
+
+            pending_count++;
+            if (pending_count >= max_batch_size) {
+                flush();
+            }
+            else if (!scheduled) {
+                scheduled = true;
+                final long delay = max_delay_nanos;
+                if (delay > 0) {
+                    channel.eventLoop()
+                            .schedule(this, delay, TimeUnit.NANOSECONDS);
+                }
+                else {
+                    channel.eventLoop()
+                            .execute(this);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+
+            scheduled = false;
+            flush();
+        }
+
+        private void flush() {
+
+            if (pending_count > 0) {
+                record(pending_count);
+                pending_count = 0;
+                channel.flush();
+            }
+        }
+    }
+}
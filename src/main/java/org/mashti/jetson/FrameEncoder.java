@@ -0,0 +1,90 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.EncoderException;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import java.util.List;
+import org.mashti.jetson.util.VarInts;
+
+/**
+ * Prefixes each outbound message with its length according to a {@link Framing}.
+ * The length prefix is written to its own buffer and the message is passed on as is, so that messages are not copied.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+@ChannelHandler.Sharable
+final class FrameEncoder extends MessageToMessageEncoder<ByteBuf> {
+
+    private final Framing framing;
+
+    FrameEncoder(final Framing framing) {
+
+        this.framing = framing;
+    }
+
+    @Override
+    protected void encode(final ChannelHandlerContext context, final ByteBuf message, final List<Object> out) throws Exception {
+
+        final int frame_length = message.readableBytes();
+        if (frame_length > framing.getMaxFrameLength()) { throw new EncoderException("frame length " + frame_length + " exceeds the maximum of " + framing.getMaxFrameLength()); }
+
+        final int length_field_length = framing.getLengthFieldLength(frame_length);
+        final ByteBuf length_field = context.alloc()
+                .buffer(length_field_length);
+        if (framing.isVariableLength()) {
+            VarInts.writeUnsignedInt(length_field, frame_length);
+        }
+        else {
+            writeFixedLength(length_field, length_field_length, frame_length);
+        }
+        out.add(length_field);
+        if (frame_length > 0) {
+            out.add(message.retain());
+        }
+    }
+
+    private static void writeFixedLength(final ByteBuf out, final int length_field_length, final int frame_length) {
+
+        switch (length_field_length) {
+            case 1:
+                out.writeByte(frame_length);
+                break;
+            case 2:
+                out.writeShort(frame_length);
+                break;
+            case 3:
+                out.writeMedium(frame_length);
+                break;
+            default:
+                out.writeInt(frame_length);
+        }
+    }
+}
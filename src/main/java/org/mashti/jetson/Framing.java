@@ -0,0 +1,143 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.channel.ChannelInboundHandler;
+import io.netty.channel.ChannelOutboundHandler;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.mashti.jetson.util.VarInts;
+
+/**
+ * Specifies how messages are delimited on a connection: each message is prefixed with its length, either as a fixed-width or a variable-width unsigned integer.
+ * Clients and servers must be configured with the same framing. This class is immutable.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public final class Framing {
+
+    /** The framing that is used by default, which prefixes each message with a two-byte length and limits messages to {@code 65535} bytes. */
+    public static final Framing DEFAULT = fixed(2, 0xFFFF);
+    private static final int VARIABLE_LENGTH_FIELD = 0;
+    private final int length_field_length;
+    private final int max_frame_length;
+    private final FrameEncoder encoder;
+
+    private Framing(final int length_field_length, final int max_frame_length) {
+
+        this.length_field_length = length_field_length;
+        this.max_frame_length = max_frame_length;
+        encoder = new FrameEncoder(this);
+    }
+
+    /**
+     * Creates a framing that prefixes each message with its length as a big-endian unsigned integer of the given width.
+     *
+     * @param length_field_length the number of bytes of the length prefix, from {@code 1} to {@code 4}
+     * @param max_frame_length the maximum number of bytes of a message, excluding the length prefix
+     * @return the framing
+     * @throws IllegalArgumentException if the maximum length is not positive or cannot be represented in the given number of bytes
+     */
+    public static Framing fixed(final int length_field_length, final int max_frame_length) {
+
+        if (length_field_length < 1 || length_field_length > 4) { throw new IllegalArgumentException("length field length must be between 1 and 4 bytes: " + length_field_length); }
+        if (max_frame_length < 1) { throw new IllegalArgumentException("max frame length must be positive: " + max_frame_length); }
+        if (length_field_length < 4 && max_frame_length >>> length_field_length * 8 != 0) { throw new IllegalArgumentException("max frame length " + max_frame_length + " does not fit in " + length_field_length + " bytes"); }
+        return new Framing(length_field_length, max_frame_length);
+    }
+
+    /**
+     * Creates a framing that prefixes each message with its length as a {@link VarInts variable-width} unsigned integer.
+     * Messages shorter than {@code 128} bytes take a single byte of prefix, and messages shorter than {@code 16384} bytes take two.
+     *
+     * @param max_frame_length the maximum number of bytes of a message, excluding the length prefix
+     * @return the framing
+     * @throws IllegalArgumentException if the maximum length is not positive
+     */
+    public static Framing varint(final int max_frame_length) {
+
+        if (max_frame_length < 1) { throw new IllegalArgumentException("max frame length must be positive: " + max_frame_length); }
+        return new Framing(VARIABLE_LENGTH_FIELD, max_frame_length);
+    }
+
+    /**
+     * Checks whether the length prefix of this framing is variable-width.
+     *
+     * @return whether the length prefix of this framing is variable-width
+     */
+    public boolean isVariableLength() {
+
+        return length_field_length == VARIABLE_LENGTH_FIELD;
+    }
+
+    /**
+     * Gets the maximum number of bytes of a message, excluding the length prefix.
+     *
+     * @return the maximum number of bytes of a message
+     */
+    public int getMaxFrameLength() {
+
+        return max_frame_length;
+    }
+
+    int getLengthFieldLength(final int frame_length) {
+
+        return isVariableLength() ? VarInts.getLength(frame_length) : length_field_length;
+    }
+
+    ChannelOutboundHandler getEncoder() {
+
+        return encoder;
+    }
+
+    ChannelInboundHandler newDecoder() {
+
+        if (isVariableLength()) { return new VarIntFrameDecoder(max_frame_length); }
+        final int max_length_including_prefix = (int) Math.min(Integer.MAX_VALUE, (long) max_frame_length + length_field_length);
+        return new LengthFieldBasedFrameDecoder(max_length_including_prefix, 0, length_field_length, 0, length_field_length);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+
+        if (this == other) { return true; }
+        if (!(other instanceof Framing)) { return false; }
+        final Framing that = (Framing) other;
+        return length_field_length == that.length_field_length && max_frame_length == that.max_frame_length;
+    }
+
+    @Override
+    public int hashCode() {
+
+        return 31 * length_field_length + max_frame_length;
+    }
+
+    @Override
+    public String toString() {
+
+        return (isVariableLength() ? "varint" : length_field_length + "-byte") + " framing, max " + max_frame_length + " bytes";
+    }
+}
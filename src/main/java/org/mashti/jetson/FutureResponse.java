@@ -26,39 +26,61 @@
  */
 package org.mashti.jetson;
 
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.GenericFutureListener;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletionException;
+import org.mashti.jetson.exception.DeadlineExceededException;
+import org.mashti.jetson.exception.RPCException;
+import org.mashti.jetson.exception.TransportException;
 
-/** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
-public class FutureResponse<Result> extends CompletableFuture<Result> implements Comparable<FutureResponse<?>>, WrittenByteCountListener {
+/**
+ * The response to a remote call.
+ * On the client side, a response also tracks the resources that are held for its pending request; they are released as soon as the response completes, without registering any completion callbacks.
+ * A response also listens to the write of its request, and fails if the write fails.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public class FutureResponse<Result> extends CompletableFuture<Result> implements WrittenByteCountListener, GenericFutureListener<ChannelFuture> {
 
-    private static final AtomicInteger NEXT_ID = new AtomicInteger();
-    private final Integer id;
+    /** The method index of a response whose method is not decoded by its index. */
+    public static final int NO_METHOD_INDEX = -1;
+    private volatile int id;
     private volatile Method method;
+    private volatile int method_index = NO_METHOD_INDEX;
     private volatile Object[] arguments;
     private volatile WrittenByteCountListener written_byte_count_listener;
+    private volatile PendingFutureResponses pending_responses;
+    private volatile Timeout deadline_timeout;
+    private volatile Channel channel;
 
     public FutureResponse() {
 
-        this(NEXT_ID.incrementAndGet());
-
     }
 
     public FutureResponse(Method method, Object... arguments) {
 
-        this(NEXT_ID.incrementAndGet());
         setMethod(method);
         setArguments(arguments);
     }
 
-    protected FutureResponse(final Integer id) {
+    protected FutureResponse(final int id) {
 
         this.id = id;
     }
 
-    public Integer getId() {
+    /**
+     * Gets the id of the request that corresponds to this response.
+     * On the client side the id is allocated by the channel on which the request is written, and is only unique among the requests pending on that channel.
+     *
+     * @return the request id
+     */
+    public int getId() {
 
         return id;
     }
@@ -78,30 +100,119 @@ public class FutureResponse<Result> extends CompletableFuture<Result> implements
         this.method = method;
     }
 
+    /**
+     * Gets the index of the method of this response in the dispatch of the {@link RequestDecoder request decoder} that decoded it.
+     *
+     * @return the index of the method of this response, or {@link #NO_METHOD_INDEX} if the method is not decoded by its index
+     */
+    public int getMethodIndex() {
+
+        return method_index;
+    }
+
+    /**
+     * Sets the method of this response, and its index in the dispatch of the {@link RequestDecoder request decoder} that decoded it.
+     *
+     * @param method the method
+     * @param method_index the index of the method
+     */
+    public void setMethod(final Method method, final int method_index) {
+
+        this.method = method;
+        this.method_index = method_index;
+    }
+
     public void setArguments(final Object[] arguments) {
 
         this.arguments = arguments;
     }
 
+    void setId(final int id) {
+
+        this.id = id;
+    }
+
+    /**
+     * Sets the table in which this response is pending. This response is removed from the table when it completes.
+     *
+     * @param pending_responses the table in which this response is pending
+     */
+    void setPendingResponses(final PendingFutureResponses pending_responses) {
+
+        this.pending_responses = pending_responses;
+        if (isDone()) {
+            pending_responses.remove(id, this);
+        }
+    }
+
+    /**
+     * Sets the timeout that enforces the deadline of this response. The timeout is cancelled when this response completes.
+     *
+     * @param deadline_timeout the timeout that enforces the deadline of this response
+     */
+    void setDeadlineTimeout(final Timeout deadline_timeout) {
+
+        this.deadline_timeout = deadline_timeout;
+        if (isDone()) {
+            deadline_timeout.cancel();
+        }
+    }
+
+    /**
+     * Sets the channel to which the request of this response is written. If this response is abandoned, i.e. cancelled or timed out, the request is cancelled on the remote server.
+     *
+     * @param channel the channel to which the request of this response is written
+     */
+    void setChannel(final Channel channel) {
+
+        this.channel = channel;
+        if (isDone() && isAbandoned(getCause())) {
+            cancelRemotely(channel);
+        }
+    }
+
+    @Override
+    public boolean complete(final Result value) {
+
+        final boolean completed = super.complete(value);
+        if (completed) {
+            afterCompletion(null);
+        }
+        return completed;
+    }
+
     @Override
-    public int compareTo(final FutureResponse<?> o) {
+    public boolean completeExceptionally(final Throwable error) {
 
-        return getId().compareTo(o.getId());
+        final boolean completed = super.completeExceptionally(error);
+        if (completed) {
+            afterCompletion(error);
+        }
+        return completed;
     }
 
     @Override
-    public int hashCode() {
+    public boolean cancel(final boolean may_interrupt_if_running) {
 
-        return id.hashCode();
+        final boolean cancelled = super.cancel(may_interrupt_if_running);
+        if (cancelled) {
+            afterCompletion(new CancellationException());
+        }
+        return cancelled;
     }
 
+    /**
+     * Fails this response if the write of its request has failed.
+     *
+     * @param write_future the future of the write of the request of this response
+     */
     @Override
-    public boolean equals(final Object other) {
+    public void operationComplete(final ChannelFuture write_future) throws Exception {
 
-        if (this == other) { return true; }
-        if (!(other instanceof FutureResponse)) { return false; }
-        final FutureResponse<?> that = (FutureResponse<?>) other;
-        return id.equals(that.id);
+        if (!write_future.isSuccess()) {
+            final Throwable cause = write_future.cause();
+            completeExceptionally(cause instanceof RPCException ? cause : new TransportException(cause));
+        }
     }
 
     @Override
@@ -117,6 +228,50 @@ public class FutureResponse<Result> extends CompletableFuture<Result> implements
         this.written_byte_count_listener = written_byte_count_listener;
     }
 
+    private void afterCompletion(final Throwable error) {
+
+        final PendingFutureResponses pending_responses = this.pending_responses;
+        if (pending_responses != null) {
+            pending_responses.remove(id, this);
+        }
+
+        final Timeout deadline_timeout = this.deadline_timeout;
+        if (deadline_timeout != null) {
+            deadline_timeout.cancel();
+        }
+
+        final Channel channel = this.channel;
+        if (channel != null && isAbandoned(error)) {
+            cancelRemotely(channel);
+        }
+    }
+
+    private Throwable getCause() {
+
+        try {
+            getNow(null);
+            return null;
+        }
+        catch (final CancellationException e) {
+            return e;
+        }
+        catch (final CompletionException e) {
+            return e.getCause();
+        }
+    }
+
+    private void cancelRemotely(final Channel channel) {
+
+        if (channel.isActive()) {
+            channel.writeAndFlush(new CancelRequest(id));
+        }
+    }
+
+    private static boolean isAbandoned(final Throwable error) {
+
+        return error instanceof CancellationException || error instanceof DeadlineExceededException;
+    }
+
     @Override
     public String toString() {
 
@@ -0,0 +1,157 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.lang.reflect.Method;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.mashti.jetson.exception.IllegalArgumentException;
+import org.mashti.jetson.exception.ServerRuntimeException;
+import org.mashti.jetson.util.ReflectionUtil;
+
+/**
+ * The base class of the service invokers that are generated per dispatch by {@link ServiceInvokerGenerator}.
+ * A generated invoker calls the methods of the service directly, by switching on the index of the method in the dispatch.
+ * Methods that are not in the dispatch, and static methods, are invoked {@link ReflectiveServiceInvoker reflectively}.
+ * Services and arguments that do not match the invoked method are rejected with an {@link IllegalArgumentException}, as they are by the reflective invoker.
+ * The service and the arguments are converted before the method is called, so that exceptions thrown by the method itself are never mistaken for mismatched arguments.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public abstract class GeneratedServiceInvoker implements ServiceInvoker {
+
+    private final Method[] dispatch;
+    private final Map<Method, Integer> identity_indices;
+    private final Map<Method, Integer> indices;
+    private final int[] parameter_counts;
+
+    protected GeneratedServiceInvoker(final Method[] dispatch) {
+
+        this.dispatch = dispatch;
+        indices = ReflectionUtil.mapMethodsToIndices(dispatch);
+        identity_indices = new IdentityHashMap<Method, Integer>(indices);
+        parameter_counts = new int[dispatch.length];
+        for (int index = 0; index < dispatch.length; index++) {
+            parameter_counts[index] = dispatch[index].getParameterTypes().length;
+        }
+    }
+
+    /**
+     * Invokes the given method by looking up its index in the dispatch of this invoker.
+     * This is meant for callers that do not know the index of the method, such as calls that are dispatched directly within the same JVM;
+     * requests that are decoded by their method index are invoked through {@link #invoke(Object, int, Object[])}.
+     *
+     * @param service the service on which to invoke the method
+     * @param method the method to invoke
+     * @param arguments the arguments of the invocation
+     * @return the future returned by the invoked method
+     * @throws Throwable if the invocation fails, or the invoked method throws an exception
+     */
+    @Override
+    public final CompletableFuture<?> invoke(final Object service, final Method method, final Object[] arguments) throws Throwable {
+
+        final Integer index = getIndex(method);
+        if (index == null) { return ReflectiveServiceInvoker.INSTANCE.invoke(service, method, arguments); }
+        return invoke(service, index, arguments);
+    }
+
+    /**
+     * Invokes the method at the given index of the dispatch of this invoker on the given service.
+     *
+     * @param service the service on which to invoke the method
+     * @param index the index of the method in the dispatch
+     * @param arguments the arguments of the invocation
+     * @return the future returned by the invoked method
+     * @throws IllegalArgumentException if the index is not in the dispatch, the service does not implement the method, or the arguments do not match the parameters of the method
+     * @throws ServerRuntimeException if the service is {@code null}
+     * @throws Throwable if the invoked method throws an exception
+     */
+    public final CompletableFuture<?> invoke(final Object service, final int index, final Object[] arguments) throws Throwable {
+
+        if (index < 0 || index >= dispatch.length) { throw newArgumentMismatchException(new java.lang.IllegalArgumentException("unknown method index " + index)); }
+        if (service == null) { throw new ServerRuntimeException(new NullPointerException("service must not be null")); }
+        final int argument_count = arguments == null ? 0 : arguments.length;
+        if (argument_count != parameter_counts[index]) { throw newArgumentMismatchException(new java.lang.IllegalArgumentException("wrong number of arguments: expected " + parameter_counts[index] + " but got " + argument_count)); }
+        return invokeMethod(service, index, arguments);
+    }
+
+    /**
+     * Invokes the method at the given index of the dispatch on the given service.
+     * The index is in the dispatch, the service is not {@code null}, and the number of the given arguments matches the number of parameters of the method.
+     *
+     * @param service the service on which to invoke the method
+     * @param index the index of the method in the dispatch
+     * @param arguments the arguments of the invocation
+     * @return the future returned by the invoked method
+     * @throws IllegalArgumentException if the service is not of the type that declares the method, or an argument is not of the type of its parameter, or is {@code null} for a primitive parameter
+     * @throws Throwable if the invoked method throws an exception
+     */
+    protected abstract CompletableFuture<?> invokeMethod(Object service, int index, Object[] arguments) throws Throwable;
+
+    /**
+     * Invokes the method at the given index of the dispatch reflectively, for the methods that the generated invoker does not call directly.
+     *
+     * @param service the service on which to invoke the method
+     * @param index the index of the method in the dispatch
+     * @param arguments the arguments of the invocation
+     * @return the future returned by the invoked method
+     * @throws Throwable if the invocation fails, or the invoked method throws an exception
+     */
+    protected final CompletableFuture<?> invokeReflectively(final Object service, final int index, final Object[] arguments) throws Throwable {
+
+        return ReflectiveServiceInvoker.INSTANCE.invoke(service, dispatch[index], arguments);
+    }
+
+    /**
+     * Converts the failure to cast the service or to cast or unbox an argument to the exception that the reflective invoker throws for mismatched arguments.
+     *
+     * @param cause the {@link ClassCastException} or the {@link NullPointerException} that occurred while converting the service or an argument
+     * @return the exception to throw
+     */
+    protected static IllegalArgumentException newArgumentMismatchException(final RuntimeException cause) {
+
+        return new IllegalArgumentException(cause);
+    }
+
+    /**
+     * Converts any other runtime exception that occurred while converting the service or an argument to the exception that the reflective invoker throws for it.
+     *
+     * @param cause the runtime exception that occurred
+     * @return the exception to throw
+     */
+    protected static ServerRuntimeException newRuntimeException(final RuntimeException cause) {
+
+        return new ServerRuntimeException(cause);
+    }
+
+    private Integer getIndex(final Method method) {
+
+        final Integer index = identity_indices.get(method);
+        return index != null ? index : indices.get(method);
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Handles the protocol-independent keep-alive frames that keep quiet channels from being closed by their read timeout.
+ * A keep-alive frame is a frame with no content; clients send a ping frame on channels that have not been written to for a while, and servers answer each ping with a pong frame.
+ * Keep-alive frames are consumed by this handler and never reach the request or response decoders.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+@Sharable
+class KeepAliveHandler extends ChannelInboundHandlerAdapter {
+
+    static final String NAME = "keep_alive";
+    static final KeepAliveHandler CLIENT = new KeepAliveHandler(false);
+    static final KeepAliveHandler SERVER = new KeepAliveHandler(true);
+    private final boolean pong;
+
+    private KeepAliveHandler(final boolean pong) {
+
+        this.pong = pong;
+    }
+
+    static void ping(final Channel channel) {
+
+        channel.writeAndFlush(Unpooled.EMPTY_BUFFER);
+    }
+
+    @Override
+    public void channelRead(final ChannelHandlerContext context, final Object message) throws Exception {
+
+        if (message instanceof ByteBuf && !((ByteBuf) message).isReadable()) {
+            ReferenceCountUtil.release(message);
+            if (pong) {
+                context.writeAndFlush(Unpooled.EMPTY_BUFFER);
+            }
+        }
+        else {
+            context.fireChannelRead(message);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.util.List;
+import org.mashti.jetson.util.IntObjectHashMap;
+
+/**
+ * Holds the {@link FutureResponse responses} that are awaiting a reply on a single channel, indexed by their request id.
+ * Request ids are allocated per channel in sequence and wrap around on overflow. An id is never reused while a response with that id is still pending.
+ * This class is thread-safe.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+final class PendingFutureResponses {
+
+    private final IntObjectHashMap<FutureResponse<?>> responses = new IntObjectHashMap<FutureResponse<?>>();
+    private int next_id;
+
+    PendingFutureResponses() {
+
+        this(0);
+    }
+
+    PendingFutureResponses(final int first_id) {
+
+        next_id = first_id;
+    }
+
+    /**
+     * Allocates a request id to the given response and adds it to the pending responses.
+     *
+     * @param response the response to add
+     * @return the id allocated to the response
+     */
+    synchronized int add(final FutureResponse<?> response) {
+
+        int id = next_id++;
+        while (responses.containsKey(id)) {
+            id = next_id++;
+        }
+        responses.put(id, response);
+        return id;
+    }
+
+    synchronized FutureResponse<?> get(final int id) {
+
+        return responses.get(id);
+    }
+
+    synchronized boolean remove(final int id, final FutureResponse<?> response) {
+
+        return responses.remove(id, response);
+    }
+
+    /**
+     * Gets the id that will be considered first for the next response that is added. The next id changes every time a response is added.
+     *
+     * @return the id that will be considered first for the next response
+     */
+    synchronized int getNextId() {
+
+        return next_id;
+    }
+
+    /**
+     * Moves the id that will be considered first for the next response that is added, as though the ids in between had been allocated and released.
+     *
+     * @param next_id the id that will be considered first for the next response
+     */
+    synchronized void setNextId(final int next_id) {
+
+        this.next_id = next_id;
+    }
+
+    synchronized int size() {
+
+        return responses.size();
+    }
+
+    /**
+     * Gets a snapshot of the pending responses. Completing a response in the returned list removes it from this table without affecting the list.
+     *
+     * @return a snapshot of the pending responses
+     */
+    synchronized List<FutureResponse<?>> snapshot() {
+
+        return responses.values();
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import org.mashti.jetson.exception.IllegalAccessException;
+import org.mashti.jetson.exception.IllegalArgumentException;
+import org.mashti.jetson.exception.InternalServerException;
+import org.mashti.jetson.exception.ServerRuntimeException;
+
+/**
+ * Invokes the methods of a service using {@link Method#invoke(Object, Object...) reflection}.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public final class ReflectiveServiceInvoker implements ServiceInvoker {
+
+    /** The shared instance of the reflective invoker. */
+    public static final ReflectiveServiceInvoker INSTANCE = new ReflectiveServiceInvoker();
+
+    private ReflectiveServiceInvoker() {
+
+    }
+
+    @Override
+    public CompletableFuture<?> invoke(final Object service, final Method method, final Object[] arguments) throws Throwable {
+
+        try {
+            return (CompletableFuture<?>) method.invoke(service, arguments);
+        }
+        catch (final java.lang.IllegalArgumentException e) {
+            throw new IllegalArgumentException(e);
+        }
+        catch (final RuntimeException e) {
+            throw new ServerRuntimeException(e);
+        }
+        catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+        catch (final java.lang.IllegalAccessException e) {
+            throw new IllegalAccessException(e);
+        }
+        catch (final ExceptionInInitializerError e) {
+            throw new InternalServerException(e);
+        }
+    }
+}
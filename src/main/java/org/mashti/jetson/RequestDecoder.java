@@ -40,20 +40,51 @@ import org.slf4j.LoggerFactory;
 @Sharable
 public abstract class RequestDecoder extends MessageToMessageDecoder<ByteBuf> {
 
+    /** The method index that is decoded from a request that asks to cancel a pending request. */
+    protected static final int CANCEL_METHOD_INDEX = -1;
     private static final Logger LOGGER = LoggerFactory.getLogger(RequestDecoder.class);
+    private final Method[] dispatch;
+
+    /** Instantiates a new decoder of requests whose methods are decoded by {@link #decodeMethod(ChannelHandlerContext, ByteBuf)}. */
+    protected RequestDecoder() {
+
+        this(null);
+    }
+
+    /**
+     * Instantiates a new decoder of requests whose methods are decoded by their {@link #decodeMethodIndex(ChannelHandlerContext, ByteBuf) index} in the given dispatch.
+     * The index of the method of each request is kept on its {@link FutureResponse#getMethodIndex() response}, so that the server can invoke the method by its index.
+     *
+     * @param dispatch the methods of the requests, in the order of their indices
+     */
+    protected RequestDecoder(final Method[] dispatch) {
+
+        this.dispatch = dispatch;
+    }
+
+    /**
+     * Gets the methods whose indices this decoder decodes.
+     *
+     * @return the methods of the requests in the order of their indices, or {@code null} if the methods are not decoded by their indices
+     */
+    protected final Method[] getDispatch() {
+
+        return dispatch;
+    }
 
     @Override
     protected void decode(final ChannelHandlerContext context, final ByteBuf bytes, final List<Object> out) {
 
-        final FutureResponse<?> future_response;
-        future_response = decode(context, bytes);
-        out.add(future_response);
+        final Object request = decode(context, bytes);
+        if (request != null) {
+            out.add(request);
+        }
     }
 
-    protected FutureResponse<?> decode(final ChannelHandlerContext context, final ByteBuf in) {
+    protected Object decode(final ChannelHandlerContext context, final ByteBuf in) {
 
         FutureResponse<?> future_response = null;
-        final Integer id;
+        final int id;
         final Method method;
         final Object[] arguments;
         try {
@@ -61,10 +92,19 @@ public abstract class RequestDecoder extends MessageToMessageDecoder<ByteBuf> {
             id = decodeId(context, in);
             future_response = new FutureResponse(id);
 
-            method = decodeMethod(context, in);
-            future_response.setMethod(method);
+            if (dispatch != null) {
+                final int method_index = decodeMethodIndex(context, in);
+                if (method_index == CANCEL_METHOD_INDEX) { return new CancelRequest(id); }
+                method = dispatch[method_index];
+                future_response.setMethod(method, method_index);
+            }
+            else {
+                method = decodeMethod(context, in);
+                if (method == null) { return new CancelRequest(id); }
+                future_response.setMethod(method);
+            }
 
-            arguments = decodeMethodArguments(context, in, method);
+            arguments = decodeMethodArguments(context, in, future_response.getMethodIndex(), method);
             future_response.setArguments(arguments);
         }
         catch (RPCException e) {
@@ -87,12 +127,51 @@ public abstract class RequestDecoder extends MessageToMessageDecoder<ByteBuf> {
 
     }
 
-    protected abstract Integer decodeId(ChannelHandlerContext context, ByteBuf in) throws RPCException;
-
+    protected abstract int decodeId(ChannelHandlerContext context, ByteBuf in) throws RPCException;
+
+    /**
+     * Decodes the method of the request that is being decoded, or consumes the rest of the request if it asks to cancel a pending request.
+     * This method is called after the request id is decoded.
+     *
+     * @param context the channel handler context
+     * @param in the buffer from which to decode
+     * @return the method of the request, or {@code null} if the request is a cancel request
+     * @throws RPCException if an error occurs while decoding
+     */
     protected abstract Method decodeMethod(ChannelHandlerContext context, ByteBuf in) throws RPCException;
 
+    /**
+     * Decodes the index of the method of the request that is being decoded in the {@link #RequestDecoder(Method[]) dispatch} of this decoder, or consumes the rest of the request if it asks to cancel a pending request.
+     * This method is called after the request id is decoded, in place of {@link #decodeMethod(ChannelHandlerContext, ByteBuf)}, if this decoder has a dispatch.
+     *
+     * @param context the channel handler context
+     * @param in the buffer from which to decode
+     * @return the index of the method of the request, or {@link #CANCEL_METHOD_INDEX} if the request is a cancel request
+     * @throws RPCException if an error occurs while decoding, or the decoded index is not in the dispatch
+     */
+    protected int decodeMethodIndex(final ChannelHandlerContext context, final ByteBuf in) throws RPCException {
+
+        throw new UnsupportedOperationException("the methods of " + getClass() + " are not decoded by their indices");
+    }
+
     protected abstract Object[] decodeMethodArguments(ChannelHandlerContext context, ByteBuf in, Method method) throws RPCException;
 
+    /**
+     * Decodes the arguments of the given method, which is at the given index of the dispatch of this decoder.
+     * By default, the index is ignored and the arguments are decoded by {@link #decodeMethodArguments(ChannelHandlerContext, ByteBuf, Method)}.
+     *
+     * @param context the channel handler context
+     * @param in the buffer from which to decode
+     * @param method_index the index of the method in the dispatch of this decoder, or {@link FutureResponse#NO_METHOD_INDEX} if the method is not decoded by its index
+     * @param method the method whose arguments to decode
+     * @return the decoded arguments
+     * @throws RPCException if an error occurs while decoding
+     */
+    protected Object[] decodeMethodArguments(final ChannelHandlerContext context, final ByteBuf in, final int method_index, final Method method) throws RPCException {
+
+        return decodeMethodArguments(context, in, method);
+    }
+
     protected void afterDecode(final ChannelHandlerContext context, final ByteBuf in) {
 
     }
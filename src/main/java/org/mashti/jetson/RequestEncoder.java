@@ -33,33 +33,92 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import java.lang.reflect.Method;
 import org.mashti.jetson.exception.RPCException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Sharable
-public abstract class RequestEncoder extends MessageToByteEncoder<FutureResponse<?>> {
-               
+public abstract class RequestEncoder extends MessageToByteEncoder<Object> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestEncoder.class);
+
+    @Override
+    public boolean acceptOutboundMessage(final Object message) throws Exception {
+
+        return message instanceof FutureResponse || message instanceof CancelRequest;
+    }
+
     @Override
+    protected void encode(final ChannelHandlerContext context, final Object message, final ByteBuf out) {
+
+        if (message instanceof CancelRequest) {
+            encodeCancel(context, (CancelRequest) message, out);
+        }
+        else {
+            encode(context, (FutureResponse<?>) message, out);
+        }
+    }
+
     protected void encode(final ChannelHandlerContext context, final FutureResponse<?> future_response, final ByteBuf out) {
 
         int current_index = out.writerIndex();
         try {
             addPendingFutureResponse(context, future_response);
-            final Integer id = future_response.getId();
+            final int id = future_response.getId();
             final Method method = future_response.getMethod();
             final Object[] arguments = future_response.getArguments();
-            encodeRequest(context, id, method, arguments, out);
+            encodeRequest(context, id, future_response.getMethodIndex(), method, arguments, out);
             future_response.notifyWrittenByteCount(out.writerIndex());
-        }             
+            future_response.setChannel(context.channel());
+        }
         catch (final RPCException e) {
             future_response.notifyWrittenByteCount(out.writerIndex() - current_index);
             future_response.completeExceptionally(e);
         }
     }
 
+    private void encodeCancel(final ChannelHandlerContext context, final CancelRequest cancel_request, final ByteBuf out) {
+
+        try {
+            encodeCancel(context, cancel_request.getId(), out);
+        }
+        catch (final RPCException e) {
+            LOGGER.debug("failed to encode cancel request", e);
+        }
+    }
+
+
     protected static void addPendingFutureResponse(final ChannelHandlerContext context, final FutureResponse<?> future_response) {
 
         final Channel channel = context.channel();
         ChannelFuturePool.addFutureResponse(channel, future_response);
     }
 
-    protected abstract void encodeRequest(ChannelHandlerContext context, Integer id, Method method, Object[] arguments, ByteBuf out) throws RPCException;
+    protected abstract void encodeRequest(ChannelHandlerContext context, int id, Method method, Object[] arguments, ByteBuf out) throws RPCException;
+
+    /**
+     * Encodes a request whose method is at the given index of the dispatch of the client that made it.
+     * By default, the index is ignored and the request is encoded by {@link #encodeRequest(ChannelHandlerContext, int, Method, Object[], ByteBuf)}.
+     *
+     * @param context the channel handler context
+     * @param id the id of the request
+     * @param method_index the index of the method in the dispatch of the client, or {@link FutureResponse#NO_METHOD_INDEX} if the index is not known
+     * @param method the method of the request
+     * @param arguments the arguments of the request
+     * @param out the buffer to which to encode the request
+     * @throws RPCException if an error occurs while encoding the request
+     */
+    protected void encodeRequest(final ChannelHandlerContext context, final int id, final int method_index, final Method method, final Object[] arguments, final ByteBuf out) throws RPCException {
+
+        encodeRequest(context, id, method, arguments, out);
+    }
+
+    /**
+     * Encodes a request to cancel the pending request with the given id.
+     *
+     * @param context the channel handler context
+     * @param id the id of the request to cancel
+     * @param out the buffer to which to encode the cancel request
+     * @throws RPCException if an error occurs while encoding the cancel request
+     */
+    protected abstract void encodeCancel(ChannelHandlerContext context, int id, ByteBuf out) throws RPCException;
 }
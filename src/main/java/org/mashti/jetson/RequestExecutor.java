@@ -0,0 +1,426 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.mashti.jetson.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the invocations of service methods off the event loop threads, according to their {@link ExecutionPolicy execution policy}.
+ * The worker pool is created on first use. This class is thread-safe.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public class RequestExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestExecutor.class);
+    private static final boolean VIRTUAL_THREAD_SUPPORTED = isVirtualThreadSupportedByRuntime();
+    static final int DEFAULT_WORKER_POOL_SIZE = Runtime.getRuntime()
+            .availableProcessors() * 2;
+    static final int DEFAULT_WORKER_QUEUE_CAPACITY = 1024;
+    private final ConcurrentHashMap<Method, Optional<ExecutionPolicy>> annotated_policies = new ConcurrentHashMap<Method, Optional<ExecutionPolicy>>();
+    private final ConcurrentHashMap<Method, Integer> annotated_priorities = new ConcurrentHashMap<Method, Integer>();
+    private final AtomicLong submission_sequence = new AtomicLong();
+    private final AtomicLong rejected_count = new AtomicLong();
+    private volatile int worker_pool_size = DEFAULT_WORKER_POOL_SIZE;
+    private volatile int worker_queue_capacity = DEFAULT_WORKER_QUEUE_CAPACITY;
+    private volatile ThreadPoolExecutor worker_pool;
+    private volatile ForkJoinPool fork_join_pool = ForkJoinPool.commonPool();
+    private volatile ExecutorService virtual_thread_executor;
+    private volatile boolean virtual_threads_unavailable = !VIRTUAL_THREAD_SUPPORTED;
+
+    /**
+     * Gets the execution policy of the given method.
+     *
+     * @param method the method
+     * @param default_policy the policy of methods that are not {@link Execution annotated}
+     * @return the annotated policy of the given method or its declaring interface, or the given default policy if neither is annotated
+     */
+    public ExecutionPolicy getPolicy(final Method method, final ExecutionPolicy default_policy) {
+
+        Optional<ExecutionPolicy> annotated_policy = annotated_policies.get(method);
+        if (annotated_policy == null) {
+            annotated_policy = annotated_policies.computeIfAbsent(method, RequestExecutor::getAnnotatedPolicy);
+        }
+        return annotated_policy.orElse(default_policy);
+    }
+
+    /**
+     * Gets the priority of the given method.
+     *
+     * @param method the method
+     * @return the annotated priority of the given method or its declaring interface, or {@link Priority#NORMAL} if neither is annotated
+     */
+    public int getPriority(final Method method) {
+
+        Integer annotated_priority = annotated_priorities.get(method);
+        if (annotated_priority == null) {
+            annotated_priority = annotated_priorities.computeIfAbsent(method, RequestExecutor::getAnnotatedPriority);
+        }
+        return annotated_priority;
+    }
+
+    /**
+     * Executes the given task according to the given policy, with the {@link Priority#NORMAL normal} priority.
+     *
+     * @param policy the execution policy
+     * @param task the task to execute
+     * @throws RejectedExecutionException if the task cannot be accepted, for example because the queue of the worker pool is full
+     * @see #execute(ExecutionPolicy, int, Runnable)
+     */
+    public void execute(final ExecutionPolicy policy, final Runnable task) {
+
+        execute(policy, Priority.NORMAL, task);
+    }
+
+    /**
+     * Executes the given task according to the given policy. A task with the {@link ExecutionPolicy#INLINE inline} policy is run by the calling thread.
+     * Tasks that wait for a worker thread are executed in the order of their priority, and then in the order of their submission.
+     * The priority has no effect on the other policies, except for the {@link ExecutionPolicy#VIRTUAL_THREAD virtual thread} policy when it falls back to the worker pool.
+     *
+     * @param policy the execution policy
+     * @param priority the priority of the task; higher values are executed first
+     * @param task the task to execute
+     * @throws RejectedExecutionException if the task cannot be accepted, for example because the queue of the worker pool is full
+     */
+    public void execute(final ExecutionPolicy policy, final int priority, final Runnable task) {
+
+        try {
+            switch (policy) {
+                case WORKER_POOL:
+                    executeOnWorkerPool(priority, task);
+                    break;
+                case FORK_JOIN:
+                    fork_join_pool.execute(task);
+                    break;
+                case VIRTUAL_THREAD:
+                    final ExecutorService virtual_threads = getVirtualThreadExecutor();
+                    if (virtual_threads != null) {
+                        virtual_threads.execute(task);
+                    }
+                    else {
+                        executeOnWorkerPool(priority, task);
+                    }
+                    break;
+                default:
+                    task.run();
+            }
+        }
+        catch (final RejectedExecutionException e) {
+            rejected_count.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the size of the worker pool and the capacity of its queue. Tasks that are submitted when the queue is full are rejected.
+     * If the worker pool is already created, it is replaced and shut down once its queued tasks are executed.
+     *
+     * @param pool_size the number of worker threads, must be at least {@code 1}
+     * @param queue_capacity the maximum number of tasks that wait for a worker thread, must be at least {@code 1}
+     */
+    public synchronized void setWorkerPool(final int pool_size, final int queue_capacity) {
+
+        if (pool_size < 1) { throw new IllegalArgumentException("worker pool size must be at least 1"); }
+        if (queue_capacity < 1) { throw new IllegalArgumentException("worker queue capacity must be at least 1"); }
+        worker_pool_size = pool_size;
+        worker_queue_capacity = queue_capacity;
+        final ThreadPoolExecutor old_worker_pool = worker_pool;
+        if (old_worker_pool != null) {
+            worker_pool = createWorkerPool();
+            old_worker_pool.shutdown();
+        }
+    }
+
+    /**
+     * Sets the pool on which the methods with the {@link ExecutionPolicy#FORK_JOIN fork-join} policy are executed. The {@link ForkJoinPool#commonPool() common pool} is used by default.
+     *
+     * @param fork_join_pool the fork-join pool
+     */
+    public void setForkJoinPool(final ForkJoinPool fork_join_pool) {
+
+        this.fork_join_pool = fork_join_pool;
+    }
+
+    /**
+     * Checks whether the runtime supports virtual threads, which are introduced in Java 21, or in Java 19 with preview features enabled.
+     * If not, the methods with the {@link ExecutionPolicy#VIRTUAL_THREAD virtual thread} policy are executed on the worker pool.
+     *
+     * @return whether the runtime supports virtual threads
+     */
+    public static boolean isVirtualThreadSupported() {
+
+        return VIRTUAL_THREAD_SUPPORTED;
+    }
+
+    /**
+     * Gets the number of tasks that are waiting for a worker thread.
+     *
+     * @return the number of tasks that are waiting for a worker thread
+     */
+    public int getWorkerPoolQueueDepth() {
+
+        final ThreadPoolExecutor pool = worker_pool;
+        return pool != null ? pool.getQueue()
+                .size() : 0;
+    }
+
+    /**
+     * Gets the number of worker threads that are executing tasks.
+     *
+     * @return the number of worker threads that are executing tasks
+     */
+    public int getWorkerPoolActiveCount() {
+
+        final ThreadPoolExecutor pool = worker_pool;
+        return pool != null ? pool.getActiveCount() : 0;
+    }
+
+    /**
+     * Gets an estimate of the number of tasks that are queued in the fork-join pool.
+     *
+     * @return an estimate of the number of tasks that are queued in the fork-join pool
+     */
+    public long getForkJoinPoolQueueDepth() {
+
+        final ForkJoinPool pool = fork_join_pool;
+        return pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+    }
+
+    /**
+     * Gets the number of tasks that are rejected since this executor is constructed.
+     *
+     * @return the number of rejected tasks
+     */
+    public long getRejectedCount() {
+
+        return rejected_count.get();
+    }
+
+    /**
+     * Shuts down the worker pool and the virtual thread executor once their queued tasks are executed. The fork-join pool is not shut down.
+     * Tasks that are executed after this method is called are executed by new pools, which are created on first use.
+     */
+    public synchronized void shutdown() {
+
+        final ThreadPoolExecutor pool = worker_pool;
+        if (pool != null) {
+            worker_pool = null;
+            pool.shutdown();
+        }
+        final ExecutorService virtual_threads = virtual_thread_executor;
+        if (virtual_threads != null) {
+            virtual_thread_executor = null;
+            virtual_threads.shutdown();
+        }
+    }
+
+    /** Makes the methods with the {@link ExecutionPolicy#VIRTUAL_THREAD virtual thread} policy execute on the worker pool, as they do on runtimes without virtual threads. */
+    void disableVirtualThreads() {
+
+        virtual_threads_unavailable = true;
+    }
+
+    private void executeOnWorkerPool(final int priority, final Runnable task) {
+
+        getWorkerPool().execute(new PrioritizedTask(task, priority, submission_sequence.getAndIncrement()));
+    }
+
+    /**
+     * Gets the executor of virtual threads, which is created on first use.
+     *
+     * @return the executor of virtual threads, or {@code null} if virtual threads are unavailable
+     */
+    private ExecutorService getVirtualThreadExecutor() {
+
+        if (virtual_threads_unavailable) { return null; }
+        final ExecutorService executor = virtual_thread_executor;
+        return executor != null ? executor : createVirtualThreadExecutorIfAbsent();
+    }
+
+    private synchronized ExecutorService createVirtualThreadExecutorIfAbsent() {
+
+        if (virtual_thread_executor == null && !virtual_threads_unavailable) {
+            virtual_thread_executor = createVirtualThreadExecutor();
+            virtual_threads_unavailable = virtual_thread_executor == null;
+        }
+        return virtual_thread_executor;
+    }
+
+    private ThreadPoolExecutor getWorkerPool() {
+
+        final ThreadPoolExecutor pool = worker_pool;
+        return pool != null ? pool : createWorkerPoolIfAbsent();
+    }
+
+    private synchronized ThreadPoolExecutor createWorkerPoolIfAbsent() {
+
+        if (worker_pool == null) {
+            worker_pool = createWorkerPool();
+        }
+        return worker_pool;
+    }
+
+    private ThreadPoolExecutor createWorkerPool() {
+
+        final NamedThreadFactory thread_factory = new NamedThreadFactory("server_worker_");
+        thread_factory.setDaemon(true);
+        return new ThreadPoolExecutor(worker_pool_size, worker_pool_size, 0, TimeUnit.MILLISECONDS, new BoundedPriorityBlockingQueue(worker_queue_capacity), thread_factory);
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread, through reflection so that this class loads on JDKs without virtual threads.
+     * This is the equivalent of {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("server_virtual_", 0).factory())}.
+     *
+     * @return the virtual thread executor, or {@code null} if it cannot be created
+     */
+    private ExecutorService createVirtualThreadExecutor() {
+
+        try {
+            final Class<?> builder_type = Class.forName("java.lang.Thread$Builder");
+            final Object builder = Thread.class.getMethod("ofVirtual")
+                    .invoke(null);
+            final Object named_builder = builder_type.getMethod("name", String.class, long.class)
+                    .invoke(builder, "server_virtual_", 0L);
+            final ThreadFactory thread_factory = (ThreadFactory) builder_type.getMethod("factory")
+                    .invoke(named_builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, thread_factory);
+        }
+        catch (final ReflectiveOperationException e) {
+            LOGGER.warn("failed to create virtual thread executor; falling back to worker pool", e);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether virtual threads can be created, by creating a virtual thread builder.
+     * On Java 19 and 20 virtual threads are a preview feature, and the builder cannot be created unless preview features are enabled.
+     *
+     * @return whether the runtime supports virtual threads
+     */
+    private static boolean isVirtualThreadSupportedByRuntime() {
+
+        try {
+            Thread.class.getMethod("ofVirtual")
+                    .invoke(null);
+            return true;
+        }
+        catch (final ReflectiveOperationException e) {
+            LOGGER.debug("virtual threads are not supported by the runtime; virtual thread execution falls back to the worker pool");
+            return false;
+        }
+    }
+
+    private static Optional<ExecutionPolicy> getAnnotatedPolicy(final Method method) {
+
+        Execution execution = method.getAnnotation(Execution.class);
+        if (execution == null) {
+            execution = method.getDeclaringClass()
+                    .getAnnotation(Execution.class);
+        }
+        return execution != null ? Optional.of(execution.value()) : Optional.<ExecutionPolicy>empty();
+    }
+
+    private static Integer getAnnotatedPriority(final Method method) {
+
+        Priority priority = method.getAnnotation(Priority.class);
+        if (priority == null) {
+            priority = method.getDeclaringClass()
+                    .getAnnotation(Priority.class);
+        }
+        return priority != null ? priority.value() : Priority.NORMAL;
+    }
+
+    /** A task that is ordered by descending priority, and then by ascending submission sequence. */
+    private static final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+        private final Runnable task;
+        private final int priority;
+        private final long sequence;
+
+        private PrioritizedTask(final Runnable task, final int priority, final long sequence) {
+
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+
+            task.run();
+        }
+
+        @Override
+        public int compareTo(final PrioritizedTask other) {
+
+            final int priority_comparison = Integer.compare(other.priority, priority);
+            return priority_comparison != 0 ? priority_comparison : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * A priority queue that refuses new elements once it holds the given number of elements.
+     * The capacity may be exceeded by at most the number of concurrently offering threads, since the size check and the insertion are not atomic.
+     */
+    private static final class BoundedPriorityBlockingQueue extends PriorityBlockingQueue<Runnable> {
+
+        private static final long serialVersionUID = 2871470412646393519L;
+        private final int capacity;
+
+        private BoundedPriorityBlockingQueue(final int capacity) {
+
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean offer(final Runnable task) {
+
+            return size() < capacity && super.offer(task);
+        }
+
+        @Override
+        public int remainingCapacity() {
+
+            return Math.max(0, capacity - size());
+        }
+    }
+}
@@ -27,6 +27,7 @@
 package org.mashti.jetson;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -38,6 +39,29 @@ class RequestHandler extends ChannelInboundHandlerAdapter {
 
     static final String NAME = "request_handler";
     private static final Logger LOGGER = LoggerFactory.getLogger(RequestHandler.class);
+    private final GeneratedServiceInvoker service_invoker;
+
+    RequestHandler(final GeneratedServiceInvoker service_invoker) {
+
+        this.service_invoker = service_invoker;
+    }
+
+    GeneratedServiceInvoker getServiceInvoker() {
+
+        return service_invoker;
+    }
+
+    /**
+     * Gets the invoker that is generated for the dispatch of the request decoder of the channel of the given context.
+     *
+     * @param context the context of a request handler
+     * @return the invoker of the methods of the requests of the channel, or {@code null} if there is no such invoker
+     */
+    static GeneratedServiceInvoker getServiceInvoker(final ChannelHandlerContext context) {
+
+        final ChannelHandler handler = context.handler();
+        return handler instanceof RequestHandler ? ((RequestHandler) handler).service_invoker : null;
+    }
 
     @Override
     public void channelActive(final ChannelHandlerContext context) throws Exception {
@@ -61,7 +85,12 @@ class RequestHandler extends ChannelInboundHandlerAdapter {
     public void channelRead(final ChannelHandlerContext context, final Object message) throws Exception {
 
         final Server server = Server.getServerFromContext(context);
-        server.handle(context, (FutureResponse) message);
+        if (message instanceof CancelRequest) {
+            server.cancel(context, ((CancelRequest) message).getId());
+        }
+        else {
+            server.handle(context, (FutureResponse) message);
+        }
     }
 
     @Override
@@ -31,7 +31,6 @@ import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import java.util.List;
-import java.util.Optional;
 import org.mashti.jetson.exception.RPCException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,17 +44,35 @@ public abstract class ResponseDecoder extends MessageToMessageDecoder<ByteBuf> {
     protected void decode(final ChannelHandlerContext context, final ByteBuf in, final List<Object> out) throws RPCException {
 
         final FutureResponse<?> future_response = decode(context, in);
-        out.add(future_response);
+        if (future_response != null) {
+            out.add(future_response);
+        }
     }
 
+    /**
+     * Decodes a response and completes its pending {@link FutureResponse}.
+     *
+     * @param context the channel handler context
+     * @param in the buffer from which to decode
+     * @return the completed response, or {@code null} if the response does not belong to any pending request
+     * @throws RPCException if an error occurs while decoding
+     */
     protected abstract FutureResponse<?> decode(ChannelHandlerContext context, ByteBuf in) throws RPCException;
 
-    protected FutureResponse<?> getFutureResponseById(final ChannelHandlerContext context, final Integer id) {
+    /**
+     * Gets the pending response with the given id.
+     * A response may arrive after its request is abandoned, i.e. cancelled or timed out, in which case it is no longer pending and should be discarded.
+     *
+     * @param context the channel handler context
+     * @param id the id of the response
+     * @return the pending response with the given id, or {@code null} if no such response is pending
+     */
+    protected FutureResponse<?> getFutureResponseById(final ChannelHandlerContext context, final int id) {
 
-        final Optional<FutureResponse<?>> response = ChannelFuturePool.getFutureResponse(context.channel(), id);
-        if (response.isPresent()) { return response.get(); }
+        final FutureResponse<?> response = ChannelFuturePool.getFutureResponse(context.channel(), id);
+        if (response != null) { return response; }
         else {
-            LOGGER.error("received response with id {} from context {}", id, context);
+            LOGGER.debug("discarded response with id {} from context {}; no such request is pending", id, context);
             return null;
         }
     }
@@ -44,9 +44,9 @@ public abstract class ResponseEncoder extends MessageToByteEncoder<FutureRespons
     protected void encode(final ChannelHandlerContext context, final FutureResponse<?> future_response, final ByteBuf out) throws RPCException {
 
         final int current_index = out.writerIndex();
-        final Integer id = future_response.getId();
+        final int id = future_response.getId();
         try {
-            encodeResult(context, id, future_response.get(), future_response.getMethod(), out);
+            encodeResult(context, id, future_response.get(), future_response.getMethodIndex(), future_response.getMethod(), out);
         }
         catch (InterruptedException e) {
             final Throwable exception = new InternalServerException(e);
@@ -67,8 +67,25 @@ public abstract class ResponseEncoder extends MessageToByteEncoder<FutureRespons
         }
     }
 
-    protected abstract void encodeResult(ChannelHandlerContext context, Integer id, Object result, Method method, ByteBuf out) throws RPCException;
+    protected abstract void encodeResult(ChannelHandlerContext context, int id, Object result, Method method, ByteBuf out) throws RPCException;
 
-    protected abstract void encodeException(ChannelHandlerContext context, Integer id, Throwable exception, ByteBuf out) throws RPCException;
+    /**
+     * Encodes the result of the given method, which is at the given index of the dispatch of the request decoder that decoded the request.
+     * By default, the index is ignored and the result is encoded by {@link #encodeResult(ChannelHandlerContext, int, Object, Method, ByteBuf)}.
+     *
+     * @param context the channel handler context
+     * @param id the id of the request
+     * @param result the result to encode
+     * @param method_index the index of the method in the dispatch of the request decoder, or {@link FutureResponse#NO_METHOD_INDEX} if the method is not decoded by its index
+     * @param method the method whose result to encode
+     * @param out the buffer to which to encode the result
+     * @throws RPCException if an error occurs while encoding the result
+     */
+    protected void encodeResult(final ChannelHandlerContext context, final int id, final Object result, final int method_index, final Method method, final ByteBuf out) throws RPCException {
+
+        encodeResult(context, id, result, method, out);
+    }
+
+    protected abstract void encodeException(ChannelHandlerContext context, int id, Throwable exception, ByteBuf out) throws RPCException;
 
 }
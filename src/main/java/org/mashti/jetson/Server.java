@@ -28,20 +28,28 @@ package org.mashti.jetson;
 
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.local.LocalAddress;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.util.AttributeKey;
 import io.netty.util.concurrent.ImmediateEventExecutor;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import org.mashti.jetson.exception.IllegalAccessException;
-import org.mashti.jetson.exception.IllegalArgumentException;
-import org.mashti.jetson.exception.InternalServerException;
-import org.mashti.jetson.exception.ServerRuntimeException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.mashti.jetson.exception.InvalidRequestException;
+import org.mashti.jetson.exception.ServerOverloadedException;
+import org.mashti.jetson.exception.TransportException;
+import org.mashti.jetson.util.IntObjectHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,20 +61,49 @@ import org.slf4j.LoggerFactory;
 public class Server {
 
     static final AttributeKey<Server> SERVER_ATTRIBUTE = AttributeKey.valueOf("server");
+    private static final AttributeKey<IntObjectHashMap<CompletableFuture<?>>> IN_FLIGHT_REQUESTS_ATTRIBUTE = AttributeKey.valueOf("in_flight_requests");
     private static final Logger LOGGER = LoggerFactory.getLogger(Server.class);
     private static final InetSocketAddress DEFAULT_ENDPOINT_ADDRESS = new InetSocketAddress(0);
     private final ServerBootstrap server_bootstrap;
     private final ChannelGroup server_channel_group;
-    private final Object service;
+    private final ServiceRegistry services;
+    private final ServiceInvoker service_invoker;
+    private final RequestExecutor request_executor;
+    private final boolean owns_request_executor;
+    private final AtomicInteger in_flight_request_count = new AtomicInteger();
+    private final Set<FutureResponse<Object>> direct_requests = ConcurrentHashMap.newKeySet();
+    private final AtomicLong overloaded_request_count = new AtomicLong();
+    private final AtomicLong read_suspension_count = new AtomicLong();
+    private volatile ExecutionPolicy execution_policy = ExecutionPolicy.INLINE;
+    private volatile int max_in_flight_requests = Integer.MAX_VALUE;
+    private volatile int max_in_flight_requests_per_connection = Integer.MAX_VALUE;
     private volatile Channel server_channel;
-    private volatile InetSocketAddress endpoint;
+    private volatile SocketAddress endpoint;
     private volatile boolean exposed;
     private volatile WrittenByteCountListener written_byte_count_listener;
 
     protected Server(final ServerBootstrap server_bootstrap, final Object service) {
 
+        this(server_bootstrap, service, ReflectiveServiceInvoker.INSTANCE);
+    }
+
+    protected Server(final ServerBootstrap server_bootstrap, final Object service, final ServiceInvoker service_invoker) {
+
+        this(server_bootstrap, new ServiceRegistry(service), service_invoker, new RequestExecutor(), true);
+    }
+
+    protected Server(final ServerBootstrap server_bootstrap, final ServiceRegistry services, final ServiceInvoker service_invoker, final RequestExecutor request_executor) {
+
+        this(server_bootstrap, services, service_invoker, request_executor, false);
+    }
+
+    private Server(final ServerBootstrap server_bootstrap, final ServiceRegistry services, final ServiceInvoker service_invoker, final RequestExecutor request_executor, final boolean owns_request_executor) {
+
         this.server_bootstrap = server_bootstrap;
-        this.service = service;
+        this.services = services;
+        this.service_invoker = service_invoker;
+        this.request_executor = request_executor;
+        this.owns_request_executor = owns_request_executor;
         endpoint = DEFAULT_ENDPOINT_ADDRESS;
         server_channel_group = new DefaultChannelGroup(ImmediateEventExecutor.INSTANCE);
     }
@@ -77,13 +114,104 @@ public class Server {
     }
 
     /**
-     * Sets the socket address on which this server will be listening for incoming connections.
+     * Sets the policy by which the methods of the services of this server are executed, unless a method or its interface is annotated with {@link Execution}.
+     * Methods are executed {@link ExecutionPolicy#INLINE inline} on the event loop by default.
+     *
+     * @param execution_policy the default execution policy
+     */
+    public void setExecutionPolicy(final ExecutionPolicy execution_policy) {
+
+        this.execution_policy = execution_policy;
+    }
+
+    /**
+     * Gets the executor that executes the methods of the services of this server off the event loop, which is shared by the servers of the same {@link ServerFactory}.
+     * A server that is constructed without an executor owns its executor, and shuts it down when it is {@link #unexpose() unexposed}.
+     *
+     * @return the request executor of this server
+     */
+    public RequestExecutor getRequestExecutor() {
+
+        return request_executor;
+    }
+
+    /**
+     * Sets the maximum number of requests that may be in flight on this server across all connections.
+     * Requests that arrive once the limit is reached are rejected immediately with {@link ServerOverloadedException}.
+     * There is no limit by default.
+     *
+     * @param max_in_flight_requests the maximum number of in-flight requests of this server
+     */
+    public void setMaxInFlightRequests(final int max_in_flight_requests) {
+
+        if (max_in_flight_requests < 1) { throw new IllegalArgumentException("max in-flight requests must be at least 1"); }
+        this.max_in_flight_requests = max_in_flight_requests;
+    }
+
+    /**
+     * Sets the maximum number of requests that may be in flight on a single connection to this server.
+     * Once a connection reaches the limit, reading from it is suspended until one of its requests completes; the requests that are already read are still admitted.
+     * There is no limit by default.
+     *
+     * @param max_in_flight_requests_per_connection the maximum number of in-flight requests per connection
+     */
+    public void setMaxInFlightRequestsPerConnection(final int max_in_flight_requests_per_connection) {
+
+        if (max_in_flight_requests_per_connection < 1) { throw new IllegalArgumentException("max in-flight requests per connection must be at least 1"); }
+        this.max_in_flight_requests_per_connection = max_in_flight_requests_per_connection;
+    }
+
+    /**
+     * Gets the number of requests that are currently in flight on this server.
+     * A request is in flight from when it is admitted until its response is written or it is cancelled.
+     *
+     * @return the number of in-flight requests
+     */
+    public int getInFlightRequestCount() {
+
+        return in_flight_request_count.get();
+    }
+
+    /**
+     * Gets the number of requests that are rejected with {@link ServerOverloadedException}, either because this server has reached its limit of in-flight requests or because the {@link #getRequestExecutor() request executor} is saturated.
+     *
+     * @return the number of requests rejected due to overload
+     */
+    public long getOverloadedRequestCount() {
+
+        return overloaded_request_count.get();
+    }
+
+    /**
+     * Gets the number of times that reading from a connection is suspended because the connection has reached its limit of in-flight requests.
+     *
+     * @return the number of read suspensions
+     */
+    public long getReadSuspensionCount() {
+
+        return read_suspension_count.get();
+    }
+
+    /**
+     * Sets the Internet socket address on which this server will be listening for incoming connections.
      * A port number of {@code zero} will let the system pick up an ephemeral port when this server is {@link #expose() exposed}.
      *
      * @param endpoint the new bind address
      */
     public void setBindAddress(final InetSocketAddress endpoint) {
 
+        setBindAddress((SocketAddress) endpoint);
+    }
+
+    /**
+     * Sets the address on which this server will be listening for incoming connections.
+     * For an {@link InetSocketAddress}, a port number of {@code zero} will let the system pick up an ephemeral port when this server is {@link #expose() exposed}.
+     * Servers of a factory on the {@link Transport#UNIX_DOMAIN_SOCKET Unix domain socket} transport are bound to a {@link io.netty.channel.unix.DomainSocketAddress socket path} instead.
+     *
+     * @param endpoint the new bind address
+     */
+    public void setBindAddress(final SocketAddress endpoint) {
+
         this.endpoint = endpoint;
     }
 
@@ -101,6 +229,9 @@ public class Server {
             updateLocalSocketAddress();
             configureServerChannel();
             exposed = true;
+            if (endpoint instanceof LocalAddress) {
+                DirectDispatcher.register((LocalAddress) endpoint, this);
+            }
             LOGGER.debug("exposed server on {}", endpoint);
             exposure_changed = true;
         }
@@ -123,8 +254,15 @@ public class Server {
         final boolean exposure_changed;
         if (isExposed()) {
             try {
+                if (endpoint instanceof LocalAddress) {
+                    DirectDispatcher.unregister((LocalAddress) endpoint, this);
+                    abandonDirectRequests();
+                }
                 unbindServerChannel();
                 disconnectActiveClients();
+                if (owns_request_executor) {
+                    request_executor.shutdown();
+                }
                 exposed = false;
                 LOGGER.debug("unexposed server on {}", endpoint);
                 exposure_changed = true;
@@ -152,13 +290,24 @@ public class Server {
     }
 
     /**
-     * Gets the address to which this server listens for incoming connections, or {@code null} if this server is not exposed.
+     * Gets the Internet socket address to which this server listens for incoming connections.
      *
-     * @return the address to which this server listens for incoming connections, or {@code null} if this server is not exposed
-     * @see #isExposed()
+     * @return the Internet socket address to which this server listens for incoming connections, or {@code null} if this server listens to a different type of address
+     * @see #getLocalAddress()
      */
     public InetSocketAddress getLocalSocketAddress() {
 
+        final SocketAddress local_address = endpoint;
+        return local_address instanceof InetSocketAddress ? (InetSocketAddress) local_address : null;
+    }
+
+    /**
+     * Gets the address to which this server listens for incoming connections, which is the {@link #setBindAddress(SocketAddress) bind address} until this server is exposed.
+     *
+     * @return the address to which this server listens for incoming connections
+     */
+    public SocketAddress getLocalAddress() {
+
         return endpoint;
     }
 
@@ -175,59 +324,332 @@ public class Server {
         assert isExposed();
 
         future_response.setWrittenByteCountListener(written_byte_count_listener);
-        final Method method = future_response.getMethod();
-        final Object[] arguments = future_response.getArguments();
         if (!future_response.isDone()) {
+            final CompletableFuture<?> pending_invocation = admit(context, future_response);
+            if (pending_invocation == null) { return; }
 
-            try {
-                handleRequest(method, arguments).whenComplete((result, error) -> {
-                    if (error == null) {
-                        future_response.complete(result);
-                    }
-                    else {
-                        future_response.completeExceptionally(error);
-                    }
-                    context.writeAndFlush(future_response);
-                });
+            final ExecutionPolicy policy = request_executor.getPolicy(future_response.getMethod(), execution_policy);
+            if (policy == ExecutionPolicy.INLINE) {
+                invoke(context, future_response, pending_invocation);
+            }
+            else {
+                offload(context, future_response, pending_invocation, policy);
+            }
+        }
+    }
+
+    /**
+     * Handles the call of the given response, which is made from the same JVM, without a channel.
+     * The call is subject to the same {@link #setMaxInFlightRequests(int) admission control} and {@link #setExecutionPolicy(ExecutionPolicy) execution policy} as a call that is received from a channel.
+     * Abandoning the response cancels the future that is returned by the service.
+     * The calls that are outstanding when this server is {@link #unexpose() unexposed} are abandoned with {@link TransportException}, as are the calls on a connection that is closed.
+     *
+     * @param future_response the response whose call to handle
+     */
+    void dispatchDirectly(final FutureResponse<Object> future_response) {
+
+        if (in_flight_request_count.incrementAndGet() > max_in_flight_requests) {
+            in_flight_request_count.decrementAndGet();
+            overloaded_request_count.incrementAndGet();
+            future_response.completeExceptionally(new ServerOverloadedException("server has reached its limit of " + max_in_flight_requests + " in-flight requests"));
+            return;
+        }
+
+        direct_requests.add(future_response);
+        final Method method = future_response.getMethod();
+        final ExecutionPolicy policy = request_executor.getPolicy(method, execution_policy);
+        try {
+            request_executor.execute(policy, request_executor.getPriority(method), () -> invokeDirectly(future_response));
+        }
+        catch (final RejectedExecutionException e) {
+            releaseDirectly(future_response);
+            overloaded_request_count.incrementAndGet();
+            future_response.completeExceptionally(new ServerOverloadedException("request executor rejected the request"));
+        }
+    }
+
+    private void invokeDirectly(final FutureResponse<Object> future_response) {
+
+        if (future_response.isDone()) {
+            releaseDirectly(future_response);
+            LOGGER.trace("skipped abandoned request {}", future_response);
+            return;
+        }
+
+        try {
+            final CompletableFuture<?> service_future = handleRequest(future_response.getMethod(), future_response.getArguments());
+            future_response.whenComplete((result, error) -> service_future.cancel(true));
+            service_future.whenComplete((result, error) -> {
+                releaseDirectly(future_response);
+                if (error == null) {
+                    future_response.complete(result);
+                }
+                else {
+                    future_response.completeExceptionally(error);
+                }
+            });
+        }
+        catch (final Throwable e) {
+            releaseDirectly(future_response);
+            future_response.completeExceptionally(e);
+        }
+    }
+
+    private void releaseDirectly(final FutureResponse<Object> future_response) {
+
+        direct_requests.remove(future_response);
+        in_flight_request_count.decrementAndGet();
+    }
+
+    private void abandonDirectRequests() {
+
+        for (final FutureResponse<Object> future_response : direct_requests) {
+            future_response.completeExceptionally(new TransportException("server was unexposed"));
+        }
+    }
+
+    /**
+     * Admits the request of the given response, which is received from the given context, unless this server has reached its limit of in-flight requests or a request with the same id is in flight on the same channel.
+     * A request that is not admitted is responded to with an error.
+     * An admitted request is in flight until its response is written or it is cancelled; until it is invoked, it is mapped to a future of its own that marks it as pending.
+     * Reading from the channel is suspended once the channel reaches its limit of in-flight requests.
+     *
+     * @param context the context from which the request is received
+     * @param future_response the response whose request to admit
+     * @return the future that marks the admitted request as pending, or {@code null} if the request is not admitted
+     */
+    private CompletableFuture<?> admit(final ChannelHandlerContext context, final FutureResponse<Object> future_response) {
+
+        if (in_flight_request_count.incrementAndGet() > max_in_flight_requests) {
+            in_flight_request_count.decrementAndGet();
+            overloaded_request_count.incrementAndGet();
+            future_response.completeExceptionally(new ServerOverloadedException("server has reached its limit of " + max_in_flight_requests + " in-flight requests"));
+            context.writeAndFlush(future_response);
+            return null;
+        }
+
+        final int id = future_response.getId();
+        final Channel channel = context.channel();
+        final IntObjectHashMap<CompletableFuture<?>> in_flight_requests = getInFlightRequests(channel);
+        final CompletableFuture<?> pending_invocation = new CompletableFuture<Object>();
+        final boolean duplicate;
+        synchronized (in_flight_requests) {
+            duplicate = in_flight_requests.putIfAbsent(id, pending_invocation) != null;
+            if (!duplicate && in_flight_requests.size() >= max_in_flight_requests_per_connection) {
+                suspendReading(channel);
             }
-            catch (final Throwable e) {
+        }
+        if (duplicate) {
+            LOGGER.debug("rejected request id {}, which is already in flight on {}", id, channel);
+            in_flight_request_count.decrementAndGet();
+            future_response.completeExceptionally(new InvalidRequestException("request id " + id + " is already in flight"));
+            context.writeAndFlush(future_response);
+            return null;
+        }
+        return pending_invocation;
+    }
+
+    /**
+     * Removes the given in-flight request, if it is still mapped to the given future.
+     *
+     * @param channel the channel from which the request is received
+     * @param in_flight_requests the in-flight requests of the channel
+     * @param id the id of the request
+     * @param future the future to which the request is expected to be mapped
+     * @return whether the request was removed; {@code false} if it is cancelled
+     */
+    private boolean release(final Channel channel, final IntObjectHashMap<CompletableFuture<?>> in_flight_requests, final int id, final CompletableFuture<?> future) {
+
+        synchronized (in_flight_requests) {
+            if (!in_flight_requests.remove(id, future)) { return false; }
+            in_flight_request_count.decrementAndGet();
+            resumeReadingIfBelowLimit(channel, in_flight_requests);
+        }
+        return true;
+    }
+
+    private void suspendReading(final Channel channel) {
+
+        final ChannelConfig config = channel.config();
+        if (config.isAutoRead()) {
+            LOGGER.trace("suspending reads from {}", channel);
+            config.setAutoRead(false);
+            read_suspension_count.incrementAndGet();
+        }
+    }
+
+    private void resumeReadingIfBelowLimit(final Channel channel, final IntObjectHashMap<CompletableFuture<?>> in_flight_requests) {
+
+        final ChannelConfig config = channel.config();
+        if (!config.isAutoRead() && in_flight_requests.size() < max_in_flight_requests_per_connection) {
+            LOGGER.trace("resuming reads from {}", channel);
+            config.setAutoRead(true);
+        }
+    }
+
+    /**
+     * Invokes the request of the given response off the event loop.
+     * The request is in flight while it waits to be executed, so that it can be cancelled before it is invoked.
+     * Requests that wait for a worker thread are executed in the order of their method {@link Priority priority}.
+     *
+     * @param context the context from which the request is received
+     * @param future_response the response whose request to invoke
+     * @param pending_invocation the future that marks the request as pending
+     * @param policy the policy by which to execute the request
+     */
+    private void offload(final ChannelHandlerContext context, final FutureResponse<Object> future_response, final CompletableFuture<?> pending_invocation, final ExecutionPolicy policy) {
+
+        final int id = future_response.getId();
+        final IntObjectHashMap<CompletableFuture<?>> in_flight_requests = getInFlightRequests(context.channel());
+        try {
+            request_executor.execute(policy, request_executor.getPriority(future_response.getMethod()), () -> {
+                final boolean cancelled;
+                synchronized (in_flight_requests) {
+                    cancelled = in_flight_requests.get(id) != pending_invocation;
+                }
+                if (cancelled) {
+                    LOGGER.trace("skipped cancelled request {}", future_response);
+                }
+                else {
+                    invoke(context, future_response, pending_invocation);
+                }
+            });
+        }
+        catch (final RejectedExecutionException e) {
+            if (release(context.channel(), in_flight_requests, id, pending_invocation)) {
+                overloaded_request_count.incrementAndGet();
+                future_response.completeExceptionally(new ServerOverloadedException("request executor rejected the request"));
+                context.writeAndFlush(future_response);
+            }
+        }
+    }
+
+    private void invoke(final ChannelHandlerContext context, final FutureResponse<Object> future_response, final CompletableFuture<?> pending_invocation) {
+
+        final int id = future_response.getId();
+        final Channel channel = context.channel();
+        final IntObjectHashMap<CompletableFuture<?>> in_flight_requests = getInFlightRequests(channel);
+        try {
+            final CompletableFuture<?> service_future = handleRequest(context, future_response);
+            final boolean cancelled_during_invocation;
+            synchronized (in_flight_requests) {
+                cancelled_during_invocation = in_flight_requests.get(id) != pending_invocation;
+                if (!cancelled_during_invocation) {
+                    in_flight_requests.put(id, service_future);
+                }
+            }
+            if (cancelled_during_invocation) {
+                LOGGER.trace("cancelling request {}, which was cancelled remotely during its invocation", future_response);
+                service_future.cancel(true);
+                return;
+            }
+
+            service_future.whenComplete((result, error) -> {
+                if (!release(channel, in_flight_requests, id, service_future)) {
+                    LOGGER.trace("discarded the outcome of remotely cancelled request {}", future_response);
+                    return;
+                }
+                if (error == null) {
+                    future_response.complete(result);
+                }
+                else {
+                    future_response.completeExceptionally(error);
+                }
+                context.writeAndFlush(future_response);
+            });
+        }
+        catch (final Throwable e) {
+            if (release(channel, in_flight_requests, id, pending_invocation)) {
                 future_response.completeExceptionally(e);
                 context.writeAndFlush(future_response);
             }
         }
     }
 
+    /**
+     * Cancels the in-flight request with the given id, which is received from the given context.
+     * The future returned by the service for the request is {@link CompletableFuture#cancel(boolean) cancelled}, and no response is written for the request.
+     * This method has no effect if no such request is in flight.
+     *
+     * @param context the context from which the cancel request is received
+     * @param id the id of the request to cancel
+     */
+    protected void cancel(final ChannelHandlerContext context, final int id) {
+
+        final Channel channel = context.channel();
+        final IntObjectHashMap<CompletableFuture<?>> in_flight_requests = getInFlightRequests(channel);
+        final CompletableFuture<?> service_future;
+        synchronized (in_flight_requests) {
+            service_future = in_flight_requests.remove(id);
+            if (service_future != null) {
+                in_flight_request_count.decrementAndGet();
+                resumeReadingIfBelowLimit(channel, in_flight_requests);
+            }
+        }
+        if (service_future != null) {
+            LOGGER.trace("cancelling request with id {} on {}", id, context);
+            service_future.cancel(true);
+        }
+    }
+
     protected void notifyChannelActivation(final Channel channel) {
 
         server_channel_group.add(channel);
+        channel.attr(IN_FLIGHT_REQUESTS_ATTRIBUTE)
+                .setIfAbsent(new IntObjectHashMap<CompletableFuture<?>>());
     }
 
     protected void notifyChannelInactivation(final Channel channel) {
 
         server_channel_group.remove(channel);
+        cancelInFlightRequests(channel);
     }
 
-    private CompletableFuture<?> handleRequest(final Method method, final Object[] arguments) throws Throwable {
+    private static IntObjectHashMap<CompletableFuture<?>> getInFlightRequests(final Channel channel) {
 
-        try {
+        return channel.attr(IN_FLIGHT_REQUESTS_ATTRIBUTE)
+                .get();
+    }
 
-            return (CompletableFuture<?>) method.invoke(service, arguments);
-        }
-        catch (final java.lang.IllegalArgumentException e) {
-            throw new IllegalArgumentException(e);
-        }
-        catch (final RuntimeException e) {
-            throw new ServerRuntimeException(e);
-        }
-        catch (final InvocationTargetException e) {
-            throw e.getCause();
-        }
-        catch (final java.lang.IllegalAccessException e) {
-            throw new IllegalAccessException(e);
+    private void cancelInFlightRequests(final Channel channel) {
+
+        final IntObjectHashMap<CompletableFuture<?>> in_flight_requests = getInFlightRequests(channel);
+        if (in_flight_requests != null) {
+            final List<CompletableFuture<?>> service_futures;
+            synchronized (in_flight_requests) {
+                service_futures = in_flight_requests.values();
+                in_flight_requests.clear();
+                in_flight_request_count.addAndGet(-service_futures.size());
+            }
+            service_futures.forEach(service_future -> service_future.cancel(true));
         }
-        catch (final ExceptionInInitializerError e) {
-            throw new InternalServerException(e);
+    }
+
+    /**
+     * Invokes the method of the given request, which is received from the given context.
+     * If this server invokes methods through the invoker of the channel initializer that decoded the request, the method is invoked by its decoded index;
+     * otherwise, it is invoked by the invoker of this server, or reflectively if this server has no invoker of its own.
+     *
+     * @param context the context from which the request is received
+     * @param future_response the response whose request to invoke
+     * @return the future returned by the invoked method
+     * @throws Throwable if the invocation fails, or the invoked method throws an exception
+     */
+    private CompletableFuture<?> handleRequest(final ChannelHandlerContext context, final FutureResponse<Object> future_response) throws Throwable {
+
+        final Method method = future_response.getMethod();
+        final int method_index = future_response.getMethodIndex();
+        final GeneratedServiceInvoker dispatch_invoker = RequestHandler.getServiceInvoker(context);
+        if (method_index != FutureResponse.NO_METHOD_INDEX && dispatch_invoker != null && (service_invoker == null || service_invoker == dispatch_invoker)) {
+            return dispatch_invoker.invoke(services.getService(method), method_index, future_response.getArguments());
         }
+        return handleRequest(method, future_response.getArguments());
+    }
+
+    private CompletableFuture<?> handleRequest(final Method method, final Object[] arguments) throws Throwable {
+
+        final ServiceInvoker invoker = service_invoker != null ? service_invoker : ReflectiveServiceInvoker.INSTANCE;
+        return invoker.invoke(services.getService(method), method, arguments);
     }
 
     private void configureServerChannel() {
@@ -238,7 +660,7 @@ public class Server {
 
     private void updateLocalSocketAddress() {
 
-        endpoint = (InetSocketAddress) server_channel.localAddress();
+        endpoint = server_channel.localAddress();
     }
 
     private void attemptBind() throws IOException {
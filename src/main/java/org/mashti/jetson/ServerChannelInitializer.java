@@ -26,8 +26,9 @@
  */
 package org.mashti.jetson;
 
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.socket.SocketChannel;
+import java.lang.reflect.Method;
 
 public class ServerChannelInitializer extends BaseChannelInitializer {
 
@@ -37,17 +38,47 @@ public class ServerChannelInitializer extends BaseChannelInitializer {
 
     public ServerChannelInitializer(final RequestDecoder request_decoder, final ResponseEncoder response_encoder) {
 
+        this(request_decoder, response_encoder, Framing.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new initializer of server channels.
+     *
+     * @param request_decoder the request decoder
+     * @param response_encoder the response encoder
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote clients
+     */
+    public ServerChannelInitializer(final RequestDecoder request_decoder, final ResponseEncoder response_encoder, final Framing framing) {
+
+        super(framing);
         this.request_decoder = request_decoder;
         this.response_encoder = response_encoder;
-        request_handler = new RequestHandler();
+        request_handler = new RequestHandler(getDispatchInvoker(request_decoder));
+    }
+
+    /**
+     * Gets the invoker that is generated for the dispatch of the request decoder of this initializer, which invokes the methods of the decoded requests by their indices.
+     *
+     * @return the invoker of the methods of the decoded requests, or {@code null} if their methods are not decoded by their indices, or an invoker cannot be generated for them
+     */
+    GeneratedServiceInvoker getServiceInvoker() {
+
+        return request_handler.getServiceInvoker();
+    }
+
+    private static GeneratedServiceInvoker getDispatchInvoker(final RequestDecoder request_decoder) {
+
+        final Method[] dispatch = request_decoder.getDispatch();
+        return dispatch != null ? ServiceInvokerGenerator.getInvoker(dispatch) : null;
     }
 
     @Override
-    public void initChannel(final SocketChannel channel) throws Exception {
+    public void initChannel(final Channel channel) throws Exception {
 
         super.initChannel(channel);
         final ChannelPipeline pipeline = channel.pipeline();
 
+        pipeline.addLast(KeepAliveHandler.NAME, KeepAliveHandler.SERVER);
         pipeline.addLast("decoder", request_decoder);
         pipeline.addLast("encoder", response_encoder);
         pipeline.addLast(RequestHandler.NAME, request_handler);
@@ -27,10 +27,12 @@
 package org.mashti.jetson;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoop;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.EventLoopGroup;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.mashti.jetson.util.NamedThreadFactory;
 
 /**
@@ -41,17 +43,112 @@ import org.mashti.jetson.util.NamedThreadFactory;
 public class ServerFactory<Service> {
 
     protected final ServerBootstrap server_bootstrap;
+    protected final ServiceInvoker service_invoker;
+    protected final RequestExecutor request_executor = new RequestExecutor();
+    private final TransportResources resources;
+    private final AtomicBoolean shut_down = new AtomicBoolean();
+    private volatile ByteBufAllocator allocator;
 
-    /** Instantiates a new server factory. */
+    /**
+     * Instantiates a new server factory, which invokes the methods of services through an invoker that is generated for the dispatch of the request decoder of the given handler.
+     * The methods are invoked reflectively if the decoder has no dispatch, or an invoker cannot be generated.
+     *
+     * @param handler the channel initializer of the servers
+     */
     public ServerFactory(final ServerChannelInitializer handler) {
 
-        this(createDefaultServerBootstrap(handler));
+        this(createDefaultServerBootstrap(handler), chooseServiceInvoker(handler), null, PooledByteBufAllocator.DEFAULT);
     }
 
-    /** Instantiates a new server factory. */
+    /**
+     * Instantiates a new server factory, which invokes the methods of each request through the invoker of the {@link ServerChannelInitializer channel initializer} of the given bootstrap that decoded it;
+     * the invoker is generated for the dispatch of the request decoder of the initializer, and the methods are invoked reflectively if there is no such invoker.
+     * The options of the given bootstrap are left as they are, including its {@link ChannelOption#ALLOCATOR allocator}, unless the allocator is {@link #setAllocator(ByteBufAllocator) set} on this factory.
+     *
+     * @param server_bootstrap the bootstrap of the servers
+     */
     public ServerFactory(final ServerBootstrap server_bootstrap) {
 
+        this(server_bootstrap, (ServiceInvoker) null);
+    }
+
+    /**
+     * Instantiates a new server factory, which invokes the methods of services through an invoker that is generated for the dispatch of the request decoder of the given handler,
+     * or for the given service type if the decoder has no dispatch.
+     * The methods are invoked reflectively if an invoker cannot be generated.
+     *
+     * @param service_type the type of the service
+     * @param handler the channel initializer of the servers
+     */
+    public ServerFactory(final Class<Service> service_type, final ServerChannelInitializer handler) {
+
+        this(createDefaultServerBootstrap(handler), chooseServiceInvoker(handler, service_type), null, PooledByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port, which are {@link #createServer(ServiceRegistry) registered} per server.
+     * The methods of services are invoked through an invoker that is generated for the dispatch of the request decoder of the given handler, or for the given service types if the decoder has no dispatch,
+     * or reflectively if an invoker cannot be generated.
+     *
+     * @param service_types the types of the services
+     * @param handler the channel initializer of the servers, whose codecs must cover the methods of all the given types
+     */
+    public ServerFactory(final Class<?>[] service_types, final ServerChannelInitializer handler) {
+
+        this(createDefaultServerBootstrap(handler), chooseServiceInvoker(handler, service_types), null, PooledByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port, whose connections run on the given transport.
+     * If the given transport is not {@link Transport#isAvailable() available}, the {@link Transport#NIO NIO} transport is used instead.
+     *
+     * @param service_types the types of the services
+     * @param handler the channel initializer of the servers, whose codecs must cover the methods of all the given types
+     * @param transport the transport of the connections
+     * @throws IllegalStateException if the given transport is not available and cannot fall back to NIO
+     */
+    public ServerFactory(final Class<?>[] service_types, final ServerChannelInitializer handler, final Transport transport) {
+
+        this(createDefaultServerBootstrap(handler, transport), chooseServiceInvoker(handler, service_types), null, PooledByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new server factory.
+     * The options of the given bootstrap are left as they are, including its {@link ChannelOption#ALLOCATOR allocator}, unless the allocator is {@link #setAllocator(ByteBufAllocator) set} on this factory.
+     *
+     * @param server_bootstrap the bootstrap of the servers
+     * @param service_invoker the invoker of the methods of services, or {@code null} to invoke the methods of each request through the invoker of the channel initializer that decoded it
+     */
+    public ServerFactory(final ServerBootstrap server_bootstrap, final ServiceInvoker service_invoker) {
+
+        this(server_bootstrap, service_invoker, null, null);
+    }
+
+    /**
+     * Instantiates a new server factory, whose servers run on the given shared resources, and which invokes the methods of services through an invoker that is generated for the dispatch of the request decoder of the given handler,
+     * or for the given service types if the decoder has no dispatch.
+     * The factory {@link TransportResources#retain() retains} the resources, and {@link TransportResources#release() releases} them when it is {@link #shutdown() shut down}.
+     *
+     * @param service_types the types of the services
+     * @param handler the channel initializer, whose codecs must cover the methods of all the given types
+     * @param resources the shared event loops and buffer allocator of the servers
+     * @throws IllegalStateException if the given resources are already released
+     */
+    public ServerFactory(final Class<?>[] service_types, final ServerChannelInitializer handler, final TransportResources resources) {
+
+        this(createSharedServerBootstrap(handler, resources), chooseServiceInvoker(handler, service_types), resources.retain(), resources.getAllocator());
+    }
+
+    private ServerFactory(final ServerBootstrap server_bootstrap, final ServiceInvoker service_invoker, final TransportResources resources, final ByteBufAllocator allocator) {
+
         this.server_bootstrap = server_bootstrap;
+        this.service_invoker = service_invoker;
+        this.resources = resources;
+        this.allocator = allocator;
+        if (allocator != null) {
+            server_bootstrap.option(ChannelOption.ALLOCATOR, allocator);
+            server_bootstrap.childOption(ChannelOption.ALLOCATOR, allocator);
+        }
     }
 
     /**
@@ -62,31 +159,157 @@ public class ServerFactory<Service> {
      */
     public Server createServer(final Service service) {
 
-        return new Server(server_bootstrap, service);
+        return createServer(new ServiceRegistry(service));
+    }
+
+    /**
+     * Creates a new server that exposes the services in the given registry.
+     * Each request is handled by the service that is registered for its method at the time of the request.
+     *
+     * @param services the registry of the services to expose
+     * @return the server
+     */
+    public Server createServer(final ServiceRegistry services) {
+
+        return new Server(server_bootstrap, services, service_invoker, request_executor);
     }
 
     /**
-     * Shuts down the {@link ServerBootstrap server bootstrap} and the {@link EventLoop}s used by any server that is created using this factory.
+     * Gets the executor that executes the methods of services off the event loop, which is shared by the servers created using this factory.
+     *
+     * @return the request executor of this factory
+     * @see Server#setExecutionPolicy(ExecutionPolicy)
+     */
+    public RequestExecutor getRequestExecutor() {
+
+        return request_executor;
+    }
+
+    /**
+     * Sets an option of the server channels that are bound after this method is called, such as {@link io.netty.channel.epoll.EpollChannelOption#SO_REUSEPORT SO_REUSEPORT} on the {@link Transport#EPOLL epoll} transport.
+     * Options that are not supported by the transport of this factory are ignored.
+     *
+     * @param option the option to set
+     * @param value the value of the option
+     * @param <T> the type of the option value
+     */
+    public <T> void setOption(final ChannelOption<T> option, final T value) {
+
+        server_bootstrap.option(option, value);
+    }
+
+    /**
+     * Sets an option of the client connections that are accepted after this method is called, such as {@link io.netty.channel.epoll.EpollChannelOption#TCP_CORK TCP_CORK} on the {@link Transport#EPOLL epoll} transport.
+     * Options that are not supported by the transport of this factory are ignored.
+     *
+     * @param option the option to set
+     * @param value the value of the option
+     * @param <T> the type of the option value
+     */
+    public <T> void setChildOption(final ChannelOption<T> option, final T value) {
+
+        server_bootstrap.childOption(option, value);
+    }
+
+    /**
+     * Sets the allocator of the buffers of the server channels that are bound, and the client connections that are accepted, after this method is called.
+     * By default, buffers are allocated from the {@link PooledByteBufAllocator#DEFAULT shared pool}, which prefers direct memory, unless this factory is constructed with a bootstrap of its own.
+     *
+     * @param allocator the allocator of buffers
+     */
+    public void setAllocator(final ByteBufAllocator allocator) {
+
+        if (allocator == null) { throw new NullPointerException("allocator must not be null"); }
+        this.allocator = allocator;
+        server_bootstrap.option(ChannelOption.ALLOCATOR, allocator);
+        server_bootstrap.childOption(ChannelOption.ALLOCATOR, allocator);
+    }
+
+    /**
+     * Gets the allocator that this factory sets on its server channels and accepted connections.
+     *
+     * @return the allocator of the buffers of the servers, or {@code null} if this factory is constructed with a bootstrap of its own and no allocator is {@link #setAllocator(ByteBufAllocator) set}
+     */
+    public ByteBufAllocator getAllocator() {
+
+        return allocator;
+    }
+
+    /**
+     * Takes a snapshot of the arena statistics of the {@link #getAllocator() allocator} of this factory.
+     *
+     * @return the statistics of the allocator of this factory, or {@code null} if the allocator is not pooled
+     */
+    public BufferPoolStatistics getBufferPoolStatistics() {
+
+        return BufferPoolStatistics.of(allocator);
+    }
+
+    /**
+     * Shuts down the {@link ServerBootstrap server bootstrap}, the {@link EventLoop}s and the {@link RequestExecutor#setWorkerPool(int, int) worker pool} used by any server that is created using this factory.
      * After this method is called any server that is created using this factory will become unresponsive.
+     * If this factory is built on {@link TransportResources shared resources}, the resources are {@link TransportResources#release() released} instead of the event loops being shut down,
+     * in which case the servers that are created using this factory must be {@link Server#unexpose() unexposed} beforehand.
      *
      * @see EventLoop#shutdownGracefully()
      */
     public void shutdown() {
 
-        server_bootstrap.group().shutdownGracefully();
-        server_bootstrap.childGroup().shutdownGracefully();
+        if (shut_down.compareAndSet(false, true)) {
+            if (resources != null) {
+                resources.release();
+            }
+            else {
+                server_bootstrap.group().shutdownGracefully();
+                server_bootstrap.childGroup().shutdownGracefully();
+            }
+            request_executor.shutdown();
+        }
+    }
+
+    /**
+     * Chooses the invoker of the methods of services, which is the invoker that is generated for the dispatch of the request decoder of the given handler, so that the servers invoke the methods of requests by their decoded indices.
+     * If the decoder has no dispatch, an invoker is generated for the given service types instead, or the methods are invoked reflectively if no types are given.
+     *
+     * @param handler the channel initializer of the servers
+     * @param service_types the types of the services
+     * @return the invoker of the methods of services
+     */
+    private static ServiceInvoker chooseServiceInvoker(final ServerChannelInitializer handler, final Class<?>... service_types) {
+
+        final ServiceInvoker dispatch_invoker = handler.getServiceInvoker();
+        if (dispatch_invoker != null) { return dispatch_invoker; }
+        return service_types.length > 0 ? ServiceInvokerGenerator.getInvoker(service_types) : ReflectiveServiceInvoker.INSTANCE;
     }
 
     protected static ServerBootstrap createDefaultServerBootstrap(final ServerChannelInitializer handler) {
 
+        return createDefaultServerBootstrap(handler, Transport.NIO);
+    }
+
+    protected static ServerBootstrap createDefaultServerBootstrap(final ServerChannelInitializer handler, final Transport transport) {
+
+        final Transport available_transport = transport.orFallback();
+        final EventLoopGroup parent_event_loop = available_transport.newEventLoopGroup(new NamedThreadFactory("server_parent_event_loop_"));
+        final EventLoopGroup child_event_loop = available_transport.newEventLoopGroup(new NamedThreadFactory("server_child_event_loop_"));
+        return createServerBootstrap(handler, available_transport, parent_event_loop, child_event_loop);
+    }
+
+    protected static ServerBootstrap createSharedServerBootstrap(final ServerChannelInitializer handler, final TransportResources resources) {
+
+        return createServerBootstrap(handler, resources.getTransport(), resources.getAcceptorEventLoop(), resources.getIoEventLoop());
+    }
+
+    private static ServerBootstrap createServerBootstrap(final ServerChannelInitializer handler, final Transport available_transport, final EventLoopGroup parent_event_loop, final EventLoopGroup child_event_loop) {
+
         final ServerBootstrap server_bootstrap = new ServerBootstrap();
-        final NioEventLoopGroup parent_event_loop = new NioEventLoopGroup(0, new NamedThreadFactory("server_parent_event_loop_"));
-        final NioEventLoopGroup child_event_loop = new NioEventLoopGroup(0, new NamedThreadFactory("server_child_event_loop_"));
         server_bootstrap.group(parent_event_loop, child_event_loop);
-        server_bootstrap.channel(NioServerSocketChannel.class);
-        server_bootstrap.option(ChannelOption.TCP_NODELAY, true);
-        server_bootstrap.childOption(ChannelOption.TCP_NODELAY, true);
-        server_bootstrap.childOption(ChannelOption.SO_KEEPALIVE, true);
+        server_bootstrap.channel(available_transport.getServerChannelType());
+        if (available_transport.isTcp()) {
+            server_bootstrap.option(ChannelOption.TCP_NODELAY, true);
+            server_bootstrap.childOption(ChannelOption.TCP_NODELAY, true);
+            server_bootstrap.childOption(ChannelOption.SO_KEEPALIVE, true);
+        }
         server_bootstrap.childHandler(handler);
         return server_bootstrap;
     }
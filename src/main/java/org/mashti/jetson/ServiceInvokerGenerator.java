@@ -0,0 +1,213 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import org.mashti.jetson.util.ReflectionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates the {@link GeneratedServiceInvoker service invokers} of dispatches using Javassist.
+ * Each generated class is defined by its own {@link GeneratedClassLoader}, and is generated once per dispatch.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+final class ServiceInvokerGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceInvokerGenerator.class);
+    private static final String INVOKER_CLASS_NAME_SUFFIX = "$$JetsonInvoker";
+    private static final AtomicInteger NEXT_INVOKER_CLASS_ID = new AtomicInteger();
+    private static final ConcurrentHashMap<List<Method>, GeneratedServiceInvoker> GENERATED_INVOKERS = new ConcurrentHashMap<List<Method>, GeneratedServiceInvoker>();
+
+    private ServiceInvokerGenerator() {
+
+    }
+
+    /**
+     * Gets an invoker for the given service interfaces.
+     * The methods of the interfaces are invoked by a generated invoker, or {@link ReflectiveServiceInvoker reflectively} if an invoker cannot be generated.
+     * The dispatch of the generated invoker consists of the {@link ReflectionUtil#getSortedMethods(Class[]) cached methods} of the interfaces,
+     * which are the same instances that the request decoders resolve; this lets the invoker find the index of a method by identity, falling back to equality for other instances.
+     *
+     * @param service_interfaces the service interfaces
+     * @return an invoker for the given service interfaces
+     */
+    static ServiceInvoker getInvoker(final Class<?>... service_interfaces) {
+
+        try {
+            final GeneratedServiceInvoker invoker = getInvoker(ReflectionUtil.getSortedMethods(service_interfaces));
+            return invoker != null ? invoker : ReflectiveServiceInvoker.INSTANCE;
+        }
+        catch (final RuntimeException e) {
+            LOGGER.debug("failed to list the methods of services {}; falling back to reflection", Arrays.toString(service_interfaces), e);
+            return ReflectiveServiceInvoker.INSTANCE;
+        }
+    }
+
+    /**
+     * Gets an invoker that invokes the methods of the given dispatch by their indices.
+     * The invoker is generated once per dispatch, and shared by the callers that get an invoker for an equal dispatch.
+     *
+     * @param dispatch the methods of the service interfaces, in the order of their indices
+     * @return the generated invoker, or {@code null} if an invoker cannot be generated for the given dispatch
+     */
+    static GeneratedServiceInvoker getInvoker(final Method[] dispatch) {
+
+        final List<Method> key = Arrays.asList(dispatch.clone());
+        final GeneratedServiceInvoker cached = GENERATED_INVOKERS.get(key);
+        if (cached != null) { return cached; }
+
+        final GeneratedServiceInvoker invoker;
+        try {
+            invoker = generate(key.toArray(new Method[key.size()]));
+        }
+        catch (final Exception | LinkageError e) {
+            LOGGER.debug("failed to generate invoker for methods {}", key, e);
+            return null;
+        }
+        final GeneratedServiceInvoker existing = GENERATED_INVOKERS.putIfAbsent(key, invoker);
+        return existing != null ? existing : invoker;
+    }
+
+    /**
+     * Generates an invoker for the given methods.
+     * Each method is invoked on the service cast to the type that declares the method.
+     *
+     * @param dispatch the methods of public service interfaces, in the order of their indices
+     * @return the generated invoker
+     * @throws Exception if the invoker cannot be generated
+     */
+    static GeneratedServiceInvoker generate(final Method[] dispatch) throws Exception {
+
+        if (dispatch.length == 0) { throw new IllegalArgumentException("cannot generate an invoker for no methods"); }
+        for (final Method method : dispatch) {
+            final Class<?> service_interface = method.getDeclaringClass();
+            if (!Modifier.isPublic(service_interface.getModifiers())) { throw new IllegalArgumentException("cannot generate an invoker for non-public interface " + service_interface); }
+        }
+
+        final Class<?> first_service_interface = dispatch[0].getDeclaringClass();
+        final GeneratedClassLoader class_loader = new GeneratedClassLoader(first_service_interface);
+        final ClassPool pool = class_loader.newClassPool();
+
+        final String invoker_class_name = first_service_interface.getName() + INVOKER_CLASS_NAME_SUFFIX + NEXT_INVOKER_CLASS_ID.getAndIncrement();
+        final CtClass invoker_class = pool.makeClass(invoker_class_name, pool.get(GeneratedServiceInvoker.class.getName()));
+        invoker_class.addConstructor(CtNewConstructor.make(new CtClass[] {pool.get(Method[].class.getName())}, new CtClass[0], "{ super($1); }", invoker_class));
+        invoker_class.addMethod(CtNewMethod.make(toInvokeMethodSource(dispatch), invoker_class));
+
+        final byte[] bytecode = invoker_class.toBytecode();
+        invoker_class.detach();
+        final Class<?> invoker = class_loader.define(invoker_class_name, bytecode);
+        return (GeneratedServiceInvoker) invoker.getConstructor(Method[].class)
+                .newInstance((Object) dispatch);
+    }
+
+    private static String toInvokeMethodSource(final Method[] dispatch) {
+
+        final StringBuilder source = new StringBuilder();
+        source.append("protected java.util.concurrent.CompletableFuture invokeMethod(Object service, int index, Object[] arguments) throws Throwable {");
+        source.append("switch (index) {");
+        for (int index = 0; index < dispatch.length; index++) {
+            final Method method = dispatch[index];
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            final Class<?>[] parameter_types = method.getParameterTypes();
+            source.append("case ").append(index).append(": {");
+            appendConversions(source, method.getDeclaringClass(), parameter_types);
+            source.append("return target.").append(method.getName()).append('(');
+            for (int i = 0; i < parameter_types.length; i++) {
+                if (i > 0) {
+                    source.append(", ");
+                }
+                source.append("argument").append(i);
+            }
+            source.append(");}");
+        }
+        source.append('}');
+        source.append("return invokeReflectively(service, index, arguments);");
+        source.append('}');
+        return source.toString();
+    }
+
+    /** Appends the declarations of the service and the arguments of a method call, and their conversion from the invoked service and the argument array in a block that maps conversion failures. */
+    private static void appendConversions(final StringBuilder source, final Class<?> service_type, final Class<?>[] parameter_types) {
+
+        final String service_type_name = ClientStubGenerator.toCtClassName(service_type);
+        source.append(service_type_name).append(" target = null;");
+        for (int i = 0; i < parameter_types.length; i++) {
+            final Class<?> parameter_type = parameter_types[i];
+            source.append(ClientStubGenerator.toCtClassName(parameter_type)).append(" argument").append(i).append(" = ").append(getDefaultValue(parameter_type)).append(';');
+        }
+        source.append("try {");
+        source.append("target = (").append(service_type_name).append(") service;");
+        for (int i = 0; i < parameter_types.length; i++) {
+            final Class<?> parameter_type = parameter_types[i];
+            source.append("argument").append(i).append(" = ");
+            if (parameter_type.isPrimitive()) {
+                final String wrapper_type = getWrapperType(parameter_type).getName();
+                source.append("((").append(wrapper_type).append(") arguments[").append(i).append("]).").append(parameter_type.getName()).append("Value();");
+            }
+            else {
+                source.append("(").append(ClientStubGenerator.toCtClassName(parameter_type)).append(") arguments[").append(i).append("];");
+            }
+        }
+        source.append("} catch (java.lang.ClassCastException e) { throw newArgumentMismatchException(e); }");
+        source.append(" catch (java.lang.NullPointerException e) { throw newArgumentMismatchException(e); }");
+        source.append(" catch (java.lang.RuntimeException e) { throw newRuntimeException(e); }");
+    }
+
+    private static String getDefaultValue(final Class<?> parameter_type) {
+
+        if (!parameter_type.isPrimitive()) { return "null"; }
+        if (parameter_type == Boolean.TYPE) { return "false"; }
+        if (parameter_type == Character.TYPE) { return "(char) 0"; }
+        return "(" + parameter_type.getName() + ") 0";
+    }
+
+    private static Class<?> getWrapperType(final Class<?> primitive_type) {
+
+        if (primitive_type == Boolean.TYPE) { return Boolean.class; }
+        if (primitive_type == Byte.TYPE) { return Byte.class; }
+        if (primitive_type == Character.TYPE) { return Character.class; }
+        if (primitive_type == Short.TYPE) { return Short.class; }
+        if (primitive_type == Integer.TYPE) { return Integer.class; }
+        if (primitive_type == Long.TYPE) { return Long.class; }
+        if (primitive_type == Float.TYPE) { return Float.class; }
+        if (primitive_type == Double.TYPE) { return Double.class; }
+        throw new IllegalArgumentException("unknown primitive type " + primitive_type);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import org.mashti.jetson.exception.MethodNotFoundException;
+import org.mashti.jetson.util.ReflectionUtil;
+
+/**
+ * Maps the methods of service interfaces to the services that implement them, so that a single {@link Server} can expose several services over the same port and the same connections.
+ * This class is thread-safe.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public class ServiceRegistry {
+
+    private final ConcurrentHashMap<Method, Object> services = new ConcurrentHashMap<Method, Object>();
+    private final ConcurrentHashMap<Method, Class<?>> service_interfaces = new ConcurrentHashMap<Method, Class<?>>();
+    private final Object default_service;
+
+    /** Instantiates a new empty registry. */
+    public ServiceRegistry() {
+
+        this(null);
+    }
+
+    /**
+     * Instantiates a new registry that maps the methods of no registered service to the given service.
+     *
+     * @param default_service the service that implements the methods of no registered service, or {@code null} if there is no such service
+     */
+    ServiceRegistry(final Object default_service) {
+
+        this.default_service = default_service;
+    }
+
+    /**
+     * Registers the given service as the implementation of the methods of the given service interface, including the methods that it inherits.
+     * The methods are registered as their {@link ReflectionUtil#getSortedMethods(Class[]) cached instances}, which are the instances that the request decoders resolve.
+     * If the given service interface is already registered, its methods are remapped to the given service.
+     * Methods are routed by their declaration alone, so a method that the given service interface shares with another registered interface, such as a method of a common parent interface, cannot be told apart; such interfaces are rejected.
+     *
+     * @param service_interface the service interface
+     * @param service the service implementation
+     * @param <S> the type of the service
+     * @return this registry
+     * @throws IllegalArgumentException if the given service interface shares a method with another registered service interface
+     */
+    public synchronized <S> ServiceRegistry register(final Class<S> service_interface, final S service) {
+
+        if (service == null) { throw new NullPointerException("service must not be null"); }
+        final Method[] methods = ReflectionUtil.getSortedMethods(service_interface);
+        for (final Method method : methods) {
+            final Class<?> registered_interface = service_interfaces.get(method);
+            if (registered_interface != null && registered_interface != service_interface) {
+                throw new IllegalArgumentException(service_interface + " shares method " + method + " with registered " + registered_interface);
+            }
+        }
+        for (final Method method : methods) {
+            service_interfaces.put(method, service_interface);
+            services.put(method, service);
+        }
+        return this;
+    }
+
+    /**
+     * Unregisters the implementation of the methods of the given service interface.
+     *
+     * @param service_interface the service interface
+     */
+    public synchronized void unregister(final Class<?> service_interface) {
+
+        for (final Method method : ReflectionUtil.getSortedMethods(service_interface)) {
+            if (service_interfaces.remove(method, service_interface)) {
+                services.remove(method);
+            }
+        }
+    }
+
+    /**
+     * Gets the service that implements the given method.
+     *
+     * @param method the method
+     * @return the service that implements the given method
+     * @throws MethodNotFoundException if no service implements the given method
+     */
+    Object getService(final Method method) throws MethodNotFoundException {
+
+        final Object service = services.get(method);
+        if (service != null) { return service; }
+        if (default_service != null) { return default_service; }
+        throw new MethodNotFoundException("no service is registered for method " + method);
+    }
+}
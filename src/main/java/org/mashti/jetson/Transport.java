@@ -0,0 +1,248 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoopGroup;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The I/O transports on which clients and servers can run.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public enum Transport {
+
+    /** The portable transport that is based on Java NIO selectors. */
+    NIO(true) {
+        @Override
+        public boolean isAvailable() {
+
+            return true;
+        }
+
+        @Override
+        EventLoopGroup newEventLoopGroup(final int thread_count, final ThreadFactory thread_factory) {
+
+            return new NioEventLoopGroup(thread_count, thread_factory);
+        }
+
+        @Override
+        Class<? extends Channel> getChannelType() {
+
+            return NioSocketChannel.class;
+        }
+
+        @Override
+        Class<? extends ServerChannel> getServerChannelType() {
+
+            return NioServerSocketChannel.class;
+        }
+    },
+
+    /**
+     * The Linux transport that is based on native edge-triggered epoll, which produces less garbage than NIO and supports Linux-specific socket options such as {@link io.netty.channel.epoll.EpollChannelOption#SO_REUSEPORT SO_REUSEPORT} and {@link io.netty.channel.epoll.EpollChannelOption#TCP_CORK TCP_CORK}.
+     * Requires the native epoll library of Netty on the class path.
+     */
+    EPOLL(true) {
+        @Override
+        public boolean isAvailable() {
+
+            return EpollAvailability.AVAILABLE;
+        }
+
+        @Override
+        EventLoopGroup newEventLoopGroup(final int thread_count, final ThreadFactory thread_factory) {
+
+            return new EpollEventLoopGroup(thread_count, thread_factory);
+        }
+
+        @Override
+        Class<? extends Channel> getChannelType() {
+
+            return EpollSocketChannel.class;
+        }
+
+        @Override
+        Class<? extends ServerChannel> getServerChannelType() {
+
+            return EpollServerSocketChannel.class;
+        }
+    },
+
+    /**
+     * The Linux transport that connects clients and servers on the same host through Unix domain sockets, bypassing the TCP/IP stack.
+     * Servers are {@link Server#setBindAddress(java.net.SocketAddress) bound} to, and clients connect to, a {@link io.netty.channel.unix.DomainSocketAddress socket path}.
+     * Requires the native epoll library of Netty on the class path; unlike the other transports, it has no fallback.
+     */
+    UNIX_DOMAIN_SOCKET(false) {
+        @Override
+        public boolean isAvailable() {
+
+            return EpollAvailability.AVAILABLE;
+        }
+
+        @Override
+        EventLoopGroup newEventLoopGroup(final int thread_count, final ThreadFactory thread_factory) {
+
+            return new EpollEventLoopGroup(thread_count, thread_factory);
+        }
+
+        @Override
+        Class<? extends Channel> getChannelType() {
+
+            return EpollDomainSocketChannel.class;
+        }
+
+        @Override
+        Class<? extends ServerChannel> getServerChannelType() {
+
+            return EpollServerDomainSocketChannel.class;
+        }
+    },
+
+    /**
+     * The in-JVM transport that connects clients and servers in the same JVM without any sockets.
+     * Servers are {@link Server#setBindAddress(java.net.SocketAddress) bound} to, and clients connect to, a {@link io.netty.channel.local.LocalAddress local address}.
+     * The calls to an exposed server may further bypass the channel and the codecs altogether once {@link ClientFactory#setDirectDispatchEnabled(boolean) direct dispatch} is enabled.
+     */
+    LOCAL(false) {
+        @Override
+        public boolean isAvailable() {
+
+            return true;
+        }
+
+        @Override
+        EventLoopGroup newEventLoopGroup(final int thread_count, final ThreadFactory thread_factory) {
+
+            return new LocalEventLoopGroup(thread_count, thread_factory);
+        }
+
+        @Override
+        Class<? extends Channel> getChannelType() {
+
+            return LocalChannel.class;
+        }
+
+        @Override
+        Class<? extends ServerChannel> getServerChannelType() {
+
+            return LocalServerChannel.class;
+        }
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Transport.class);
+    private final boolean tcp;
+
+    Transport(final boolean tcp) {
+
+        this.tcp = tcp;
+    }
+
+    /**
+     * Checks whether this transport can be used on the current platform.
+     *
+     * @return whether this transport can be used on the current platform
+     */
+    public abstract boolean isAvailable();
+
+    /**
+     * Gets this transport if it is available, or {@link #NIO} otherwise.
+     *
+     * @return this transport if it is available, or {@link #NIO} otherwise
+     * @throws IllegalStateException if this transport is not available and cannot fall back to NIO, as is the case for {@link #UNIX_DOMAIN_SOCKET Unix domain sockets}
+     */
+    public Transport orFallback() {
+
+        if (isAvailable()) { return this; }
+        if (!tcp) { throw new IllegalStateException(this + " transport is not available on this platform"); }
+        LOGGER.warn("{} transport is not available; falling back to {}", this, NIO);
+        return NIO;
+    }
+
+    /**
+     * Checks whether the channels of this transport are TCP sockets, to which TCP socket options apply.
+     *
+     * @return whether the channels of this transport are TCP sockets
+     */
+    boolean isTcp() {
+
+        return tcp;
+    }
+
+    EventLoopGroup newEventLoopGroup(final ThreadFactory thread_factory) {
+
+        return newEventLoopGroup(0, thread_factory);
+    }
+
+    /**
+     * Creates a group of event loops of this transport.
+     *
+     * @param thread_count the number of event loop threads, or {@code 0} for twice the number of available processors
+     * @param thread_factory the factory of event loop threads
+     * @return a new group of event loops
+     */
+    abstract EventLoopGroup newEventLoopGroup(int thread_count, ThreadFactory thread_factory);
+
+    abstract Class<? extends Channel> getChannelType();
+
+    abstract Class<? extends ServerChannel> getServerChannelType();
+
+    /** Checks the availability of epoll once, so that the native library is not loaded unless the epoll transport is requested. */
+    private static final class EpollAvailability {
+
+        private static final boolean AVAILABLE = isEpollAvailable();
+
+        private static boolean isEpollAvailable() {
+
+            try {
+                if (Epoll.isAvailable()) { return true; }
+                LOGGER.debug("epoll is not available", Epoll.unavailabilityCause());
+            }
+            catch (final LinkageError e) {
+                LOGGER.debug("epoll is not available", e);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.mashti.jetson.util.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The event loops, the deadline timer and the buffer allocator of a transport, which can be shared by many {@link ClientFactory client} and {@link ServerFactory server} factories.
+ * The connections of all the factories that are built on the same resources are served by a single group of I/O threads,
+ * and the server channels of all the server factories accept connections on a single acceptor thread.
+ *
+ * <p>The resources are reference-counted: they are created with a count of {@code 1}, each factory that is built on them {@link #retain() retains} them when it is constructed
+ * and {@link #release() releases} them when it is shut down. The event loops and the timer are shut down once the count drops to {@code 0},
+ * hence the creator of the resources must release them once it no longer builds factories on them. This class is thread-safe.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public final class TransportResources {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransportResources.class);
+    private static final long DEADLINE_TIMER_TICK_IN_MILLIS = 10;
+    private static final int ACCEPTOR_THREAD_COUNT = 1;
+    private final Transport transport;
+    private final EventLoopGroup acceptor_event_loop;
+    private final EventLoopGroup io_event_loop;
+    private final HashedWheelTimer deadline_timer;
+    private final ByteBufAllocator allocator;
+    private final AtomicInteger reference_count = new AtomicInteger(1);
+
+    /**
+     * Instantiates new resources of the given transport, with twice as many I/O threads as the available processors and the {@link PooledByteBufAllocator#DEFAULT shared pooled} allocator.
+     *
+     * @param transport the transport, which falls back to {@link Transport#NIO NIO} if it is not available
+     */
+    public TransportResources(final Transport transport) {
+
+        this(transport, 0, PooledByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * Instantiates new resources of the given transport.
+     *
+     * @param transport the transport, which falls back to {@link Transport#NIO NIO} if it is not available
+     * @param io_thread_count the number of I/O threads, or {@code 0} for twice the number of available processors
+     * @param allocator the allocator of buffers
+     */
+    public TransportResources(final Transport transport, final int io_thread_count, final ByteBufAllocator allocator) {
+
+        if (io_thread_count < 0) { throw new IllegalArgumentException("I/O thread count must not be negative: " + io_thread_count); }
+        if (allocator == null) { throw new NullPointerException("allocator must not be null"); }
+        this.transport = transport.orFallback();
+        this.allocator = allocator;
+        acceptor_event_loop = this.transport.newEventLoopGroup(ACCEPTOR_THREAD_COUNT, new NamedThreadFactory("shared_acceptor_event_loop_"));
+        io_event_loop = this.transport.newEventLoopGroup(io_thread_count, new NamedThreadFactory("shared_io_event_loop_"));
+        final NamedThreadFactory timer_thread_factory = new NamedThreadFactory("shared_deadline_timer_");
+        timer_thread_factory.setDaemon(true);
+        deadline_timer = new HashedWheelTimer(timer_thread_factory, DEADLINE_TIMER_TICK_IN_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the transport of these resources, which is {@link Transport#NIO NIO} if the requested transport was not available.
+     *
+     * @return the transport of these resources
+     */
+    public Transport getTransport() {
+
+        return transport;
+    }
+
+    public ByteBufAllocator getAllocator() {
+
+        return allocator;
+    }
+
+    public int getReferenceCount() {
+
+        return reference_count.get();
+    }
+
+    /**
+     * Increments the reference count of these resources.
+     *
+     * @return these resources
+     * @throws IllegalStateException if these resources are already released
+     */
+    public TransportResources retain() {
+
+        int count;
+        do {
+            count = reference_count.get();
+            if (count == 0) { throw new IllegalStateException("transport resources are already released"); }
+        }
+        while (!reference_count.compareAndSet(count, count + 1));
+        return this;
+    }
+
+    /**
+     * Decrements the reference count of these resources, and shuts down the event loops and the timer if the count drops to {@code 0}.
+     *
+     * @return whether the resources are shut down as a result of this call
+     * @throws IllegalStateException if these resources are already released
+     */
+    public boolean release() {
+
+        int count;
+        do {
+            count = reference_count.get();
+            if (count == 0) { throw new IllegalStateException("transport resources are already released"); }
+        }
+        while (!reference_count.compareAndSet(count, count - 1));
+
+        if (count == 1) {
+            LOGGER.debug("shutting down shared {} transport resources", transport);
+            deadline_timer.stop();
+            acceptor_event_loop.shutdownGracefully();
+            io_event_loop.shutdownGracefully();
+            return true;
+        }
+        return false;
+    }
+
+    EventLoopGroup getAcceptorEventLoop() {
+
+        return acceptor_event_loop;
+    }
+
+    EventLoopGroup getIoEventLoop() {
+
+        return io_event_loop;
+    }
+
+    Timer getDeadlineTimer() {
+
+        return deadline_timer;
+    }
+
+    @Override
+    public String toString() {
+
+        return getClass().getSimpleName() + ':' + transport + ":references=" + reference_count.get();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+import java.util.List;
+import org.mashti.jetson.util.VarInts;
+
+/**
+ * Splits inbound bytes into messages that are prefixed with their length as a {@link VarInts variable-width} unsigned integer.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+final class VarIntFrameDecoder extends ByteToMessageDecoder {
+
+    private final int max_frame_length;
+
+    VarIntFrameDecoder(final int max_frame_length) {
+
+        this.max_frame_length = max_frame_length;
+    }
+
+    @Override
+    protected void decode(final ChannelHandlerContext context, final ByteBuf in, final List<Object> out) throws Exception {
+
+        final int writer_index = in.writerIndex();
+        int index = in.readerIndex();
+        int frame_length = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (index == writer_index) { return; }
+            if (shift == 7 * VarInts.MAX_VAR_INT_LENGTH) { throw new CorruptedFrameException("frame length is longer than " + VarInts.MAX_VAR_INT_LENGTH + " bytes"); }
+            final byte b = in.getByte(index++);
+            frame_length |= (b & 0x7F) << shift;
+            if (b >= 0) { break; }
+        }
+
+        if (frame_length < 0 || frame_length > max_frame_length) { throw new TooLongFrameException("frame length " + (frame_length & 0xFFFFFFFFL) + " exceeds the maximum of " + max_frame_length); }
+        if (writer_index - index < frame_length) { return; }
+
+        in.readerIndex(index);
+        out.add(in.readBytes(frame_length));
+    }
+}
@@ -29,6 +29,9 @@ package org.mashti.jetson.json;
 import com.fasterxml.jackson.core.JsonFactory;
 import org.mashti.jetson.ClientChannelInitializer;
 import org.mashti.jetson.ClientFactory;
+import org.mashti.jetson.Framing;
+import org.mashti.jetson.Transport;
+import org.mashti.jetson.TransportResources;
 import org.mashti.jetson.util.ReflectionUtil;
 
 /**
@@ -47,6 +50,69 @@ public class JsonClientFactory<Service> extends ClientFactory<Service> {
      */
     public JsonClientFactory(final Class<Service> service_interface, final JsonFactory json_factory) {
 
-        super(service_interface, new ClientChannelInitializer(new JsonRequestEncoder(json_factory, ReflectionUtil.mapMethodsToNames(service_interface)), new JsonResponseDecoder(json_factory)));
+        this(service_interface, json_factory, Framing.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new JSON RPC client factory.
+     *
+     * @param service_interface the interface presenting the remote service
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote servers
+     */
+    public JsonClientFactory(final Class<Service> service_interface, final JsonFactory json_factory, final Framing framing) {
+
+        super(service_interface, new ClientChannelInitializer(new JsonRequestEncoder(json_factory, ReflectionUtil.mapMethodsToNames(service_interface)), new JsonResponseDecoder(json_factory), framing));
+    }
+
+    /**
+     * Instantiates a new factory of JSON RPC clients to remote endpoints that expose several services, whose calls share the same connections.
+     * The method names of each service are qualified by the simple name of the service, as in {@code "TestService.saySomething"}.
+     *
+     * @param service_interfaces the interfaces presenting the remote services
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @see #get(java.net.InetSocketAddress, Class)
+     */
+    public JsonClientFactory(final Class<?>[] service_interfaces, final JsonFactory json_factory) {
+
+        this(service_interfaces, json_factory, Framing.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new factory of JSON RPC clients to remote endpoints that expose several services, whose calls share the same connections.
+     *
+     * @param service_interfaces the interfaces presenting the remote services
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote servers
+     */
+    public JsonClientFactory(final Class<?>[] service_interfaces, final JsonFactory json_factory, final Framing framing) {
+
+        this(service_interfaces, json_factory, framing, Transport.NIO);
+    }
+
+    /**
+     * Instantiates a new factory of JSON RPC clients to remote endpoints that expose several services, whose calls share the same connections.
+     *
+     * @param service_interfaces the interfaces presenting the remote services
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote servers
+     * @param transport the transport of the connections, which falls back to {@link Transport#NIO NIO} if it is not available
+     */
+    public JsonClientFactory(final Class<?>[] service_interfaces, final JsonFactory json_factory, final Framing framing, final Transport transport) {
+
+        super(service_interfaces, new ClientChannelInitializer(new JsonRequestEncoder(json_factory, ReflectionUtil.mapMethodsToNames(service_interfaces)), new JsonResponseDecoder(json_factory), framing), transport);
+    }
+
+    /**
+     * Instantiates a new factory of JSON RPC clients to remote endpoints that expose several services, whose calls share the same connections on the given shared resources.
+     *
+     * @param service_interfaces the interfaces presenting the remote services
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote servers
+     * @param resources the shared resources on which the connections run, which are released when this factory is shut down
+     */
+    public JsonClientFactory(final Class<?>[] service_interfaces, final JsonFactory json_factory, final Framing framing, final TransportResources resources) {
+
+        super(service_interfaces, new ClientChannelInitializer(new JsonRequestEncoder(json_factory, ReflectionUtil.mapMethodsToNames(service_interfaces)), new JsonResponseDecoder(json_factory), framing), resources);
     }
 }
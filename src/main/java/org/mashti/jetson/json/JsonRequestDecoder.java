@@ -39,6 +39,7 @@ import io.netty.util.AttributeKey;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.HashMap;
 import java.util.Map;
 import org.mashti.jetson.RequestDecoder;
 import org.mashti.jetson.exception.InvalidRequestException;
@@ -48,6 +49,7 @@ import org.mashti.jetson.exception.RPCException;
 import org.mashti.jetson.exception.TransportException;
 import org.mashti.jetson.util.CloseableUtil;
 import org.mashti.jetson.util.JsonParserUtil;
+import org.mashti.jetson.util.ReflectionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,13 +58,20 @@ class JsonRequestDecoder extends RequestDecoder {
 
     private static final AttributeKey<JsonParser> PARSER_ATTRIBUTE_KEY = AttributeKey.valueOf("parser");
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonRequestDecoder.class);
-    private final Map<String, Method> dispatch;
+    private final Map<String, Integer> method_indices;
     private final JsonFactory json_factory;
 
     JsonRequestDecoder(final JsonFactory json_factory, final Map<String, Method> dispatch) {
 
+        this(json_factory, dispatch, dispatch.values()
+                .toArray(new Method[dispatch.size()]));
+    }
+
+    private JsonRequestDecoder(final JsonFactory json_factory, final Map<String, Method> dispatch, final Method[] methods) {
+
+        super(methods);
         this.json_factory = json_factory;
-        this.dispatch = dispatch;
+        method_indices = mapNamesToIndices(dispatch, methods);
     }
 
     @Override
@@ -82,7 +91,7 @@ class JsonRequestDecoder extends RequestDecoder {
     }
 
     @Override
-    protected Integer decodeId(final ChannelHandlerContext context, final ByteBuf buffer) throws RPCException {
+    protected int decodeId(final ChannelHandlerContext context, final ByteBuf buffer) throws RPCException {
 
         final JsonParser parser = context.channel().attr(PARSER_ATTRIBUTE_KEY).get();
         try {
@@ -105,11 +114,19 @@ class JsonRequestDecoder extends RequestDecoder {
     @Override
     protected Method decodeMethod(final ChannelHandlerContext context, final ByteBuf buffer) throws RPCException {
 
+        final int method_index = decodeMethodIndex(context, buffer);
+        return method_index == CANCEL_METHOD_INDEX ? null : getDispatch()[method_index];
+    }
+
+    @Override
+    protected int decodeMethodIndex(final ChannelHandlerContext context, final ByteBuf buffer) throws RPCException {
+
         final JsonParser parser = context.channel().attr(PARSER_ATTRIBUTE_KEY).get();
         try {
             readAndValidateVersion(parser);
             final String method_name = readAndValidateMethodName(parser);
-            return findServiceMethodByName(method_name);
+            if (JsonRequestEncoder.CANCEL_METHOD_NAME.equals(method_name)) { return CANCEL_METHOD_INDEX; }
+            return findServiceMethodIndexByName(method_name);
         }
         catch (final JsonParseException e) {
             LOGGER.debug("failed to parse request", e);
@@ -157,11 +174,9 @@ class JsonRequestDecoder extends RequestDecoder {
         CloseableUtil.closeQuietly(parser);
     }
 
-    private Integer readId(final JsonParser parser) throws IOException {
+    private int readId(final JsonParser parser) throws IOException {
 
-        final Integer id = JsonParserUtil.readFieldValueAs(parser, JsonRequestEncoder.ID_KEY, Integer.class);
-        if (id == null) { throw new InvalidRequestException("request id of null is not supported"); }
-        return id;
+        return JsonParserUtil.readIntFieldValue(parser, JsonRequestEncoder.ID_KEY);
     }
 
     private String readAndValidateMethodName(final JsonParser parser) throws IOException {
@@ -185,9 +200,20 @@ class JsonRequestDecoder extends RequestDecoder {
         return JsonParserUtil.readArrayValuesAs(parser, param_types);
     }
 
-    private Method findServiceMethodByName(final String method_name) throws MethodNotFoundException {
+    private int findServiceMethodIndexByName(final String method_name) throws MethodNotFoundException {
+
+        final Integer method_index = method_indices.get(method_name);
+        if (method_index == null) { throw new MethodNotFoundException(); }
+        return method_index;
+    }
 
-        if (!dispatch.containsKey(method_name)) { throw new MethodNotFoundException(); }
-        return dispatch.get(method_name);
+    private static Map<String, Integer> mapNamesToIndices(final Map<String, Method> dispatch, final Method[] methods) {
+
+        final Map<Method, Integer> indices = ReflectionUtil.mapMethodsToIndices(methods);
+        final Map<String, Integer> method_indices = new HashMap<String, Integer>(dispatch.size() * 2);
+        for (final Map.Entry<String, Method> entry : dispatch.entrySet()) {
+            method_indices.put(entry.getKey(), indices.get(entry.getValue()));
+        }
+        return method_indices;
     }
 }
@@ -55,6 +55,8 @@ class JsonRequestEncoder extends RequestEncoder {
     static final String DEFAULT_VERSION = "2.0";
     static final String PARAMETERS_KEY = "params";
     static final String METHOD_NAME_KEY = "method";
+    /** The name of the method that marks a request as a cancel request, following the convention of the language server protocol. */
+    static final String CANCEL_METHOD_NAME = "$/cancelRequest";
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonRequestEncoder.class);
     private final JsonFactory json_factory;
     private final JsonEncoding encoding;
@@ -73,13 +75,13 @@ class JsonRequestEncoder extends RequestEncoder {
     }
 
     @Override
-    protected void encodeRequest(final ChannelHandlerContext context, final Integer id, final Method method, final Object[] arguments, final ByteBuf out) throws RPCException {
+    protected void encodeRequest(final ChannelHandlerContext context, final int id, final Method method, final Object[] arguments, final ByteBuf out) throws RPCException {
 
         JsonGenerator generator = null;
         try {
             generator = createJsonGenerator(out);
             generator.writeStartObject();
-            generator.writeObjectField(ID_KEY, id);
+            generator.writeNumberField(ID_KEY, id);
             generator.writeObjectField(VERSION_KEY, DEFAULT_VERSION);
             generator.writeObjectField(METHOD_NAME_KEY, dispatch.get(method));
             writeRequestParameters(method, arguments, generator);
@@ -101,6 +103,31 @@ class JsonRequestEncoder extends RequestEncoder {
         }
     }
 
+    @Override
+    protected void encodeCancel(final ChannelHandlerContext context, final int id, final ByteBuf out) throws RPCException {
+
+        JsonGenerator generator = null;
+        try {
+            generator = createJsonGenerator(out);
+            generator.writeStartObject();
+            generator.writeNumberField(ID_KEY, id);
+            generator.writeObjectField(VERSION_KEY, DEFAULT_VERSION);
+            generator.writeObjectField(METHOD_NAME_KEY, CANCEL_METHOD_NAME);
+            generator.writeArrayFieldStart(PARAMETERS_KEY);
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.flush();
+            generator.close();
+        }
+        catch (final IOException e) {
+            LOGGER.debug("IO error occurred while encoding cancel request", e);
+            throw new TransportException(e);
+        }
+        finally {
+            CloseableUtil.closeQuietly(generator);
+        }
+    }
+
     private static void writeRequestParameters(final Method method, final Object[] arguments, final JsonGenerator generator) throws IOException {
 
         final Type[] param_types = method.getGenericParameterTypes();
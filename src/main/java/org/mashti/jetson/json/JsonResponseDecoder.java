@@ -67,8 +67,10 @@ public class JsonResponseDecoder extends ResponseDecoder {
         try {
             parser = json_factory.createParser(new ByteBufInputStream(in));
             parser.nextToken();
-            final Integer id = validateAndReadResponseId(parser);
+            final int id = validateAndReadResponseId(parser);
             future_response = getFutureResponseById(context, id);
+            if (future_response == null) { return null; }
+
             readAndValidateVersion(parser);
 
             final Type expected_return_type = future_response.getMethod().getGenericReturnType();
@@ -111,9 +113,9 @@ public class JsonResponseDecoder extends ResponseDecoder {
         if (future_response == null) { throw new RPCException("failed to process enough response to determine pending future"); }
     }
 
-    private Integer validateAndReadResponseId(final JsonParser parser) throws IOException {
+    private int validateAndReadResponseId(final JsonParser parser) throws IOException {
 
-        return JsonParserUtil.readFieldValueAs(parser, JsonRequestEncoder.ID_KEY, Integer.class);
+        return JsonParserUtil.readIntFieldValue(parser, JsonRequestEncoder.ID_KEY);
     }
 
     private void setResponseResultOrError(final JsonParser parser, final FutureResponse response, final Type expected_return_type) throws IOException {
@@ -71,24 +71,24 @@ class JsonResponseEncoder extends ResponseEncoder {
     }
 
     @Override
-    protected void encodeResult(final ChannelHandlerContext context, final Integer id, final Object result, final Method method, final ByteBuf out) throws RPCException {
+    protected void encodeResult(final ChannelHandlerContext context, final int id, final Object result, final Method method, final ByteBuf out) throws RPCException {
 
         encodeResultOrException(id, result, null, out, false);
     }
 
     @Override
-    protected void encodeException(final ChannelHandlerContext context, final Integer id, final Throwable exception, final ByteBuf out) throws RPCException {
+    protected void encodeException(final ChannelHandlerContext context, final int id, final Throwable exception, final ByteBuf out) throws RPCException {
 
         encodeResultOrException(id, null, exception, out, true);
     }
 
-    void encodeResultOrException(final Integer id, final Object result, final Throwable exception, final ByteBuf out, final boolean error) throws RPCException {
+    void encodeResultOrException(final int id, final Object result, final Throwable exception, final ByteBuf out, final boolean error) throws RPCException {
 
         JsonGenerator generator = null;
         try {
             generator = createJsonGenerator(out);
             generator.writeStartObject();
-            generator.writeObjectField(JsonRequestEncoder.ID_KEY, id);
+            generator.writeNumberField(JsonRequestEncoder.ID_KEY, id);
             generator.writeObjectField(JsonRequestEncoder.VERSION_KEY, JsonRequestEncoder.DEFAULT_VERSION);
             if (error) {
                 final JsonRpcError json_rpc_error = JsonRpcExceptions.toJsonRpcError(exception);
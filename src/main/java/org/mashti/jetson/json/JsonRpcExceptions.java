@@ -33,6 +33,7 @@ import org.mashti.jetson.exception.InternalServerException;
 import org.mashti.jetson.exception.InvalidRequestException;
 import org.mashti.jetson.exception.MethodNotFoundException;
 import org.mashti.jetson.exception.RPCException;
+import org.mashti.jetson.exception.ServerOverloadedException;
 import org.mashti.jetson.exception.ServerRuntimeException;
 import org.mashti.jetson.exception.TransportException;
 
@@ -53,6 +54,7 @@ final class JsonRpcExceptions {
         JSON_RPC_ERROR_CODES.put(-32603, InternalServerException.class);
         JSON_RPC_ERROR_CODES.put(-32604, IllegalAccessException.class);
         JSON_RPC_ERROR_CODES.put(-32605, ServerRuntimeException.class);
+        JSON_RPC_ERROR_CODES.put(-32606, ServerOverloadedException.class);
     }
 
     private JsonRpcExceptions() {
@@ -27,8 +27,11 @@
 package org.mashti.jetson.json;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import org.mashti.jetson.Framing;
 import org.mashti.jetson.ServerChannelInitializer;
 import org.mashti.jetson.ServerFactory;
+import org.mashti.jetson.Transport;
+import org.mashti.jetson.TransportResources;
 import org.mashti.jetson.util.ReflectionUtil;
 
 /** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
@@ -36,6 +39,69 @@ public class JsonServerFactory<Service> extends ServerFactory<Service> {
 
     public JsonServerFactory(final Class<Service> service_type, final JsonFactory json_factory) {
 
-        super(new ServerChannelInitializer(new JsonRequestDecoder(json_factory, ReflectionUtil.mapNamesToMethods(service_type)), new JsonResponseEncoder(json_factory)));
+        this(service_type, json_factory, Framing.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new JSON RPC server factory.
+     *
+     * @param service_type the type of the service
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @param framing the framing by which messages are delimited, which must match the framing of the clients
+     */
+    public JsonServerFactory(final Class<Service> service_type, final JsonFactory json_factory, final Framing framing) {
+
+        super(service_type, new ServerChannelInitializer(new JsonRequestDecoder(json_factory, ReflectionUtil.mapNamesToMethods(service_type)), new JsonResponseEncoder(json_factory), framing));
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port.
+     * The method names of each service are qualified by the simple name of the service, as in {@code "TestService.saySomething"}.
+     *
+     * @param service_types the types of the services
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @see #createServer(org.mashti.jetson.ServiceRegistry)
+     */
+    public JsonServerFactory(final Class<?>[] service_types, final JsonFactory json_factory) {
+
+        this(service_types, json_factory, Framing.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port.
+     *
+     * @param service_types the types of the services
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @param framing the framing by which messages are delimited, which must match the framing of the clients
+     */
+    public JsonServerFactory(final Class<?>[] service_types, final JsonFactory json_factory, final Framing framing) {
+
+        this(service_types, json_factory, framing, Transport.NIO);
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port.
+     *
+     * @param service_types the types of the services
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @param framing the framing by which messages are delimited, which must match the framing of the clients
+     * @param transport the transport of the connections, which falls back to {@link Transport#NIO NIO} if it is not available
+     */
+    public JsonServerFactory(final Class<?>[] service_types, final JsonFactory json_factory, final Framing framing, final Transport transport) {
+
+        super(service_types, new ServerChannelInitializer(new JsonRequestDecoder(json_factory, ReflectionUtil.mapNamesToMethods(service_types)), new JsonResponseEncoder(json_factory), framing), transport);
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port and run on the given shared resources.
+     *
+     * @param service_types the types of the services
+     * @param json_factory the provider of JSON serializer and deserializer
+     * @param framing the framing by which messages are delimited, which must match the framing of the clients
+     * @param resources the shared resources on which the connections run, which are released when this factory is shut down
+     */
+    public JsonServerFactory(final Class<?>[] service_types, final JsonFactory json_factory, final Framing framing, final TransportResources resources) {
+
+        super(service_types, new ServerChannelInitializer(new JsonRequestDecoder(json_factory, ReflectionUtil.mapNamesToMethods(service_types)), new JsonResponseEncoder(json_factory), framing), resources);
     }
 }
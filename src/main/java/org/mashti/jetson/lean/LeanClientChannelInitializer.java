@@ -27,8 +27,10 @@
 package org.mashti.jetson.lean;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.mashti.jetson.ClientChannelInitializer;
+import org.mashti.jetson.Framing;
 import org.mashti.jetson.lean.codec.Codecs;
 import org.mashti.jetson.util.ReflectionUtil;
 
@@ -37,6 +39,21 @@ public class LeanClientChannelInitializer extends ClientChannelInitializer {
 
     public LeanClientChannelInitializer(Class<?> service_interface, Codecs codecs) {
 
-        super(new LeanRequestEncoder(new ArrayList<Method>(ReflectionUtil.mapMethodsToNames(service_interface).keySet()), codecs), new LeanResponseDecoder(codecs));
+        this(new Class<?>[] {service_interface}, codecs);
+    }
+
+    public LeanClientChannelInitializer(final Class<?>[] service_interfaces, final Codecs codecs) {
+
+        this(service_interfaces, codecs, Framing.DEFAULT);
+    }
+
+    public LeanClientChannelInitializer(final Class<?>[] service_interfaces, final Codecs codecs, final Framing framing) {
+
+        this(Arrays.asList(ReflectionUtil.getSortedMethods(service_interfaces)), codecs, framing);
+    }
+
+    private LeanClientChannelInitializer(final List<Method> dispatch, final Codecs codecs, final Framing framing) {
+
+        super(new LeanRequestEncoder(dispatch, codecs), new LeanResponseDecoder(dispatch, codecs), framing);
     }
 }
@@ -27,6 +27,9 @@
 package org.mashti.jetson.lean;
 
 import org.mashti.jetson.ClientFactory;
+import org.mashti.jetson.Framing;
+import org.mashti.jetson.Transport;
+import org.mashti.jetson.TransportResources;
 import org.mashti.jetson.lean.codec.Codecs;
 
 /**
@@ -52,8 +55,68 @@ public class LeanClientFactory<Service> extends ClientFactory<Service> {
      */
     public LeanClientFactory(final Class<Service> service_interface, final Codecs codecs) {
 
-        super(service_interface, new LeanClientChannelInitializer(service_interface, codecs));
+        this(service_interface, codecs, Framing.DEFAULT);
     }
 
-    
+    /**
+     * Instantiates a new lean RPC client factory.
+     *
+     * @param service_interface the interface presenting the remote service
+     * @param codecs the codecs
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote servers
+     */
+    public LeanClientFactory(final Class<Service> service_interface, final Codecs codecs, final Framing framing) {
+
+        super(service_interface, new LeanClientChannelInitializer(new Class<?>[] {service_interface}, codecs, framing));
+    }
+
+    /**
+     * Instantiates a new factory of clients to remote endpoints that expose several services, whose calls share the same connections.
+     *
+     * @param service_interfaces the interfaces presenting the remote services
+     * @param codecs the codecs
+     * @see #get(java.net.InetSocketAddress, Class)
+     */
+    public LeanClientFactory(final Class<?>[] service_interfaces, final Codecs codecs) {
+
+        this(service_interfaces, codecs, Framing.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new factory of clients to remote endpoints that expose several services, whose calls share the same connections.
+     *
+     * @param service_interfaces the interfaces presenting the remote services
+     * @param codecs the codecs
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote servers
+     */
+    public LeanClientFactory(final Class<?>[] service_interfaces, final Codecs codecs, final Framing framing) {
+
+        this(service_interfaces, codecs, framing, Transport.NIO);
+    }
+
+    /**
+     * Instantiates a new factory of clients to remote endpoints that expose several services, whose calls share the same connections.
+     *
+     * @param service_interfaces the interfaces presenting the remote services
+     * @param codecs the codecs
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote servers
+     * @param transport the transport of the connections, which falls back to {@link Transport#NIO NIO} if it is not available
+     */
+    public LeanClientFactory(final Class<?>[] service_interfaces, final Codecs codecs, final Framing framing, final Transport transport) {
+
+        super(service_interfaces, new LeanClientChannelInitializer(service_interfaces, codecs, framing), transport);
+    }
+
+    /**
+     * Instantiates a new factory of clients to remote endpoints that expose several services, whose calls share the same connections on the given shared resources.
+     *
+     * @param service_interfaces the interfaces presenting the remote services
+     * @param codecs the codecs
+     * @param framing the framing by which messages are delimited, which must match the framing of the remote servers
+     * @param resources the shared resources on which the connections run, which are released when this factory is shut down
+     */
+    public LeanClientFactory(final Class<?>[] service_interfaces, final Codecs codecs, final Framing framing, final TransportResources resources) {
+
+        super(service_interfaces, new LeanClientChannelInitializer(service_interfaces, codecs, framing), resources);
+    }
 }
@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.lean;
+
+import io.netty.buffer.ByteBuf;
+import org.mashti.jetson.util.VarInts;
+
+/**
+ * Reads and writes the header of lean messages.
+ * A request header consists of the protocol version byte, the request id and the method code; a response header consists of the version byte and the request id.
+ * The id and the method code are {@link VarInts variable-width} integers. The method code of a method is its index in the dispatch plus one; the method code {@code zero} marks a cancel request.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+final class LeanHeader {
+
+    /** The version of the lean protocol. */
+    static final byte VERSION = 1;
+
+    /** The method code that marks a request as a cancel request. */
+    static final int CANCEL_METHOD_CODE = 0;
+
+    private LeanHeader() {
+
+    }
+
+    static void writeVersionAndId(final ByteBuf out, final int id) {
+
+        out.writeByte(VERSION);
+        VarInts.writeUnsignedInt(out, id);
+    }
+
+    /**
+     * Reads the version of a message and checks whether it is supported.
+     *
+     * @param in the buffer to read from
+     * @return whether the version of the message is supported
+     */
+    static boolean readVersion(final ByteBuf in) {
+
+        return in.readByte() == VERSION;
+    }
+
+    static int readId(final ByteBuf in) {
+
+        return VarInts.readUnsignedInt(in);
+    }
+
+    static void writeMethodIndex(final ByteBuf out, final int index) {
+
+        VarInts.writeUnsignedInt(out, index + 1);
+    }
+
+    static void writeCancel(final ByteBuf out) {
+
+        VarInts.writeUnsignedInt(out, CANCEL_METHOD_CODE);
+    }
+
+    /**
+     * Checks, without consuming it, whether the next method code in the given buffer marks a cancel request.
+     * A variable-width integer starts with a {@code zero} byte only if its value is {@code zero}.
+     *
+     * @param in the buffer to check
+     * @return whether the next method code marks a cancel request
+     */
+    static boolean isCancel(final ByteBuf in) {
+
+        return in.getByte(in.readerIndex()) == CANCEL_METHOD_CODE;
+    }
+
+    static int readMethodIndex(final ByteBuf in) {
+
+        return VarInts.readUnsignedInt(in) - 1;
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.lean;
+
+import io.netty.buffer.ByteBuf;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import org.mashti.jetson.exception.RPCException;
+import org.mashti.jetson.lean.codec.Codec;
+import org.mashti.jetson.lean.codec.Codecs;
+
+/**
+ * Encodes and decodes the arguments and the result of a method, using the codecs of its parameter types and its result type.
+ * The generic types of the method are read once at construction.
+ * The codecs are resolved on first use, so that the codecs {@link Codecs#register(Codec) registered} after construction are taken into account; they are then reused for every message.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+final class LeanMethodCodec {
+
+    private final Codecs codecs;
+    private final Type[] argument_types;
+    private final Type result_type;
+    private volatile Codec[] argument_codecs;
+    private volatile Codec result_codec;
+
+    LeanMethodCodec(final Method method, final Codecs codecs) {
+
+        this.codecs = codecs;
+        argument_types = method.getGenericParameterTypes();
+        result_type = getResultType(method);
+    }
+
+    void writeArguments(final Object[] arguments, final ByteBuf out) throws RPCException {
+
+        final Codec[] codecs = getArgumentCodecs();
+        for (int i = 0; i < codecs.length; i++) {
+            codecs[i].encode(arguments[i], out, this.codecs, argument_types[i]);
+        }
+    }
+
+    Object[] readArguments(final ByteBuf in) throws RPCException {
+
+        final Codec[] codecs = getArgumentCodecs();
+        final int arguments_count = codecs.length;
+        if (arguments_count == 0) { return null; }
+
+        final Object[] arguments = new Object[arguments_count];
+        for (int i = 0; i < arguments_count; i++) {
+            arguments[i] = codecs[i].decode(in, this.codecs, argument_types[i]);
+        }
+        return arguments;
+    }
+
+    void writeResult(final Object result, final ByteBuf out) throws RPCException {
+
+        getResultCodec().encode(result, out, codecs, result_type);
+    }
+
+    Object readResult(final ByteBuf in) throws RPCException {
+
+        return getResultCodec().decode(in, codecs, result_type);
+    }
+
+    private Codec[] getArgumentCodecs() throws RPCException {
+
+        Codec[] resolved_codecs = argument_codecs;
+        if (resolved_codecs == null) {
+            resolved_codecs = new Codec[argument_types.length];
+            for (int i = 0; i < argument_types.length; i++) {
+                resolved_codecs[i] = codecs.get(argument_types[i]);
+            }
+            argument_codecs = resolved_codecs;
+        }
+        return resolved_codecs;
+    }
+
+    private Codec getResultCodec() throws RPCException {
+
+        Codec resolved_codec = result_codec;
+        if (resolved_codec == null) {
+            resolved_codec = codecs.get(result_type);
+            result_codec = resolved_codec;
+        }
+        return resolved_codec;
+    }
+
+    private static Type getResultType(final Method method) {
+
+        final Type return_type = method.getGenericReturnType();
+        return return_type instanceof ParameterizedType ? ((ParameterizedType) return_type).getActualTypeArguments()[0] : Object.class;
+    }
+
+    /**
+     * Holds the codecs of the methods of a dispatch, which are constructed with the table and looked up by the indices of their methods.
+     * Methods that are not found at their given index, such as the methods of requests that are not made by their index, are looked up in a {@link Cache cache} instead.
+     */
+    static final class Table {
+
+        private final Method[] dispatch;
+        private final LeanMethodCodec[] method_codecs;
+        private final Cache cache;
+
+        Table(final List<Method> dispatch, final Codecs codecs) {
+
+            this.dispatch = dispatch.toArray(new Method[dispatch.size()]);
+            method_codecs = new LeanMethodCodec[this.dispatch.length];
+            for (int index = 0; index < method_codecs.length; index++) {
+                method_codecs[index] = new LeanMethodCodec(this.dispatch[index], codecs);
+            }
+            cache = new Cache(codecs);
+        }
+
+        /**
+         * Gets the codec of the given method, which is expected at the given index of the dispatch.
+         *
+         * @param index the index of the method in the dispatch, or a negative number if the index is not known
+         * @param method the method
+         * @return the codec of the given method
+         */
+        LeanMethodCodec get(final int index, final Method method) {
+
+            return isAt(index, method) ? method_codecs[index] : cache.get(method);
+        }
+
+        /**
+         * Checks whether the given method is at the given index of the dispatch.
+         *
+         * @param index the index of the method in the dispatch, or a negative number if the index is not known
+         * @param method the method
+         * @return whether the given method is at the given index of the dispatch
+         */
+        boolean isAt(final int index, final Method method) {
+
+            return index >= 0 && index < dispatch.length && dispatch[index] == method;
+        }
+    }
+
+    /** Caches the codecs of methods, which are constructed on first use. */
+    static final class Cache {
+
+        private final ConcurrentHashMap<Method, LeanMethodCodec> method_codecs = new ConcurrentHashMap<Method, LeanMethodCodec>();
+        private final Codecs codecs;
+
+        Cache(final Codecs codecs) {
+
+            this.codecs = codecs;
+        }
+
+        LeanMethodCodec get(final Method method) {
+
+            final LeanMethodCodec method_codec = method_codecs.get(method);
+            return method_codec != null ? method_codec : method_codecs.computeIfAbsent(method, key -> new LeanMethodCodec(key, codecs));
+        }
+    }
+}
@@ -29,9 +29,10 @@ package org.mashti.jetson.lean;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import java.lang.reflect.Method;
-import java.lang.reflect.Type;
 import java.util.List;
+import org.mashti.jetson.FutureResponse;
 import org.mashti.jetson.RequestDecoder;
+import org.mashti.jetson.exception.InvalidRequestException;
 import org.mashti.jetson.exception.MethodNotFoundException;
 import org.mashti.jetson.exception.RPCException;
 import org.mashti.jetson.lean.codec.Codecs;
@@ -39,59 +40,52 @@ import org.mashti.jetson.lean.codec.Codecs;
 /** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
 public class LeanRequestDecoder extends RequestDecoder {
 
-    private final List<Method> dispatch;
     protected final Codecs codecs;
+    private final LeanMethodCodec.Table method_codecs;
 
     public LeanRequestDecoder(final List<Method> dispatch, final Codecs codecs) {
 
-        this.dispatch = dispatch;
+        super(dispatch.toArray(new Method[dispatch.size()]));
         this.codecs = codecs;
+        method_codecs = new LeanMethodCodec.Table(dispatch, codecs);
     }
 
-    private Method getMethodByIndex(final int index) throws MethodNotFoundException {
+    @Override
+    protected int decodeId(final ChannelHandlerContext context, final ByteBuf in) throws RPCException {
 
-        try {
-            return dispatch.get(index);
-        }
-        catch (final IndexOutOfBoundsException e) {
-            throw new MethodNotFoundException("no method is found with the index: " + index, e);
-        }
+        if (!LeanHeader.readVersion(in)) { throw new InvalidRequestException("unsupported lean protocol version"); }
+        return LeanHeader.readId(in);
     }
 
-    private Object[] readArguments(final Type[] argument_types, final ByteBuf in) throws RPCException {
-
-        final int arguments_count = argument_types.length;
-        final Object[] arguments;
-        if (arguments_count > 0) {
+    @Override
+    protected Method decodeMethod(final ChannelHandlerContext context, final ByteBuf in) throws RPCException {
 
-            arguments = new Object[arguments_count];
-            for (int i = 0; i < arguments_count; i++) {
-                arguments[i] = codecs.decodeAs(in, argument_types[i]);
-            }
-        }
-        else {
-            arguments = null;
-        }
-        return arguments;
+        final int method_index = decodeMethodIndex(context, in);
+        return method_index == CANCEL_METHOD_INDEX ? null : getDispatch()[method_index];
     }
 
     @Override
-    protected Integer decodeId(final ChannelHandlerContext context, final ByteBuf in) throws RPCException {
+    protected int decodeMethodIndex(final ChannelHandlerContext context, final ByteBuf in) throws RPCException {
 
-        return in.readInt();
+        if (LeanHeader.isCancel(in)) {
+            in.skipBytes(1);
+            return CANCEL_METHOD_INDEX;
+        }
+        final int method_index = LeanHeader.readMethodIndex(in);
+        if (method_index < 0 || method_index >= getDispatch().length) { throw new MethodNotFoundException("no method is found with the index: " + method_index); }
+        return method_index;
     }
 
     @Override
-    protected Method decodeMethod(final ChannelHandlerContext context, final ByteBuf in) throws RPCException {
+    protected Object[] decodeMethodArguments(final ChannelHandlerContext context, final ByteBuf in, final Method method) throws RPCException {
 
-        final int method_index = in.readByte();
-        return getMethodByIndex(method_index);
+        return decodeMethodArguments(context, in, FutureResponse.NO_METHOD_INDEX, method);
     }
 
     @Override
-    protected Object[] decodeMethodArguments(final ChannelHandlerContext context, final ByteBuf in, final Method method) throws RPCException {
+    protected Object[] decodeMethodArguments(final ChannelHandlerContext context, final ByteBuf in, final int method_index, final Method method) throws RPCException {
 
-        final Type[] argument_types = method.getGenericParameterTypes();
-        return readArguments(argument_types, in);
+        return method_codecs.get(method_index, method)
+                .readArguments(in);
     }
 }
@@ -29,48 +29,79 @@ package org.mashti.jetson.lean;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import java.lang.reflect.Method;
-import java.lang.reflect.Type;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import org.mashti.jetson.FutureResponse;
 import org.mashti.jetson.RequestEncoder;
 import org.mashti.jetson.exception.MethodNotFoundException;
 import org.mashti.jetson.exception.RPCException;
 import org.mashti.jetson.lean.codec.Codecs;
+import org.mashti.jetson.util.ReflectionUtil;
 
 /** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
 public class LeanRequestEncoder extends RequestEncoder {
 
-    private final List<Method> dispatch;
+    private final Map<Method, Integer> identity_indices;
+    private final Map<Method, Integer> indices;
     protected final Codecs codecs;
+    private final LeanMethodCodec.Table method_codecs;
 
     public LeanRequestEncoder(final List<Method> dispatch, final Codecs codecs) {
 
-        this.dispatch = dispatch;
         this.codecs = codecs;
+        indices = ReflectionUtil.mapMethodsToIndices(dispatch.toArray(new Method[dispatch.size()]));
+        identity_indices = new IdentityHashMap<Method, Integer>(indices);
+        method_codecs = new LeanMethodCodec.Table(dispatch, codecs);
     }
 
     @Override
-    protected void encodeRequest(final ChannelHandlerContext context, final Integer id, final Method method, final Object[] arguments, final ByteBuf out) throws RPCException {
+    protected void encodeRequest(final ChannelHandlerContext context, final int id, final Method method, final Object[] arguments, final ByteBuf out) throws RPCException {
 
-        final Type[] argument_types = method.getGenericParameterTypes();
-        out.writeInt(id);
-        writeMethod(method, out);
-        writeArguments(arguments, argument_types, out);
+        encodeRequest(context, id, FutureResponse.NO_METHOD_INDEX, method, arguments, out);
     }
 
-    protected void writeArguments(final Object[] arguments, final Type[] argument_types, final ByteBuf out) throws RPCException {
+    /**
+     * Encodes a request whose method is at the given index of the dispatch of the client that made it.
+     * The index is written as it is if the method is at the same index of the dispatch of this encoder, as it is when the client and this encoder share the same dispatch; otherwise, the index of the method is looked up.
+     */
+    @Override
+    protected void encodeRequest(final ChannelHandlerContext context, final int id, final int method_index, final Method method, final Object[] arguments, final ByteBuf out) throws RPCException {
 
-        for (int i = 0; i < argument_types.length; i++) {
+        final int index = method_codecs.isAt(method_index, method) ? method_index : getIndex(method);
+        LeanHeader.writeVersionAndId(out, id);
+        LeanHeader.writeMethodIndex(out, index);
+        method_codecs.get(index, method)
+                .writeArguments(arguments, out);
+    }
 
-            final Type type = argument_types[i];
-            final Object argument = arguments[i];
-            codecs.encodeAs(argument, out, type);
-        }
+    @Override
+    protected void encodeCancel(final ChannelHandlerContext context, final int id, final ByteBuf out) throws RPCException {
+
+        LeanHeader.writeVersionAndId(out, id);
+        LeanHeader.writeCancel(out);
     }
 
     protected void writeMethod(final Method method, final ByteBuf out) throws MethodNotFoundException {
 
-        final int index = dispatch.indexOf(method);
-        if (index == -1) { throw new MethodNotFoundException(); }
-        out.writeByte(index);
+        LeanHeader.writeMethodIndex(out, getIndex(method));
+    }
+
+    /**
+     * Gets the index of the given method in the dispatch.
+     * The methods of the dispatch are typically the same instances as the methods of requests, which are looked up by identity; other equal instances are looked up by equality.
+     *
+     * @param method the method
+     * @return the index of the given method in the dispatch
+     * @throws MethodNotFoundException if the given method is not in the dispatch
+     */
+    private int getIndex(final Method method) throws MethodNotFoundException {
+
+        Integer index = identity_indices.get(method);
+        if (index == null) {
+            index = indices.get(method);
+            if (index == null) { throw new MethodNotFoundException(); }
+        }
+        return index;
     }
 }
@@ -29,10 +29,11 @@ package org.mashti.jetson.lean;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
 import org.mashti.jetson.FutureResponse;
 import org.mashti.jetson.ResponseDecoder;
+import org.mashti.jetson.exception.InvalidResponseException;
 import org.mashti.jetson.exception.RPCException;
 import org.mashti.jetson.lean.codec.Codecs;
 
@@ -40,17 +41,33 @@ import org.mashti.jetson.lean.codec.Codecs;
 public class LeanResponseDecoder extends ResponseDecoder {
 
     private final Codecs codecs;
+    private final LeanMethodCodec.Table method_codecs;
 
     public LeanResponseDecoder(final Codecs codecs) {
 
+        this(Collections.<Method>emptyList(), codecs);
+    }
+
+    /**
+     * Instantiates a new decoder of the results of the given methods, whose codecs are looked up by the indices of the methods.
+     *
+     * @param dispatch the methods of the requests, in the order of their indices in the dispatch of the client
+     * @param codecs the codecs
+     */
+    public LeanResponseDecoder(final List<Method> dispatch, final Codecs codecs) {
+
         this.codecs = codecs;
+        method_codecs = new LeanMethodCodec.Table(dispatch, codecs);
     }
 
     @Override
-    protected FutureResponse<?> decode(final ChannelHandlerContext context, final ByteBuf in) {
+    protected FutureResponse<?> decode(final ChannelHandlerContext context, final ByteBuf in) throws RPCException {
 
-        final int id = in.readInt();
+        if (!LeanHeader.readVersion(in)) { throw new InvalidResponseException("unsupported lean protocol version"); }
+        final int id = LeanHeader.readId(in);
         final FutureResponse response = getFutureResponseById(context, id);
+        if (response == null) { return null; }
+
         final boolean error = in.readBoolean();
         try {
             if (error) {
@@ -58,9 +75,8 @@ public class LeanResponseDecoder extends ResponseDecoder {
                 response.completeExceptionally(throwable);
             }
             else {
-                final Method method = response.getMethod();
-                final Type return_type = method.getGenericReturnType();
-                final Object result = codecs.decodeAs(in, ((ParameterizedType)return_type).getActualTypeArguments()[0]);
+                final Object result = method_codecs.get(response.getMethodIndex(), response.getMethod())
+                        .readResult(in);
                 response.complete(result);
             }
         }
@@ -29,8 +29,9 @@ package org.mashti.jetson.lean;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import org.mashti.jetson.FutureResponse;
 import org.mashti.jetson.ResponseEncoder;
 import org.mashti.jetson.exception.RPCException;
 import org.mashti.jetson.lean.codec.Codecs;
@@ -39,25 +40,44 @@ import org.mashti.jetson.lean.codec.Codecs;
 public class LeanResponseEncoder extends ResponseEncoder {
 
     private final Codecs codecs;
+    private final LeanMethodCodec.Table method_codecs;
 
     public LeanResponseEncoder(final Codecs codecs) {
 
+        this(Collections.<Method>emptyList(), codecs);
+    }
+
+    /**
+     * Instantiates a new encoder of the results of the given methods, whose codecs are looked up by the indices of the methods.
+     *
+     * @param dispatch the methods of the requests, in the order of their indices in the dispatch of the request decoder
+     * @param codecs the codecs
+     */
+    public LeanResponseEncoder(final List<Method> dispatch, final Codecs codecs) {
+
         this.codecs = codecs;
+        method_codecs = new LeanMethodCodec.Table(dispatch, codecs);
+    }
+
+    @Override
+    protected void encodeResult(final ChannelHandlerContext context, final int id, final Object result, final Method method, final ByteBuf out) throws RPCException {
+
+        encodeResult(context, id, result, FutureResponse.NO_METHOD_INDEX, method, out);
     }
 
     @Override
-    protected void encodeResult(final ChannelHandlerContext context, final Integer id, final Object result, final Method method, final ByteBuf out) throws RPCException {
+    protected void encodeResult(final ChannelHandlerContext context, final int id, final Object result, final int method_index, final Method method, final ByteBuf out) throws RPCException {
 
-        out.writeInt(id);
+        LeanHeader.writeVersionAndId(out, id);
         out.writeBoolean(false);
-        final Type return_type = method.getGenericReturnType();
-        codecs.encodeAs(result, out, ((ParameterizedType)return_type).getActualTypeArguments()[0]);
+        method_codecs.get(method_index, method)
+                .writeResult(result, out);
     }
 
     @Override
-    protected void encodeException(final ChannelHandlerContext context, final Integer id, final Throwable exception, final ByteBuf out) throws RPCException {
+    protected void encodeException(final ChannelHandlerContext context, final int id, final Throwable exception, final ByteBuf out) throws RPCException {
 
-        out.writeInt(id);
+        LeanHeader.writeVersionAndId(out, id);
         out.writeBoolean(true);
         codecs.encodeAs(exception, out, Throwable.class);
     }
@@ -27,7 +27,9 @@
 package org.mashti.jetson.lean;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.mashti.jetson.Framing;
 import org.mashti.jetson.ServerChannelInitializer;
 import org.mashti.jetson.lean.codec.Codecs;
 import org.mashti.jetson.util.ReflectionUtil;
@@ -37,6 +39,21 @@ public class LeanServerChannelInitializer<Service> extends ServerChannelInitiali
 
     public LeanServerChannelInitializer(final Class<Service> service_type, final Codecs codecs) {
 
-        super(new LeanRequestDecoder(new ArrayList<Method>(ReflectionUtil.mapMethodsToNames(service_type).keySet()), codecs), new LeanResponseEncoder(codecs));
+        this(new Class<?>[] {service_type}, codecs);
+    }
+
+    public LeanServerChannelInitializer(final Class<?>[] service_types, final Codecs codecs) {
+
+        this(service_types, codecs, Framing.DEFAULT);
+    }
+
+    public LeanServerChannelInitializer(final Class<?>[] service_types, final Codecs codecs, final Framing framing) {
+
+        this(Arrays.asList(ReflectionUtil.getSortedMethods(service_types)), codecs, framing);
+    }
+
+    private LeanServerChannelInitializer(final List<Method> dispatch, final Codecs codecs, final Framing framing) {
+
+        super(new LeanRequestDecoder(dispatch, codecs), new LeanResponseEncoder(dispatch, codecs), framing);
     }
 }
@@ -26,7 +26,10 @@
  */
 package org.mashti.jetson.lean;
 
+import org.mashti.jetson.Framing;
 import org.mashti.jetson.ServerFactory;
+import org.mashti.jetson.Transport;
+import org.mashti.jetson.TransportResources;
 import org.mashti.jetson.lean.codec.Codecs;
 
 /** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
@@ -39,6 +42,68 @@ public class LeanServerFactory<Service> extends ServerFactory<Service> {
 
     public LeanServerFactory(final Class<Service> service_type, final Codecs codecs) {
 
-        super(new LeanServerChannelInitializer<Service>(service_type, codecs));
+        this(service_type, codecs, Framing.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new lean RPC server factory.
+     *
+     * @param service_type the type of the service
+     * @param codecs the codecs
+     * @param framing the framing by which messages are delimited, which must match the framing of the clients
+     */
+    public LeanServerFactory(final Class<Service> service_type, final Codecs codecs, final Framing framing) {
+
+        super(service_type, new LeanServerChannelInitializer<Service>(new Class<?>[] {service_type}, codecs, framing));
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port.
+     *
+     * @param service_types the types of the services
+     * @param codecs the codecs
+     * @see #createServer(org.mashti.jetson.ServiceRegistry)
+     */
+    public LeanServerFactory(final Class<?>[] service_types, final Codecs codecs) {
+
+        this(service_types, codecs, Framing.DEFAULT);
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port.
+     *
+     * @param service_types the types of the services
+     * @param codecs the codecs
+     * @param framing the framing by which messages are delimited, which must match the framing of the clients
+     */
+    public LeanServerFactory(final Class<?>[] service_types, final Codecs codecs, final Framing framing) {
+
+        this(service_types, codecs, framing, Transport.NIO);
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port.
+     *
+     * @param service_types the types of the services
+     * @param codecs the codecs
+     * @param framing the framing by which messages are delimited, which must match the framing of the clients
+     * @param transport the transport of the connections, which falls back to {@link Transport#NIO NIO} if it is not available
+     */
+    public LeanServerFactory(final Class<?>[] service_types, final Codecs codecs, final Framing framing, final Transport transport) {
+
+        super(service_types, new LeanServerChannelInitializer<Service>(service_types, codecs, framing), transport);
+    }
+
+    /**
+     * Instantiates a new factory of servers that expose several services over the same port and run on the given shared resources.
+     *
+     * @param service_types the types of the services
+     * @param codecs the codecs
+     * @param framing the framing by which messages are delimited, which must match the framing of the clients
+     * @param resources the shared resources on which the connections run, which are released when this factory is shut down
+     */
+    public LeanServerFactory(final Class<?>[] service_types, final Codecs codecs, final Framing framing, final TransportResources resources) {
+
+        super(service_types, new LeanServerChannelInitializer<Service>(service_types, codecs, framing), resources);
     }
 }
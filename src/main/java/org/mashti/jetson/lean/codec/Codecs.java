@@ -96,7 +96,15 @@ public class Codecs {
         return get(type).decode(in, this, type);
     }
 
-    Codec get(final Type type) throws UnknownTypeException {
+    /**
+     * Gets the codec that encodes and decodes values of the given type.
+     * Once resolved, the codec of a type is cached; callers may also hold on to the resolved codec and bypass the lookup on subsequent values of the same type.
+     *
+     * @param type the type of values
+     * @return the codec of the given type
+     * @throws UnknownTypeException if no registered codec supports the given type
+     */
+    public Codec get(final Type type) throws UnknownTypeException {
 
         if (isCodecMappingCached(type)) {
             return getCachedCodecMapping(type);
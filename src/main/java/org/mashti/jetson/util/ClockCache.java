@@ -0,0 +1,211 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * A concurrent map with a bounded number of mappings that approximates least-recently-used eviction using the CLOCK algorithm.
+ * Each mapping carries a reference bit that is set when the mapping is added or read. When the capacity is exceeded, a clock hand sweeps over the mappings,
+ * clearing the reference bits it passes and evicting the first mapping whose bit is already clear. Reads take no locks and do not reorder any shared structure.
+ * Evicted mappings are passed to an eviction listener. This class does not permit {@code null} keys or values and is thread-safe.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of mapped values
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public final class ClockCache<K, V> {
+
+    /** The capacity of a cache that never evicts mappings because of its size. */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    private final ConcurrentHashMap<K, Node<V>> map = new ConcurrentHashMap<K, Node<V>>();
+    private final BiConsumer<? super K, ? super V> eviction_listener;
+    private volatile int capacity;
+    private Iterator<Map.Entry<K, Node<V>>> hand;
+
+    /**
+     * Instantiates a new cache.
+     *
+     * @param capacity the maximum number of mappings
+     * @param eviction_listener the listener that is notified of evicted mappings
+     */
+    public ClockCache(final int capacity, final BiConsumer<? super K, ? super V> eviction_listener) {
+
+        setCapacity(capacity);
+        this.eviction_listener = eviction_listener;
+    }
+
+    /**
+     * Sets the maximum number of mappings in this cache. If this cache holds more mappings than the new capacity, the excess mappings are evicted.
+     *
+     * @param capacity the maximum number of mappings, must be at least {@code 1}
+     */
+    public void setCapacity(final int capacity) {
+
+        if (capacity < 1) { throw new IllegalArgumentException("capacity must be at least 1"); }
+        this.capacity = capacity;
+        evictExcess();
+    }
+
+    public int getCapacity() {
+
+        return capacity;
+    }
+
+    /**
+     * Gets the value that is mapped to the given key, and marks the mapping as recently used.
+     *
+     * @param key the key
+     * @return the mapped value, or {@code null} if no value is mapped to the given key
+     */
+    public V get(final K key) {
+
+        final Node<V> node = map.get(key);
+        if (node == null) { return null; }
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        return node.value;
+    }
+
+    /**
+     * Maps the given value to the given key if no value is mapped to it already. Adding a mapping may evict other mappings.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the value that is already mapped to the given key, or {@code null} if the given value is mapped
+     */
+    public V putIfAbsent(final K key, final V value) {
+
+        final Node<V> existing = map.putIfAbsent(key, new Node<V>(value));
+        if (existing != null) {
+            existing.referenced = true;
+            return existing.value;
+        }
+        if (map.size() > capacity) {
+            evictExcess();
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the given key. The eviction listener is not notified.
+     *
+     * @param key the key
+     * @return the value that was mapped to the given key, or {@code null} if no value was mapped to it
+     */
+    public V remove(final K key) {
+
+        final Node<V> node = map.remove(key);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Removes the mapping of the given key if it is mapped to the given value. The eviction listener is not notified.
+     *
+     * @param key the key
+     * @param value the value
+     * @return whether the mapping was removed
+     */
+    public boolean remove(final K key, final V value) {
+
+        final Node<V> node = map.get(key);
+        return node != null && node.value == value && map.remove(key, node);
+    }
+
+    /** Evicts all the mappings in this cache. */
+    public void clear() {
+
+        for (final Map.Entry<K, Node<V>> entry : map.entrySet()) {
+            evict(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Performs the given action on each mapping in this cache without marking the mappings as recently used.
+     *
+     * @param action the action to perform
+     */
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+
+        for (final Map.Entry<K, Node<V>> entry : map.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue().value);
+        }
+    }
+
+    public int size() {
+
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+
+        return map.isEmpty();
+    }
+
+    private synchronized void evictExcess() {
+
+        int remaining_passes = 2 * map.size();
+        while (map.size() > capacity) {
+            if (hand == null || !hand.hasNext()) {
+                hand = map.entrySet()
+                        .iterator();
+                if (!hand.hasNext()) { return; }
+            }
+
+            final Map.Entry<K, Node<V>> entry = hand.next();
+            final Node<V> node = entry.getValue();
+            if (node.referenced && remaining_passes-- > 0) {
+                node.referenced = false;
+            }
+            else {
+                evict(entry.getKey(), node);
+            }
+        }
+    }
+
+    private void evict(final K key, final Node<V> node) {
+
+        if (map.remove(key, node)) {
+            eviction_listener.accept(key, node.value);
+        }
+    }
+
+    private static final class Node<V> {
+
+        private final V value;
+        private volatile boolean referenced = true;
+
+        private Node(final V value) {
+
+            this.value = value;
+        }
+    }
+}
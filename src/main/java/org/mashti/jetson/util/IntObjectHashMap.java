@@ -0,0 +1,281 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An open-addressing hash map with primitive {@code int} keys that uses linear probing and backward shift deletion.
+ * Keys are never boxed and no entry objects are allocated per mapping. This class does not permit {@code null} values and is not thread-safe.
+ *
+ * @param <V> the type of mapped values
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public final class IntObjectHashMap<V> {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    /** Instantiates a new map with the default initial capacity. */
+    public IntObjectHashMap() {
+
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new map that can hold the given number of mappings without resizing.
+     *
+     * @param expected_size the expected number of mappings
+     */
+    public IntObjectHashMap(final int expected_size) {
+
+        if (expected_size < 0) { throw new IllegalArgumentException("expected size must not be negative: " + expected_size); }
+        allocate(capacityFor(expected_size));
+    }
+
+    /**
+     * Gets the value that is mapped to the given key.
+     *
+     * @param key the key
+     * @return the mapped value, or {@code null} if no value is mapped to the given key
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final int key) {
+
+        final int index = indexOf(key);
+        return index == -1 ? null : (V) values[index];
+    }
+
+    /**
+     * Checks whether a value is mapped to the given key.
+     *
+     * @param key the key
+     * @return whether a value is mapped to the given key
+     */
+    public boolean containsKey(final int key) {
+
+        return indexOf(key) != -1;
+    }
+
+    /**
+     * Maps the given value to the given key, replacing any existing mapping.
+     *
+     * @param key the key
+     * @param value the value to map
+     * @return the previously mapped value, or {@code null} if there was no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final int key, final V value) {
+
+        if (value == null) { throw new NullPointerException("null values are not permitted"); }
+
+        int index = hashIndex(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                final V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = nextIndex(index);
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        if (++size > values.length >>> 1) {
+            resize(values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Maps the given value to the given key only if the key is not already mapped.
+     *
+     * @param key the key
+     * @param value the value to map
+     * @return the existing value, or {@code null} if the given value was mapped
+     */
+    public V putIfAbsent(final int key, final V value) {
+
+        final V existing = get(key);
+        return existing != null ? existing : put(key, value);
+    }
+
+    /**
+     * Removes the mapping of the given key.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if there was no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final int key) {
+
+        final int index = indexOf(key);
+        if (index == -1) { return null; }
+        final V removed = (V) values[index];
+        removeAt(index);
+        return removed;
+    }
+
+    /**
+     * Removes the mapping of the given key only if it is mapped to the given value.
+     * Values are compared by identity.
+     *
+     * @param key the key
+     * @param value the expected value
+     * @return whether the mapping was removed
+     */
+    public boolean remove(final int key, final V value) {
+
+        final int index = indexOf(key);
+        if (index == -1 || values[index] != value) { return false; }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Gets the number of mappings in this map.
+     *
+     * @return the number of mappings
+     */
+    public int size() {
+
+        return size;
+    }
+
+    /**
+     * Checks whether this map contains no mappings.
+     *
+     * @return whether this map is empty
+     */
+    public boolean isEmpty() {
+
+        return size == 0;
+    }
+
+    /**
+     * Gets a snapshot of the mapped values. Changes to the returned list are not reflected in this map.
+     *
+     * @return a new list containing the mapped values
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+
+        final List<V> snapshot = new ArrayList<V>(size);
+        for (final Object value : values) {
+            if (value != null) {
+                snapshot.add((V) value);
+            }
+        }
+        return snapshot;
+    }
+
+    /** Removes all the mappings from this map. */
+    public void clear() {
+
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int indexOf(final int key) {
+
+        int index = hashIndex(key);
+        while (values[index] != null) {
+            if (keys[index] == key) { return index; }
+            index = nextIndex(index);
+        }
+        return -1;
+    }
+
+    private void removeAt(final int removed_index) {
+
+        size--;
+        int gap = removed_index;
+        int index = nextIndex(gap);
+        while (values[index] != null) {
+            final int home = hashIndex(keys[index]);
+            // Shift the entry back into the gap unless its home slot lies cyclically within (gap, index]
+            if ((index - home & mask) >= (index - gap & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = nextIndex(index);
+        }
+        values[gap] = null;
+    }
+
+    private void resize(final int new_capacity) {
+
+        if (new_capacity > MAXIMUM_CAPACITY) { throw new IllegalStateException("maximum capacity exceeded"); }
+
+        final int[] old_keys = keys;
+        final Object[] old_values = values;
+        allocate(new_capacity);
+        for (int i = 0; i < old_values.length; i++) {
+            final Object value = old_values[i];
+            if (value != null) {
+                int index = hashIndex(old_keys[i]);
+                while (values[index] != null) {
+                    index = nextIndex(index);
+                }
+                keys[index] = old_keys[i];
+                values[index] = value;
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private int hashIndex(final int key) {
+
+        final int hash = key * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+
+    private int nextIndex(final int index) {
+
+        return index + 1 & mask;
+    }
+
+    private static int capacityFor(final int expected_size) {
+
+        final int minimum_capacity = Math.max(DEFAULT_INITIAL_CAPACITY, expected_size << 1);
+        if (minimum_capacity >= MAXIMUM_CAPACITY || minimum_capacity < 0) { return MAXIMUM_CAPACITY; }
+        return Integer.highestOneBit(minimum_capacity - 1) << 1;
+    }
+}
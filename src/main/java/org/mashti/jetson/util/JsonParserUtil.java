@@ -106,6 +106,22 @@ public final class JsonParserUtil {
         return readValueAs(parser, expected_type);
     }
 
+    /**
+     * Reads a field and its value as a primitive {@code int} without boxing.
+     * Throws {@link JsonParseException} if the field value is not an integer number.
+     *
+     * @param parser the parser
+     * @param expected_filed_name the expected filed name
+     * @return the value
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static int readIntFieldValue(final JsonParser parser, final String expected_filed_name) throws IOException {
+
+        expectFieldName(parser, expected_filed_name);
+        if (parser.nextToken() != JsonToken.VALUE_NUMBER_INT) { throw new JsonParseException("expected integer value for field " + expected_filed_name, parser.getCurrentLocation()); }
+        return parser.getIntValue();
+    }
+
     /**
      * Reads the values of a JSON array as the proved types.
      *
@@ -31,10 +31,14 @@ import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
 import org.mashti.jetson.exception.RPCException;
@@ -94,6 +98,43 @@ public final class ReflectionUtil {
         return inverse(dispatch);
     }
 
+    /**
+     * Maps methods of the given types to their names.
+     *
+     * @param services the services
+     * @return the map
+     * @see #mapNamesToMethods(Class[])
+     */
+    public static Map<Method, String> mapMethodsToNames(final Class<?>... services) {
+
+        return inverse(mapNamesToMethods(services));
+    }
+
+    /**
+     * Maps names to methods of the given types. If a single type is given, the methods are mapped to the same names as {@link #mapNamesToMethods(Class)}.
+     * If several types are given, the name of each method is qualified by the {@link Class#getSimpleName() simple name} of its type, so that methods of different types can share a name.
+     *
+     * @param services the services
+     * @return the map
+     * @throws IllegalArgumentException if two of the given types have the same simple name, or share a method
+     */
+    public static Map<String, Method> mapNamesToMethods(final Class<?>... services) {
+
+        if (services.length == 1) { return mapNamesToMethods(services[0]); }
+
+        checkDistinctMethods(services);
+        final Map<String, Method> dispatch_map = new HashMap<String, Method>();
+        final Set<String> service_names = new HashSet<String>();
+        for (final Class<?> service : services) {
+            final String service_name = service.getSimpleName();
+            if (!service_names.add(service_name)) { throw new IllegalArgumentException("services must have distinct simple names: " + service_name); }
+            for (final Entry<String, Method> entry : mapNamesToMethods(service).entrySet()) {
+                dispatch_map.put(service_name + '.' + entry.getKey(), entry.getValue());
+            }
+        }
+        return dispatch_map;
+    }
+
     /**
      * Maps names to {@link Class#getMethods() methods} of the given type.
      * If the given type contains overloaded methods, a unique name is mapped to its name. The chosen name is typically the original name with an integer.
@@ -125,6 +166,41 @@ public final class ReflectionUtil {
 
     }
 
+    /**
+     * Maps each of the given methods to its index in the given array.
+     *
+     * @param dispatch the methods
+     * @return the map of methods to their index
+     */
+    public static Map<Method, Integer> mapMethodsToIndices(final Method... dispatch) {
+
+        final Map<Method, Integer> indices = new HashMap<Method, Integer>(dispatch.length * 2);
+        for (int index = 0; index < dispatch.length; index++) {
+            indices.put(dispatch[index], index);
+        }
+        return indices;
+    }
+
+    /**
+     * Gets the {@link #mapNamesToMethods(Class) cached methods} of the given types, sorted in a stable order per type and concatenated in the order of the given types.
+     * Sharing the same method instances lets the dispatch tables of the codecs look methods up by identity.
+     *
+     * @param services the services
+     * @return the sorted cached methods of the given types
+     * @throws IllegalArgumentException if two of the given types share a method
+     */
+    public static Method[] getSortedMethods(final Class<?>... services) {
+
+        checkDistinctMethods(services);
+        final List<Method> methods = new ArrayList<Method>();
+        for (final Class<?> service : services) {
+            final Map<String, Method> dispatch = mapNamesToMethods(service);
+            methods.addAll(Arrays.asList(checkAndSort(dispatch.values()
+                    .toArray(new Method[dispatch.size()]))));
+        }
+        return methods.toArray(new Method[methods.size()]);
+    }
+
     public static Method[] checkAndSort(final Method... methods) {
 
         for (Method method : methods) {
@@ -137,6 +213,24 @@ public final class ReflectionUtil {
         return methods;
     }
 
+    /**
+     * Checks that no two of the given types share a method, such as a method of a common parent interface.
+     * A shared method would be listed once per type, and its calls could not be routed to the service of the type through which it is called.
+     *
+     * @param services the services
+     * @throws IllegalArgumentException if two of the given types share a method
+     */
+    private static void checkDistinctMethods(final Class<?>... services) {
+
+        if (services.length < 2) { return; }
+        final Set<Method> methods = new HashSet<Method>();
+        for (final Class<?> service : services) {
+            for (final Method method : mapNamesToMethods(service).values()) {
+                if (!methods.add(method)) { throw new IllegalArgumentException("services must not share methods: " + method); }
+            }
+        }
+    }
+
     private static Map<Method, String> inverse(final Map<String, Method> dispatch) {
 
         final Map<Method, String> reverse_dispatch = new HashMap<Method, String>();
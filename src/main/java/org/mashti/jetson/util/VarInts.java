@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * Reads and writes variable-width integers, where each byte carries seven bits of the value, least significant group first, and the most significant bit of a byte marks that more bytes follow.
+ * Values are treated as unsigned; a value below {@code 128} takes a single byte and any {@code int} takes at most five bytes.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public final class VarInts {
+
+    /** The maximum number of bytes that a variable-width {@code int} takes. */
+    public static final int MAX_VAR_INT_LENGTH = 5;
+
+    private VarInts() {
+
+    }
+
+    /**
+     * Writes the given value as a variable-width unsigned integer.
+     *
+     * @param out the buffer to write to
+     * @param value the value to write
+     */
+    public static void writeUnsignedInt(final ByteBuf out, final int value) {
+
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte(remaining & 0x7F | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    /**
+     * Reads a variable-width unsigned integer.
+     *
+     * @param in the buffer to read from
+     * @return the value that is read
+     * @throws CorruptedFrameException if the integer is longer than {@link #MAX_VAR_INT_LENGTH five bytes}
+     * @throws IndexOutOfBoundsException if the buffer ends before the integer does
+     */
+    public static int readUnsignedInt(final ByteBuf in) {
+
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_VAR_INT_LENGTH; shift += 7) {
+            final byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) { return value; }
+        }
+        throw new CorruptedFrameException("variable-width integer is longer than " + MAX_VAR_INT_LENGTH + " bytes");
+    }
+
+    /**
+     * Gets the number of bytes that the given value takes as a variable-width unsigned integer.
+     *
+     * @param value the value
+     * @return the number of bytes that the given value takes
+     */
+    public static int getLength(final int value) {
+
+        if ((value & 0xFFFFFF80) == 0) { return 1; }
+        if ((value & 0xFFFFC000) == 0) { return 2; }
+        if ((value & 0xFFE00000) == 0) { return 3; }
+        if ((value & 0xF0000000) == 0) { return 4; }
+        return MAX_VAR_INT_LENGTH;
+    }
+}
@@ -35,7 +35,10 @@ import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.rules.Timeout;
@@ -53,6 +56,7 @@ import org.mashti.jetson.lean.codec.CollectionCodec;
 @RunWith(Parameterized.class)
 public abstract class AbstractTest {
 
+    static final long AWAIT_TIMEOUT_IN_SECONDS = 10;
     private static final Codecs CODECS = new Codecs();
     private static final JsonFactory JSON_FACTORY = new JsonFactory(new ObjectMapper());
     static final ClientFactory<TestService> LEAN_CLIENT_FACTORY = new LeanClientFactory<TestService>(TestService.class, CODECS);
@@ -94,7 +98,7 @@ public abstract class AbstractTest {
     }
 
     final ClientFactory<TestService> client_factory;
-    private final ServerFactory<TestService> server_factory;
+    final ServerFactory<TestService> server_factory;
     @Rule
     public Timeout global_timeout = new Timeout(10 * 60 * 1000);
     protected ExecutorService executor;
@@ -146,4 +150,13 @@ public abstract class AbstractTest {
     }
 
     protected abstract TestService getService();
+
+    static void awaitUntil(final BooleanSupplier condition) throws InterruptedException {
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(AWAIT_TIMEOUT_IN_SECONDS);
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
 }
@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mashti.jetson.exception.InvalidRequestException;
+import org.mashti.jetson.exception.ServerOverloadedException;
+
+public class AdmissionControlTest extends AbstractTest {
+
+    private final BlockingTestService service = new BlockingTestService(client_factory);
+
+    public AdmissionControlTest(final ClientFactory<TestService> client_factory, final ServerFactory<TestService> server_factory) {
+
+        super(client_factory, server_factory);
+    }
+
+    @Test
+    public void testRequestBeyondServerLimitIsRejected() throws Exception {
+
+        server.setMaxInFlightRequests(1);
+        service.hold();
+        final CompletableFuture<String> admitted = client.saySomething();
+        awaitUntil(() -> server.getInFlightRequestCount() == 1);
+
+        try {
+            client.saySomething()
+                    .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+            Assert.fail();
+        }
+        catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ServerOverloadedException);
+        }
+        Assert.assertEquals(1, server.getOverloadedRequestCount());
+
+        service.release("released");
+        Assert.assertEquals("released", admitted.get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        awaitUntil(() -> server.getInFlightRequestCount() == 0);
+        Assert.assertEquals("released", client.saySomething()
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReadingIsSuspendedAtConnectionLimit() throws Exception {
+
+        server.setMaxInFlightRequestsPerConnection(1);
+        service.hold();
+        final CompletableFuture<String> first = client.saySomething();
+        final CompletableFuture<String> second = client.saySomething();
+        awaitUntil(() -> server.getReadSuspensionCount() > 0);
+
+        service.release("released");
+        Assert.assertEquals("released", first.get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals("released", second.get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        awaitUntil(() -> server.getInFlightRequestCount() == 0);
+        Assert.assertEquals(0, server.getOverloadedRequestCount());
+    }
+
+    @Test
+    public void testRequestWithInFlightIdIsRejected() throws Exception {
+
+        final EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        final ChannelHandlerContext context = channel.pipeline()
+                .firstContext();
+        server.notifyChannelActivation(channel);
+        service.hold();
+        try {
+            final FutureResponse<Object> admitted = newRequest(1);
+            final FutureResponse<Object> duplicate = newRequest(1);
+            server.handle(context, admitted);
+            server.handle(context, duplicate);
+
+            try {
+                duplicate.get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+                Assert.fail();
+            }
+            catch (final ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof InvalidRequestException);
+            }
+            Assert.assertFalse(admitted.isDone());
+            Assert.assertEquals(1, server.getInFlightRequestCount());
+
+            service.release("released");
+            Assert.assertEquals("released", admitted.get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals(0, server.getInFlightRequestCount());
+        }
+        finally {
+            server.notifyChannelInactivation(channel);
+            channel.finish();
+        }
+    }
+
+    @Override
+    protected TestService getService() {
+
+        return service;
+    }
+
+    private static FutureResponse<Object> newRequest(final int id) throws NoSuchMethodException {
+
+        final FutureResponse<Object> request = new FutureResponse<Object>(id);
+        request.setMethod(TestService.class.getMethod("saySomething"));
+        return request;
+    }
+}
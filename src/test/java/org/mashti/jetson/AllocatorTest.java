@@ -0,0 +1,134 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mashti.jetson.lean.LeanClientChannelInitializer;
+import org.mashti.jetson.lean.LeanClientFactory;
+import org.mashti.jetson.lean.LeanServerFactory;
+import org.mashti.jetson.lean.codec.Codecs;
+import org.mashti.jetson.util.ReflectionUtil;
+
+import static org.mashti.jetson.AbstractTest.AWAIT_TIMEOUT_IN_SECONDS;
+
+public class AllocatorTest {
+
+    private LeanClientFactory<TestService> client_factory;
+    private LeanServerFactory<TestService> server_factory;
+    private Server server;
+
+    @Before
+    public void setUp() throws Exception {
+
+        client_factory = new LeanClientFactory<TestService>(TestService.class);
+        server_factory = new LeanServerFactory<TestService>(TestService.class);
+        server = server_factory.createServer(new NormalOperationTestService(client_factory));
+        server.setBindAddress(new InetSocketAddress("localhost", 0));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        server.unexpose();
+        client_factory.shutdown();
+        server_factory.shutdown();
+    }
+
+    @Test
+    public void testPooledAllocatorByDefault() throws Exception {
+
+        Assert.assertSame(PooledByteBufAllocator.DEFAULT, client_factory.getAllocator());
+        Assert.assertSame(PooledByteBufAllocator.DEFAULT, server_factory.getAllocator());
+        Assert.assertNotNull(client_factory.getBufferPoolStatistics());
+        Assert.assertNotNull(server_factory.getBufferPoolStatistics());
+    }
+
+    @Test
+    public void testStatisticsOfConfiguredAllocator() throws Exception {
+
+        final PooledByteBufAllocator client_allocator = new PooledByteBufAllocator(true);
+        final PooledByteBufAllocator server_allocator = new PooledByteBufAllocator(true);
+        client_factory.setAllocator(client_allocator);
+        server_factory.setAllocator(server_allocator);
+        server.expose();
+
+        Assert.assertEquals(Integer.valueOf(3), client_factory.get(server.getLocalAddress())
+                .add(1, 2)
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+
+        final BufferPoolStatistics client_statistics = client_factory.getBufferPoolStatistics();
+        final BufferPoolStatistics server_statistics = server_factory.getBufferPoolStatistics();
+        Assert.assertEquals(client_allocator.numDirectArenas(), client_statistics.getDirectArenaCount());
+        Assert.assertTrue(client_statistics.getAllocationCount() > 0);
+        Assert.assertTrue(server_statistics.getAllocationCount() > 0);
+        Assert.assertEquals(1, client_statistics.getPoolHitRatio(), 0);
+    }
+
+    @Test
+    public void testNoStatisticsOfUnpooledAllocator() throws Exception {
+
+        client_factory.setAllocator(UnpooledByteBufAllocator.DEFAULT);
+        Assert.assertSame(UnpooledByteBufAllocator.DEFAULT, client_factory.getAllocator());
+        Assert.assertNull(client_factory.getBufferPoolStatistics());
+    }
+
+    @Test
+    public void testAllocatorOfGivenBootstrapIsKept() throws Exception {
+
+        final PooledByteBufAllocator bootstrap_allocator = new PooledByteBufAllocator(true);
+        final Bootstrap bootstrap = new Bootstrap();
+        bootstrap.group(new NioEventLoopGroup(1));
+        bootstrap.channel(NioSocketChannel.class);
+        bootstrap.handler(new LeanClientChannelInitializer(TestService.class, new Codecs()));
+        bootstrap.option(ChannelOption.ALLOCATOR, bootstrap_allocator);
+        final ClientFactory<TestService> bootstrapped_client_factory = new ClientFactory<TestService>(TestService.class, ReflectionUtil.getSortedMethods(TestService.class), bootstrap);
+        server.expose();
+
+        try {
+            Assert.assertNull(bootstrapped_client_factory.getAllocator());
+            Assert.assertEquals(Integer.valueOf(3), bootstrapped_client_factory.get(server.getLocalAddress())
+                    .add(1, 2)
+                    .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+            Assert.assertTrue(BufferPoolStatistics.of(bootstrap_allocator)
+                    .getAllocationCount() > 0);
+        }
+        finally {
+            bootstrapped_client_factory.shutdown();
+        }
+    }
+}
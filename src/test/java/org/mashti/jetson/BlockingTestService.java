@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mashti.jetson.AbstractTest.AWAIT_TIMEOUT_IN_SECONDS;
+
+/**
+ * A test service that records the thread on which it says something, and holds what it says once it is {@link #hold() told to} until it is {@link #release(String) released}.
+ * Its calls to {@link #sleepForFiveSeconds()} never complete unless they are cancelled.
+ */
+public class BlockingTestService extends NormalOperationTestService {
+
+    private final CountDownLatch received = new CountDownLatch(1);
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private volatile Thread invoking_thread;
+    private volatile CompletableFuture<String> held_response;
+
+    public BlockingTestService(final ClientFactory<TestService> proxy_factory) {
+
+        super(proxy_factory);
+    }
+
+    @Override
+    public CompletableFuture<String> saySomething() {
+
+        invoking_thread = Thread.currentThread();
+        final CompletableFuture<String> held_response = this.held_response;
+        return held_response != null ? held_response : super.saySomething();
+    }
+
+    @Override
+    public CompletableFuture<Void> sleepForFiveSeconds() {
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                cancelled.countDown();
+            }
+        });
+        received.countDown();
+        return future;
+    }
+
+    void hold() {
+
+        held_response = new CompletableFuture<String>();
+    }
+
+    void release(final String response) {
+
+        held_response.complete(response);
+    }
+
+    String getInvokingThreadName() {
+
+        return invoking_thread.getName();
+    }
+
+    boolean awaitReceived() throws InterruptedException {
+
+        return received.await(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+    }
+
+    boolean awaitCancelled() throws InterruptedException {
+
+        return cancelled.await(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+    }
+}
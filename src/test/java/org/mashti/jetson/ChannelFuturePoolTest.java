@@ -0,0 +1,213 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mashti.jetson.lean.LeanClientFactory;
+import org.mashti.jetson.lean.LeanServerChannelInitializer;
+import org.mashti.jetson.lean.LeanServerFactory;
+import org.mashti.jetson.lean.codec.Codecs;
+
+public class ChannelFuturePoolTest {
+
+    private static final int CHANNELS_PER_ENDPOINT = 4;
+    private LeanClientFactory<TestService> client_factory;
+    private LeanServerFactory<TestService> server_factory;
+    private Server server;
+    private InetSocketAddress server_address;
+
+    @Before
+    public void setUp() throws Exception {
+
+        server_factory = new LeanServerFactory<TestService>(TestService.class);
+        client_factory = new LeanClientFactory<TestService>(TestService.class);
+        server = server_factory.createServer(new NormalOperationTestService(client_factory));
+        server.setBindAddress(new InetSocketAddress("localhost", 0));
+        server.expose();
+        server_address = server.getLocalSocketAddress();
+    }
+
+    @Test
+    public void testPrewarm() throws Exception {
+
+        client_factory.setChannelsPerEndpoint(CHANNELS_PER_ENDPOINT);
+        client_factory.setMaxConcurrentConnects(2);
+        client_factory.prewarm(Collections.singleton(server_address))
+                .get(5, TimeUnit.SECONDS);
+
+        final Set<Map.Entry<SocketAddress, ChannelFuture>> entries = client_factory.channel_pool.getPooledEntries();
+        Assert.assertEquals(CHANNELS_PER_ENDPOINT, entries.size());
+        for (final Map.Entry<SocketAddress, ChannelFuture> entry : entries) {
+            Assert.assertTrue(entry.getValue()
+                    .isSuccess());
+        }
+        Assert.assertEquals(CHANNELS_PER_ENDPOINT, countDistinctChannels(2 * CHANNELS_PER_ENDPOINT));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEndpointIsEvicted() throws Exception {
+
+        final Server other_server = server_factory.createServer(new NormalOperationTestService(client_factory));
+        other_server.setBindAddress(new InetSocketAddress("localhost", 0));
+        other_server.expose();
+        try {
+            client_factory.setMaxCachedEndpoints(1);
+            final Channel channel = getPooledChannel();
+            final TestService proxy = client_factory.get(server_address);
+
+            server_address = other_server.getLocalSocketAddress();
+            getPooledChannel();
+
+            Assert.assertTrue(channel.closeFuture()
+                    .await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, client_factory.channel_pool.getPooledEndpointCount());
+            Assert.assertFalse(proxy == client_factory.get(server.getLocalSocketAddress()));
+        }
+        finally {
+            other_server.unexpose();
+        }
+    }
+
+    @Test
+    public void testIdleChannelIsEvicted() throws Exception {
+
+        client_factory.setIdleTimeout(200, TimeUnit.MILLISECONDS);
+        final Channel channel = getPooledChannel();
+        Assert.assertTrue(channel.closeFuture()
+                .await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(client_factory.channel_pool.getPooledEntries()
+                .isEmpty());
+    }
+
+    @Test
+    public void testKeepAliveKeepsQuietChannelOpen() throws Exception {
+
+        final ServerChannelInitializer initializer = new LeanServerChannelInitializer<TestService>(TestService.class, new Codecs());
+        initializer.setReadTimeout(500, TimeUnit.MILLISECONDS);
+        final ServerFactory<TestService> short_timeout_server_factory = new ServerFactory<TestService>(initializer);
+        final Server short_timeout_server = short_timeout_server_factory.createServer(new NormalOperationTestService(client_factory));
+        short_timeout_server.setBindAddress(new InetSocketAddress("localhost", 0));
+        short_timeout_server.expose();
+        try {
+            client_factory.setKeepAliveInterval(100, TimeUnit.MILLISECONDS);
+            server_address = short_timeout_server.getLocalSocketAddress();
+            final Channel channel = getPooledChannel();
+            Assert.assertFalse(channel.closeFuture()
+                    .await(2, TimeUnit.SECONDS));
+            Assert.assertEquals("something", client_factory.get(server_address)
+                    .saySomething()
+                    .get());
+        }
+        finally {
+            short_timeout_server.unexpose();
+            short_timeout_server_factory.shutdown();
+        }
+    }
+
+    @Test
+    public void testSweepIntervalFollowsIdleTimeoutAndKeepAliveInterval() throws Exception {
+
+        client_factory.setIdleTimeout(0, TimeUnit.SECONDS);
+        client_factory.setKeepAliveInterval(0, TimeUnit.SECONDS);
+        getPooledChannel();
+        Assert.assertEquals(0, client_factory.channel_pool.getSweepInterval(TimeUnit.MILLISECONDS));
+
+        client_factory.setKeepAliveInterval(800, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(200, client_factory.channel_pool.getSweepInterval(TimeUnit.MILLISECONDS));
+
+        client_factory.setIdleTimeout(400, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(100, client_factory.channel_pool.getSweepInterval(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+
+        client_factory.setChannelsPerEndpoint(CHANNELS_PER_ENDPOINT);
+        client_factory.setChannelSelectionStrategy(ChannelSelectionStrategy.ROUND_ROBIN);
+        Assert.assertEquals(CHANNELS_PER_ENDPOINT, countDistinctChannels(2 * CHANNELS_PER_ENDPOINT));
+    }
+
+    @Test
+    public void testThreadAffine() throws Exception {
+
+        client_factory.setChannelsPerEndpoint(CHANNELS_PER_ENDPOINT);
+        client_factory.setChannelSelectionStrategy(ChannelSelectionStrategy.THREAD_AFFINE);
+        Assert.assertEquals(1, countDistinctChannels(2 * CHANNELS_PER_ENDPOINT));
+    }
+
+    @Test
+    public void testLeastOutstandingRequests() throws Exception {
+
+        client_factory.setChannelsPerEndpoint(CHANNELS_PER_ENDPOINT);
+        client_factory.setChannelSelectionStrategy(ChannelSelectionStrategy.LEAST_OUTSTANDING_REQUESTS);
+        final TestService client = client_factory.get(server_address);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(Integer.valueOf(i + 1), client.add(i, 1).get());
+        }
+        Assert.assertTrue(client_factory.channel_pool.getPooledEntries().size() <= CHANNELS_PER_ENDPOINT);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        server.unexpose();
+        client_factory.shutdown();
+        server_factory.shutdown();
+    }
+
+    private int countDistinctChannels(final int calls) throws Exception {
+
+        final Set<ChannelFuture> channels = new HashSet<ChannelFuture>();
+        for (int i = 0; i < calls; i++) {
+            channels.add(client_factory.channel_pool.get(server_address));
+        }
+        final TestService client = client_factory.get(server_address);
+        Assert.assertEquals("something", client.saySomething().get());
+        return channels.size();
+    }
+
+    private Channel getPooledChannel() throws Exception {
+
+        Assert.assertEquals("something", client_factory.get(server_address)
+                .saySomething()
+                .get());
+        return client_factory.channel_pool.get(server_address)
+                .channel();
+    }
+}
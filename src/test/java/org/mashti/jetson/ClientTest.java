@@ -26,6 +26,7 @@
  */
 package org.mashti.jetson;
 
+import java.lang.reflect.Proxy;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -63,4 +64,21 @@ public class ClientTest {
         service.saySomething().get();
         Assert.fail();
     }
+
+    @Test
+    public void testGeneratedStubIsUsedInPlaceOfProxy() {
+
+        final TestService service = client_factory.get(new InetSocketAddress(55555));
+        Assert.assertTrue(service instanceof ClientStub);
+        Assert.assertFalse(Proxy.isProxyClass(service.getClass()));
+    }
+
+    @Test
+    public void testStubClassIsSharedByFactoriesOfSameDispatch() {
+
+        final InetSocketAddress address = new InetSocketAddress(55555);
+        Assert.assertSame(AbstractTest.LEAN_CLIENT_FACTORY.get(address)
+                .getClass(), AbstractTest.JSON_CLIENT_FACTORY.get(address)
+                .getClass());
+    }
 }
@@ -0,0 +1,100 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExecutionOffloadTest extends AbstractTest {
+
+    private final BlockingTestService service = new BlockingTestService(client_factory);
+
+    public ExecutionOffloadTest(final ClientFactory<TestService> client_factory, final ServerFactory<TestService> server_factory) {
+
+        super(client_factory, server_factory);
+    }
+
+    @Test
+    public void testInlineExecutionRunsOnEventLoop() throws Exception {
+
+        Assert.assertTrue(saySomethingOnServer().startsWith("server_child_event_loop_"));
+    }
+
+    @Test
+    public void testWorkerPoolExecutionRunsOffEventLoop() throws Exception {
+
+        server.setExecutionPolicy(ExecutionPolicy.WORKER_POOL);
+        Assert.assertTrue(saySomethingOnServer().startsWith("server_worker_"));
+    }
+
+    @Test
+    public void testForkJoinExecutionRunsOffEventLoop() throws Exception {
+
+        server.setExecutionPolicy(ExecutionPolicy.FORK_JOIN);
+        Assert.assertFalse(saySomethingOnServer().startsWith("server_child_event_loop_"));
+    }
+
+    @Test
+    public void testVirtualThreadExecutionRunsOffEventLoop() throws Exception {
+
+        server.setExecutionPolicy(ExecutionPolicy.VIRTUAL_THREAD);
+        final String expected_thread_name_prefix = RequestExecutor.isVirtualThreadSupported() ? "server_virtual_" : "server_worker_";
+        Assert.assertTrue(saySomethingOnServer().startsWith(expected_thread_name_prefix));
+    }
+
+    @Test
+    public void testOwnExecutorIsShutDownWhenUnexposed() throws Exception {
+
+        final Server owning_server = new Server(server_factory.server_bootstrap, getService(), server_factory.service_invoker);
+        owning_server.expose();
+        final CompletableFuture<Thread> worker = new CompletableFuture<Thread>();
+        owning_server.getRequestExecutor()
+                .execute(ExecutionPolicy.WORKER_POOL, () -> worker.complete(Thread.currentThread()));
+        final Thread worker_thread = worker.get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+
+        owning_server.unexpose();
+        worker_thread.join(TimeUnit.SECONDS.toMillis(AWAIT_TIMEOUT_IN_SECONDS));
+        Assert.assertFalse(worker_thread.isAlive());
+        Assert.assertNotSame(server_factory.getRequestExecutor(), owning_server.getRequestExecutor());
+        Assert.assertSame(server_factory.getRequestExecutor(), server.getRequestExecutor());
+    }
+
+    @Override
+    protected TestService getService() {
+
+        return service;
+    }
+
+    private String saySomethingOnServer() throws Exception {
+
+        Assert.assertEquals("something", client.saySomething()
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        return service.getInvokingThreadName();
+    }
+}
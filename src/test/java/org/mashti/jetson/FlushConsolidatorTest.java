@@ -0,0 +1,132 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mashti.jetson.lean.LeanClientFactory;
+import org.mashti.jetson.lean.LeanServerFactory;
+
+public class FlushConsolidatorTest {
+
+    private static final int CALL_COUNT = 1000;
+    private static final int CALLER_COUNT = 4;
+    private LeanClientFactory<TestService> client_factory;
+    private LeanServerFactory<TestService> server_factory;
+    private Server server;
+    private TestService client;
+
+    @Before
+    public void setUp() throws Exception {
+
+        server_factory = new LeanServerFactory<TestService>(TestService.class);
+        client_factory = new LeanClientFactory<TestService>(TestService.class);
+        server = server_factory.createServer(new NormalOperationTestService(client_factory));
+        server.setBindAddress(new InetSocketAddress("localhost", 0));
+        server.expose();
+        client = client_factory.get(server.getLocalSocketAddress());
+    }
+
+    @Test
+    public void testConsolidatedFlush() throws Exception {
+
+        final FlushConsolidator flush_consolidator = client_factory.getFlushConsolidator();
+        flush_consolidator.setMaxBatchSize(16);
+        flush_consolidator.setMaxDelay(100, TimeUnit.MICROSECONDS);
+        flush_consolidator.setEnabled(true);
+        assertConcurrentCalls();
+
+        Assert.assertEquals(CALL_COUNT, flush_consolidator.getFlushedRequestCount());
+        Assert.assertTrue(flush_consolidator.getFlushCount() <= CALL_COUNT);
+        Assert.assertTrue(flush_consolidator.getMaxFlushedBatchSize() <= 16);
+        Assert.assertTrue(flush_consolidator.getAverageBatchSize() >= 1);
+    }
+
+    @Test
+    public void testConsolidatedFlushFromConcurrentCallers() throws Exception {
+
+        final FlushConsolidator flush_consolidator = client_factory.getFlushConsolidator();
+        flush_consolidator.setEnabled(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLER_COUNT);
+        try {
+            final List<Future<?>> callers = new ArrayList<Future<?>>();
+            for (int i = 0; i < CALLER_COUNT; i++) {
+                callers.add(executor.submit(() -> {
+                    assertConcurrentCalls();
+                    return null;
+                }));
+            }
+            for (final Future<?> caller : callers) {
+                caller.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(CALL_COUNT * CALLER_COUNT, flush_consolidator.getFlushedRequestCount());
+        Assert.assertTrue(flush_consolidator.getMaxFlushedBatchSize() <= flush_consolidator.getMaxBatchSize());
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+
+        final FlushConsolidator flush_consolidator = client_factory.getFlushConsolidator();
+        Assert.assertFalse(flush_consolidator.isEnabled());
+        assertConcurrentCalls();
+        Assert.assertEquals(0, flush_consolidator.getFlushCount());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        server.unexpose();
+        client_factory.shutdown();
+        server_factory.shutdown();
+    }
+
+    private void assertConcurrentCalls() throws Exception {
+
+        final List<CompletableFuture<Integer>> results = new ArrayList<CompletableFuture<Integer>>();
+        for (int i = 0; i < CALL_COUNT; i++) {
+            results.add(client.add(i, 1));
+        }
+        for (int i = 0; i < CALL_COUNT; i++) {
+            Assert.assertEquals(Integer.valueOf(i + 1), results.get(i).get());
+        }
+    }
+}
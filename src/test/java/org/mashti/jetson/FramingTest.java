@@ -0,0 +1,148 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.mashti.jetson.json.JsonClientFactory;
+import org.mashti.jetson.json.JsonServerFactory;
+import org.mashti.jetson.lean.LeanClientFactory;
+import org.mashti.jetson.lean.LeanServerFactory;
+import org.mashti.jetson.lean.codec.Codecs;
+
+import static org.mashti.jetson.AbstractTest.AWAIT_TIMEOUT_IN_SECONDS;
+
+@RunWith(Parameterized.class)
+public class FramingTest {
+
+    private static final int MAX_FRAME_LENGTH = 4 * 1024 * 1024;
+    private final ClientFactory<EchoService> client_factory;
+    private final ServerFactory<EchoService> server_factory;
+    private Server server;
+    private EchoService client;
+
+    public interface EchoService {
+
+        CompletableFuture<String> echo(String text);
+    }
+
+    public FramingTest(final Framing framing, final ClientFactory<EchoService> client_factory, final ServerFactory<EchoService> server_factory) {
+
+        this.client_factory = client_factory;
+        this.server_factory = server_factory;
+    }
+
+    @Parameterized.Parameters(name = "{index} - {0}, client: {1}, server: {2}")
+    public static Collection<Object[]> getParameters() {
+
+        final Codecs codecs = new Codecs();
+        final JsonFactory json_factory = new JsonFactory(new ObjectMapper());
+        final Collection<Object[]> parameters = new ArrayList<Object[]>();
+        for (final Framing framing : Arrays.asList(Framing.varint(MAX_FRAME_LENGTH), Framing.fixed(4, MAX_FRAME_LENGTH))) {
+            parameters.add(new Object[] {framing, new LeanClientFactory<EchoService>(EchoService.class, codecs, framing), new LeanServerFactory<EchoService>(EchoService.class, codecs, framing)});
+            parameters.add(new Object[] {framing, new JsonClientFactory<EchoService>(EchoService.class, json_factory, framing), new JsonServerFactory<EchoService>(EchoService.class, json_factory, framing)});
+        }
+        return parameters;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+
+        server = server_factory.createServer(CompletableFuture::completedFuture);
+        server.setBindAddress(new InetSocketAddress("localhost", 0));
+        server.expose();
+        client = client_factory.get(server.getLocalSocketAddress());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        server.unexpose();
+    }
+
+    @Test
+    public void testSmallMessage() throws Exception {
+
+        Assert.assertEquals("hello", client.echo("hello")
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testMessageLargerThanShortLengthField() throws Exception {
+
+        final String text = repeat('x', 1024 * 1024);
+        Assert.assertEquals(text, client.echo(text)
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testMessageLargerThanMaxFrameLengthFails() throws Exception {
+
+        client.echo(repeat('x', MAX_FRAME_LENGTH + 1))
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testFramingValidation() throws Exception {
+
+        Assert.assertEquals(Framing.fixed(2, 0xFFFF), Framing.DEFAULT);
+        assertIllegal(() -> Framing.fixed(2, 0x10000));
+        assertIllegal(() -> Framing.fixed(5, 1));
+        assertIllegal(() -> Framing.varint(0));
+    }
+
+    private static void assertIllegal(final Runnable construction) {
+
+        try {
+            construction.run();
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static String repeat(final char character, final int count) {
+
+        final char[] characters = new char[count];
+        Arrays.fill(characters, character);
+        return new String(characters);
+    }
+}
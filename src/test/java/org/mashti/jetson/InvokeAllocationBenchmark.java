@@ -0,0 +1,118 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import org.mashti.jetson.json.JsonClientFactory;
+import org.mashti.jetson.json.JsonServerFactory;
+import org.mashti.jetson.lean.LeanClientFactory;
+import org.mashti.jetson.lean.LeanServerFactory;
+
+/**
+ * Measures the heap allocated per remote call, across all the threads of the JVM, over a loopback connection.
+ * The measurement includes both the client and the server side of each call, and is reported separately for the invoking thread, which shows the allocations of the proxy invoke path alone.
+ * Run with {@code java -cp <test classpath> org.mashti.jetson.InvokeAllocationBenchmark [calls]}.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public final class InvokeAllocationBenchmark {
+
+    private static final int DEFAULT_CALLS = 200000;
+    private static final int BATCH_SIZE = 100;
+
+    private InvokeAllocationBenchmark() {
+
+    }
+
+    public static void main(final String[] args) throws Exception {
+
+        final int calls = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CALLS;
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        run("lean", new LeanClientFactory<TestService>(TestService.class), new LeanServerFactory<TestService>(TestService.class), calls, threads);
+        final JsonFactory json_factory = new JsonFactory(new ObjectMapper());
+        run("json", new JsonClientFactory<TestService>(TestService.class, json_factory), new JsonServerFactory<TestService>(TestService.class, json_factory), calls, threads);
+    }
+
+    private static void run(final String name, final ClientFactory<TestService> client_factory, final ServerFactory<TestService> server_factory, final int calls, final ThreadMXBean threads) throws Exception {
+
+        final Server server = server_factory.createServer(new NormalOperationTestService(client_factory));
+        server.setBindAddress(new InetSocketAddress("localhost", 0));
+        server.expose();
+        try {
+            final TestService service = client_factory.get(server.getLocalSocketAddress());
+            call(service, calls);
+
+            final long thread_id = Thread.currentThread().getId();
+            final long invoker_before = threads.getThreadAllocatedBytes(thread_id);
+            final long total_before = getTotalAllocatedBytes(threads);
+            final long start = System.nanoTime();
+            call(service, calls);
+            final long elapsed = System.nanoTime() - start;
+            final long total_after = getTotalAllocatedBytes(threads);
+            final long invoker_after = threads.getThreadAllocatedBytes(thread_id);
+
+            System.out.printf("%s: %d calls, %.1f bytes/call on the invoking thread, %.1f bytes/call in total, %.2f us/call%n", name, calls, (double) (invoker_after - invoker_before) / calls, (double) (total_after - total_before) / calls, elapsed / 1000.0 / calls);
+        }
+        finally {
+            server.unexpose();
+            server_factory.shutdown();
+            client_factory.shutdown();
+        }
+    }
+
+    private static void call(final TestService service, final int calls) {
+
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<Integer>[] batch = new CompletableFuture[BATCH_SIZE];
+        for (int i = 0; i < calls; i += BATCH_SIZE) {
+            for (int j = 0; j < BATCH_SIZE; j++) {
+                batch[j] = service.say65535();
+            }
+            for (int j = 0; j < BATCH_SIZE; j++) {
+                batch[j].join();
+            }
+        }
+    }
+
+    private static long getTotalAllocatedBytes(final ThreadMXBean threads) {
+
+        long total = 0;
+        for (final long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+}
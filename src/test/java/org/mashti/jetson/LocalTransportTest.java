@@ -0,0 +1,139 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.channel.local.LocalAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mashti.jetson.exception.TransportException;
+import org.mashti.jetson.lean.LeanClientFactory;
+import org.mashti.jetson.lean.LeanServerFactory;
+import org.mashti.jetson.lean.codec.Codecs;
+
+import static org.mashti.jetson.AbstractTest.AWAIT_TIMEOUT_IN_SECONDS;
+
+public class LocalTransportTest {
+
+    private static final Class<?>[] SERVICE_TYPES = {EchoService.class};
+    private LeanClientFactory<EchoService> client_factory;
+    private LeanServerFactory<EchoService> server_factory;
+    private Server server;
+    private EchoService client;
+    private final CompletableFuture<Void> held_response = new CompletableFuture<Void>();
+
+    public interface EchoService {
+
+        CompletableFuture<String[]> echo(String[] values);
+
+        CompletableFuture<Void> hold();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+
+        final Codecs codecs = new Codecs();
+        client_factory = new LeanClientFactory<EchoService>(SERVICE_TYPES, codecs, Framing.DEFAULT, Transport.LOCAL);
+        server_factory = new LeanServerFactory<EchoService>(SERVICE_TYPES, codecs, Framing.DEFAULT, Transport.LOCAL);
+        server = server_factory.createServer(new EchoService() {
+
+            @Override
+            public CompletableFuture<String[]> echo(final String[] values) {
+
+                return CompletableFuture.completedFuture(values);
+            }
+
+            @Override
+            public CompletableFuture<Void> hold() {
+
+                return held_response;
+            }
+        });
+        server.setBindAddress(LocalAddress.ANY);
+        server.expose();
+        client = client_factory.get(server.getLocalAddress());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        server.unexpose();
+        client_factory.shutdown();
+        server_factory.shutdown();
+    }
+
+    @Test
+    public void testCallOverLocalChannelCopiesArguments() throws Exception {
+
+        final String[] values = {"a", "b"};
+        final String[] echoed = client.echo(values)
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        Assert.assertArrayEquals(values, echoed);
+        Assert.assertNotSame(values, echoed);
+    }
+
+    @Test
+    public void testDirectDispatchPassesArgumentsByReference() throws Exception {
+
+        client_factory.setDirectDispatchEnabled(true);
+        final String[] values = {"a", "b"};
+        Assert.assertSame(values, client.echo(values)
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDirectDispatchIsSubjectToAdmissionControl() throws Exception {
+
+        client_factory.setDirectDispatchEnabled(true);
+        server.setMaxInFlightRequests(1);
+        Assert.assertEquals(1, client.echo(new String[] {"a"})
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS).length);
+        Assert.assertEquals(0, server.getInFlightRequestCount());
+    }
+
+    @Test
+    public void testOutstandingDirectCallIsAbandonedWhenServerIsUnexposed() throws Exception {
+
+        client_factory.setDirectDispatchEnabled(true);
+        final CompletableFuture<Void> outstanding = client.hold();
+        server.unexpose();
+
+        try {
+            outstanding.get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+            Assert.fail();
+        }
+        catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TransportException);
+        }
+        Assert.assertTrue(held_response.isCancelled());
+        Assert.assertEquals(0, server.getInFlightRequestCount());
+    }
+}
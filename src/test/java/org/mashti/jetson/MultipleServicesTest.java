@@ -0,0 +1,204 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.mashti.jetson.exception.MethodNotFoundException;
+import org.mashti.jetson.json.JsonClientFactory;
+import org.mashti.jetson.json.JsonServerFactory;
+import org.mashti.jetson.lean.LeanClientFactory;
+import org.mashti.jetson.lean.LeanServerFactory;
+import org.mashti.jetson.lean.codec.Codecs;
+import org.mashti.jetson.util.ReflectionUtil;
+
+import static org.mashti.jetson.AbstractTest.AWAIT_TIMEOUT_IN_SECONDS;
+
+@RunWith(Parameterized.class)
+public class MultipleServicesTest {
+
+    private static final Class<?>[] SERVICE_TYPES = {TestService.class, EchoService.class};
+    private final ClientFactory<Object> client_factory;
+    private final ServerFactory<Object> server_factory;
+    private ServiceRegistry services;
+    private Server server;
+    private InetSocketAddress server_address;
+
+    public interface EchoService {
+
+        CompletableFuture<String> echo(String text);
+
+        CompletableFuture<String> saySomething();
+    }
+
+    public interface PingService {
+
+        CompletableFuture<String> ping();
+    }
+
+    public interface FirstPingService extends PingService {
+
+    }
+
+    public interface SecondPingService extends PingService {
+
+    }
+
+    public MultipleServicesTest(final ClientFactory<Object> client_factory, final ServerFactory<Object> server_factory) {
+
+        this.client_factory = client_factory;
+        this.server_factory = server_factory;
+    }
+
+    @Parameterized.Parameters(name = "{index} -  client:{0}, server: {1}")
+    public static Collection<Object[]> getParameters() {
+
+        final Codecs codecs = new Codecs();
+        final JsonFactory json_factory = new JsonFactory(new ObjectMapper());
+        final Collection<Object[]> parameters = new ArrayList<Object[]>();
+        parameters.add(new Object[] {new LeanClientFactory<Object>(SERVICE_TYPES, codecs), new LeanServerFactory<Object>(SERVICE_TYPES, codecs)});
+        parameters.add(new Object[] {new JsonClientFactory<Object>(SERVICE_TYPES, json_factory), new JsonServerFactory<Object>(SERVICE_TYPES, json_factory)});
+        return parameters;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+
+        services = new ServiceRegistry();
+        services.register(TestService.class, new NormalOperationTestService(null));
+        services.register(EchoService.class, new EchoService() {
+
+            @Override
+            public CompletableFuture<String> echo(final String text) {
+
+                return CompletableFuture.completedFuture(text);
+            }
+
+            @Override
+            public CompletableFuture<String> saySomething() {
+
+                return CompletableFuture.completedFuture("echo");
+            }
+        });
+
+        server = server_factory.createServer(services);
+        server.setBindAddress(new InetSocketAddress("localhost", 0));
+        server.expose();
+        server_address = server.getLocalSocketAddress();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        server.unexpose();
+    }
+
+    @Test
+    public void testServicesShareConnection() throws Exception {
+
+        final TestService test_service = client_factory.get(server_address, TestService.class);
+        final EchoService echo_service = client_factory.get(server_address, EchoService.class);
+
+        Assert.assertEquals(Integer.valueOf(3), test_service.add(1, 2)
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        final int pooled_endpoint_count = client_factory.channel_pool.getPooledEndpointCount();
+        Assert.assertEquals("hello", echo_service.echo("hello")
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(pooled_endpoint_count, client_factory.channel_pool.getPooledEndpointCount());
+    }
+
+    @Test
+    public void testMethodsWithSameNameAreDispatchedToTheirOwnService() throws Exception {
+
+        Assert.assertEquals("something", client_factory.get(server_address, TestService.class)
+                .saySomething()
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals("echo", client_factory.get(server_address, EchoService.class)
+                .saySomething()
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCallToUnregisteredServiceFails() throws Exception {
+
+        services.unregister(TestService.class);
+        try {
+            client_factory.get(server_address, TestService.class)
+                    .saySomething()
+                    .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+            Assert.fail();
+        }
+        catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof MethodNotFoundException);
+        }
+        Assert.assertEquals("hello", client_factory.get(server_address, EchoService.class)
+                .echo("hello")
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testServicesThatShareMethodsAreRejected() throws Exception {
+
+        final FirstPingService first_service = () -> CompletableFuture.completedFuture("first");
+        final SecondPingService second_service = () -> CompletableFuture.completedFuture("second");
+        services.register(FirstPingService.class, first_service);
+        try {
+            services.register(SecondPingService.class, second_service);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertSame(first_service, services.getService(PingService.class.getMethod("ping")));
+        }
+
+        services.unregister(SecondPingService.class);
+        Assert.assertSame(first_service, services.getService(PingService.class.getMethod("ping")));
+        services.unregister(FirstPingService.class);
+        services.register(SecondPingService.class, second_service);
+        Assert.assertSame(second_service, services.getService(PingService.class.getMethod("ping")));
+
+        try {
+            ReflectionUtil.getSortedMethods(FirstPingService.class, SecondPingService.class);
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage()
+                    .contains("ping"));
+        }
+    }
+}
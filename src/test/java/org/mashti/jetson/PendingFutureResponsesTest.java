@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PendingFutureResponsesTest {
+
+    @Test
+    public void testAddAndRemove() throws Exception {
+
+        final PendingFutureResponses responses = new PendingFutureResponses();
+        final FutureResponse<?> first = new FutureResponse<Object>();
+        final FutureResponse<?> second = new FutureResponse<Object>();
+        final int first_id = responses.add(first);
+        final int second_id = responses.add(second);
+
+        Assert.assertFalse(first_id == second_id);
+        Assert.assertSame(first, responses.get(first_id));
+        Assert.assertSame(second, responses.get(second_id));
+        Assert.assertFalse(responses.remove(first_id, second));
+        Assert.assertTrue(responses.remove(first_id, first));
+        Assert.assertNull(responses.get(first_id));
+        Assert.assertEquals(1, responses.size());
+    }
+
+    @Test
+    public void testIdWrapAround() throws Exception {
+
+        final PendingFutureResponses responses = new PendingFutureResponses(Integer.MAX_VALUE);
+        Assert.assertEquals(Integer.MAX_VALUE, responses.add(new FutureResponse<Object>()));
+        Assert.assertEquals(Integer.MIN_VALUE, responses.add(new FutureResponse<Object>()));
+
+        final PendingFutureResponses wrapping = new PendingFutureResponses(-1);
+        Assert.assertEquals(-1, wrapping.add(new FutureResponse<Object>()));
+        Assert.assertEquals(0, wrapping.add(new FutureResponse<Object>()));
+    }
+
+    @Test
+    public void testPendingIdIsSkippedAfterWrapAround() throws Exception {
+
+        final PendingFutureResponses responses = new PendingFutureResponses(Integer.MAX_VALUE);
+        final FutureResponse<?> in_flight = new FutureResponse<Object>();
+        Assert.assertEquals(Integer.MAX_VALUE, responses.add(in_flight));
+        Assert.assertEquals(Integer.MIN_VALUE, responses.getNextId());
+
+        // Bring the counter around the whole id space back to the id that is still in flight.
+        responses.setNextId(Integer.MAX_VALUE);
+        final FutureResponse<?> next = new FutureResponse<Object>();
+        final int next_id = responses.add(next);
+
+        Assert.assertEquals(Integer.MIN_VALUE, next_id);
+        Assert.assertSame(in_flight, responses.get(Integer.MAX_VALUE));
+        Assert.assertSame(next, responses.get(next_id));
+        Assert.assertEquals(2, responses.size());
+    }
+}
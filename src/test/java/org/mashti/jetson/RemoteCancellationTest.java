@@ -0,0 +1,67 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RemoteCancellationTest extends AbstractTest {
+
+    private final BlockingTestService service = new BlockingTestService(client_factory);
+
+    public RemoteCancellationTest(final ClientFactory<TestService> client_factory, final ServerFactory<TestService> server_factory) {
+
+        super(client_factory, server_factory);
+    }
+
+    @Test
+    public void testCancellationPropagatesToServer() throws Exception {
+
+        final CompletableFuture<Void> future = client.sleepForFiveSeconds();
+        Assert.assertTrue(service.awaitReceived());
+
+        future.cancel(true);
+        Assert.assertTrue(service.awaitCancelled());
+    }
+
+    @Test
+    public void testClientRemainsUsableAfterCancellation() throws Exception {
+
+        client.sleepForFiveSeconds()
+                .cancel(true);
+        Assert.assertEquals("something", client.saySomething()
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Override
+    protected TestService getService() {
+
+        return service;
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mashti.jetson.AbstractTest.AWAIT_TIMEOUT_IN_SECONDS;
+
+public class RequestExecutorTest {
+
+    private final RequestExecutor executor = new RequestExecutor();
+
+    @Execution(ExecutionPolicy.FORK_JOIN)
+    @Priority(5)
+    public interface AnnotatedService {
+
+        @Execution(ExecutionPolicy.WORKER_POOL)
+        @Priority(10)
+        CompletableFuture<Void> annotated();
+
+        CompletableFuture<Void> inherited();
+    }
+
+    public interface PlainService {
+
+        CompletableFuture<Void> plain();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPolicyResolution() throws Exception {
+
+        final Method annotated = AnnotatedService.class.getMethod("annotated");
+        final Method inherited = AnnotatedService.class.getMethod("inherited");
+        final Method plain = PlainService.class.getMethod("plain");
+
+        Assert.assertEquals(ExecutionPolicy.WORKER_POOL, executor.getPolicy(annotated, ExecutionPolicy.INLINE));
+        Assert.assertEquals(ExecutionPolicy.FORK_JOIN, executor.getPolicy(inherited, ExecutionPolicy.INLINE));
+        Assert.assertEquals(ExecutionPolicy.INLINE, executor.getPolicy(plain, ExecutionPolicy.INLINE));
+        Assert.assertEquals(ExecutionPolicy.WORKER_POOL, executor.getPolicy(plain, ExecutionPolicy.WORKER_POOL));
+    }
+
+    @Test
+    public void testPriorityResolution() throws Exception {
+
+        Assert.assertEquals(10, executor.getPriority(AnnotatedService.class.getMethod("annotated")));
+        Assert.assertEquals(5, executor.getPriority(AnnotatedService.class.getMethod("inherited")));
+        Assert.assertEquals(Priority.NORMAL, executor.getPriority(PlainService.class.getMethod("plain")));
+    }
+
+    @Test
+    public void testQueuedTasksRunInPriorityOrder() throws Exception {
+
+        executor.setWorkerPool(1, 8);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(ExecutionPolicy.WORKER_POOL, () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        Assert.assertTrue(started.await(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+
+        final List<String> execution_order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch completed = new CountDownLatch(4);
+        executor.execute(ExecutionPolicy.WORKER_POOL, Priority.NORMAL, () -> {
+            execution_order.add("normal_1");
+            completed.countDown();
+        });
+        executor.execute(ExecutionPolicy.WORKER_POOL, -1, () -> {
+            execution_order.add("low");
+            completed.countDown();
+        });
+        executor.execute(ExecutionPolicy.WORKER_POOL, 1, () -> {
+            execution_order.add("high");
+            completed.countDown();
+        });
+        executor.execute(ExecutionPolicy.WORKER_POOL, Priority.NORMAL, () -> {
+            execution_order.add("normal_2");
+            completed.countDown();
+        });
+        release.countDown();
+
+        Assert.assertTrue(completed.await(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("high", "normal_1", "normal_2", "low"), execution_order);
+    }
+
+    @Test
+    public void testVirtualThreadTasksQueueOnWorkerPoolWhenUnavailable() throws Exception {
+
+        executor.disableVirtualThreads();
+        executor.setWorkerPool(1, 8);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(ExecutionPolicy.VIRTUAL_THREAD, () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        Assert.assertTrue(started.await(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+
+        final List<String> execution_order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch completed = new CountDownLatch(3);
+        executor.execute(ExecutionPolicy.VIRTUAL_THREAD, Priority.NORMAL, () -> {
+            execution_order.add("normal");
+            completed.countDown();
+        });
+        executor.execute(ExecutionPolicy.WORKER_POOL, -1, () -> {
+            execution_order.add("low");
+            completed.countDown();
+        });
+        executor.execute(ExecutionPolicy.VIRTUAL_THREAD, 1, () -> {
+            execution_order.add("high");
+            completed.countDown();
+        });
+        Assert.assertEquals(3, executor.getWorkerPoolQueueDepth());
+        release.countDown();
+
+        Assert.assertTrue(completed.await(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("high", "normal", "low"), execution_order);
+    }
+
+    @Test
+    public void testInlineTaskRunsOnCallingThread() throws Exception {
+
+        final Thread[] executing_thread = new Thread[1];
+        executor.execute(ExecutionPolicy.INLINE, () -> executing_thread[0] = Thread.currentThread());
+        Assert.assertSame(Thread.currentThread(), executing_thread[0]);
+    }
+
+    @Test
+    public void testFullWorkerQueueRejectsTasks() throws Exception {
+
+        executor.setWorkerPool(1, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(ExecutionPolicy.WORKER_POOL, () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        Assert.assertTrue(started.await(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+        executor.execute(ExecutionPolicy.WORKER_POOL, () -> {});
+        Assert.assertEquals(1, executor.getWorkerPoolQueueDepth());
+        Assert.assertEquals(1, executor.getWorkerPoolActiveCount());
+
+        try {
+            executor.execute(ExecutionPolicy.WORKER_POOL, () -> {});
+            Assert.fail();
+        }
+        catch (final RejectedExecutionException e) {
+            Assert.assertEquals(1, executor.getRejectedCount());
+        }
+        finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testExecutorIsReusableAfterShutdown() throws Exception {
+
+        final CountDownLatch executed = new CountDownLatch(2);
+        executor.execute(ExecutionPolicy.WORKER_POOL, executed::countDown);
+        executor.shutdown();
+        executor.execute(ExecutionPolicy.WORKER_POOL, executed::countDown);
+        Assert.assertTrue(executed.await(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+
+        try {
+            latch.await(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import org.mashti.jetson.util.ReflectionUtil;
+
+/**
+ * Compares the cost of invoking service methods through a {@link ReflectiveServiceInvoker reflective invoker} with that of a {@link ServiceInvokerGenerator generated invoker},
+ * which invokes the methods by their dispatch indices as the server does for decoded requests.
+ * The benchmarked service completes its futures immediately, so that the measurement is dominated by the invokers rather than by the service.
+ * Run with {@code java -cp <test classpath> org.mashti.jetson.ServiceInvokerBenchmark [invocations]}.
+ *
+ * @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk)
+ */
+public final class ServiceInvokerBenchmark {
+
+    private static final int DEFAULT_INVOCATIONS = 10000000;
+    private static final int ROUNDS = 5;
+    private static final CompletableFuture<Integer> COMPLETED = CompletableFuture.completedFuture(65535);
+
+    private ServiceInvokerBenchmark() {
+
+    }
+
+    public static void main(final String[] args) throws Throwable {
+
+        final int invocations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_INVOCATIONS;
+        final BenchmarkService service = new BenchmarkService() {
+
+            @Override
+            public CompletableFuture<Integer> say65535() {
+
+                return COMPLETED;
+            }
+
+            @Override
+            public CompletableFuture<Integer> sum(final String text, final Integer integer, final char character, final long number) {
+
+                return COMPLETED;
+            }
+        };
+        final Method[] dispatch = ReflectionUtil.getSortedMethods(BenchmarkService.class);
+        final int say65535 = indexOf(dispatch, "say65535");
+        final int sum = indexOf(dispatch, "sum");
+        final Object[] sum_arguments = {"text", 1, 'c', 2L};
+
+        final GeneratedServiceInvoker generated = ServiceInvokerGenerator.getInvoker(dispatch);
+        if (generated == null) { throw new IllegalStateException("invoker was not generated"); }
+        for (int round = 0; round < ROUNDS; round++) {
+            runReflective("reflective say65535", service, dispatch[say65535], null, invocations);
+            runGenerated("generated say65535", generated, service, say65535, null, invocations);
+            runReflective("reflective sum", service, dispatch[sum], sum_arguments, invocations);
+            runGenerated("generated sum", generated, service, sum, sum_arguments, invocations);
+        }
+    }
+
+    private static void runReflective(final String name, final Object service, final Method method, final Object[] arguments, final int invocations) throws Throwable {
+
+        int checksum = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < invocations; i++) {
+            checksum += ReflectiveServiceInvoker.INSTANCE.invoke(service, method, arguments)
+                    .hashCode();
+        }
+        report(name, invocations, System.nanoTime() - start, checksum);
+    }
+
+    private static void runGenerated(final String name, final GeneratedServiceInvoker invoker, final Object service, final int index, final Object[] arguments, final int invocations) throws Throwable {
+
+        int checksum = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < invocations; i++) {
+            checksum += invoker.invoke(service, index, arguments)
+                    .hashCode();
+        }
+        report(name, invocations, System.nanoTime() - start, checksum);
+    }
+
+    private static void report(final String name, final int invocations, final long elapsed, final int checksum) {
+
+        System.out.printf("%s: %d invocations, %.1f ns/invocation (checksum %d)%n", name, invocations, (double) elapsed / invocations, checksum);
+    }
+
+    private static int indexOf(final Method[] dispatch, final String name) {
+
+        for (int index = 0; index < dispatch.length; index++) {
+            if (dispatch[index].getName().equals(name)) { return index; }
+        }
+        throw new IllegalArgumentException("no method named " + name);
+    }
+
+    /** The service whose methods are invoked by the benchmark. */
+    public interface BenchmarkService {
+
+        CompletableFuture<Integer> say65535();
+
+        CompletableFuture<Integer> sum(String text, Integer integer, char character, long number);
+    }
+}
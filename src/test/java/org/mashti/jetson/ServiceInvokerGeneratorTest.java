@@ -0,0 +1,161 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mashti.jetson.exception.IllegalArgumentException;
+import org.mashti.jetson.util.ReflectionUtil;
+
+public class ServiceInvokerGeneratorTest {
+
+    private final TestService service = new NormalOperationTestService(null);
+    private final ServiceInvoker invoker = ServiceInvokerGenerator.getInvoker(TestService.class);
+
+    @Test
+    public void testInvokerIsGenerated() {
+
+        Assert.assertTrue(invoker instanceof GeneratedServiceInvoker);
+    }
+
+    @Test
+    public void testInvocationWithNoArguments() throws Throwable {
+
+        Assert.assertEquals(65535, invoker.invoke(service, getMethod("say65535"), null)
+                .get());
+    }
+
+    @Test
+    public void testInvocationWithPrimitiveArgument() throws Throwable {
+
+        final TestService.TestObject object = new TestService.TestObject("object");
+        Assert.assertEquals("text1objectc", invoker.invoke(service, getMethod("concatenate"), new Object[] {"text", 1, object, 'c'})
+                .get());
+    }
+
+    @Test
+    public void testInvocationWithArrayArgument() throws Throwable {
+
+        Assert.assertEquals(3, invoker.invoke(service, getMethod("getNumberOfMessages"), new Object[] {new String[] {"a", "b", "c"}})
+                .get());
+    }
+
+    @Test
+    public void testInvocationOfEqualMethodInstance() throws Throwable {
+
+        final Method method = TestService.class.getMethod("add", Integer.class, Integer.class);
+        Assert.assertEquals(3, invoker.invoke(service, method, new Object[] {1, 2})
+                .get());
+    }
+
+    @Test
+    public void testArgumentOfWrongTypeIsRejected() throws Throwable {
+
+        final TestService.TestObject object = new TestService.TestObject("object");
+        assertRejectedByBothInvokers(getMethod("add"), new Object[] {1, "2"});
+        assertRejectedByBothInvokers(getMethod("concatenate"), new Object[] {"text", 1, object, "c"});
+    }
+
+    @Test
+    public void testNullPrimitiveArgumentIsRejected() throws Throwable {
+
+        assertRejectedByBothInvokers(getMethod("concatenate"), new Object[] {"text", 1, new TestService.TestObject("object"), null});
+    }
+
+    @Test
+    public void testWrongNumberOfArgumentsIsRejected() throws Throwable {
+
+        assertRejectedByBothInvokers(getMethod("add"), new Object[] {1});
+        assertRejectedByBothInvokers(getMethod("add"), null);
+        assertRejectedByBothInvokers(getMethod("say65535"), new Object[] {1});
+    }
+
+    @Test
+    public void testInvocationByIndex() throws Throwable {
+
+        final Method[] dispatch = ReflectionUtil.getSortedMethods(TestService.class);
+        final GeneratedServiceInvoker dispatch_invoker = ServiceInvokerGenerator.getInvoker(dispatch);
+        final int index = Arrays.asList(dispatch)
+                .indexOf(getMethod("add"));
+        Assert.assertEquals(3, dispatch_invoker.invoke(service, index, new Object[] {1, 2})
+                .get());
+    }
+
+    @Test
+    public void testInvokerIsGeneratedOncePerDispatch() {
+
+        final Method[] dispatch = ReflectionUtil.getSortedMethods(TestService.class);
+        Assert.assertSame(ServiceInvokerGenerator.getInvoker(dispatch), ServiceInvokerGenerator.getInvoker(dispatch.clone()));
+    }
+
+    @Test
+    public void testServiceOfWrongTypeIsRejected() throws Throwable {
+
+        assertRejectedByBothInvokers(new Object(), getMethod("add"), new Object[] {1, 2});
+    }
+
+    @Test
+    public void testUnknownIndexIsRejected() throws Throwable {
+
+        final GeneratedServiceInvoker dispatch_invoker = ServiceInvokerGenerator.getInvoker(ReflectionUtil.getSortedMethods(TestService.class));
+        for (final int index : new int[] {-1, Integer.MAX_VALUE}) {
+            try {
+                dispatch_invoker.invoke(service, index, null);
+                Assert.fail("accepted unknown index " + index);
+            }
+            catch (final IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    private void assertRejectedByBothInvokers(final Method method, final Object[] arguments) throws Throwable {
+
+        assertRejectedByBothInvokers(service, method, arguments);
+    }
+
+    private void assertRejectedByBothInvokers(final Object target, final Method method, final Object[] arguments) throws Throwable {
+
+        for (final ServiceInvoker each : new ServiceInvoker[] {ReflectiveServiceInvoker.INSTANCE, invoker}) {
+            try {
+                each.invoke(target, method, arguments);
+                Assert.fail(each + " accepted bad arguments for " + method);
+            }
+            catch (final IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    private static Method getMethod(final String name) {
+
+        return ReflectionUtil.mapNamesToMethods(TestService.class)
+                .get(name);
+    }
+}
@@ -26,16 +26,22 @@
  */
 package org.mashti.jetson;
 
+import io.netty.channel.ChannelFuture;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mashti.jetson.exception.DeadlineExceededException;
 import org.mashti.jetson.exception.RPCException;
 import org.mashti.jetson.lean.LeanClientFactory;
 import org.mashti.jetson.lean.LeanServerChannelInitializer;
 import org.mashti.jetson.lean.codec.Codecs;
 
+import static org.mashti.jetson.AbstractTest.awaitUntil;
+
 public class TimeoutTest {
 
     private LeanClientFactory<TestService> client_factory;
@@ -59,9 +65,30 @@ public class TimeoutTest {
         Assert.fail();
     }
 
+    @Test
+    public void testCallDeadline() throws Exception {
+
+        client_factory.setCallDeadline(100, TimeUnit.MILLISECONDS);
+        final TestService service = client_factory.get(server.getLocalSocketAddress());
+        try {
+            service.saySomething().get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        }
+        catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof DeadlineExceededException);
+        }
+
+        for (final Map.Entry<?, ChannelFuture> entry : client_factory.channel_pool.getPooledEntries()) {
+            final PendingFutureResponses responses = ChannelFuturePool.getFutureResponsesByChannel(entry.getValue()
+                    .channel());
+            awaitUntil(() -> responses.size() == 0);
+        }
+    }
+
     @After
     public void tearDown() throws Exception {
 
         server.unexpose();
+        client_factory.shutdown();
     }
 }
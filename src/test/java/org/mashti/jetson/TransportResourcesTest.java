@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mashti.jetson.lean.LeanClientFactory;
+import org.mashti.jetson.lean.LeanServerFactory;
+import org.mashti.jetson.lean.codec.Codecs;
+
+import static org.mashti.jetson.AbstractTest.AWAIT_TIMEOUT_IN_SECONDS;
+
+public class TransportResourcesTest {
+
+    private static final Class<?>[] SERVICE_TYPES = {TestService.class};
+    private TransportResources resources;
+    private LeanClientFactory<TestService> client_factory;
+    private LeanClientFactory<TestService> other_client_factory;
+    private LeanServerFactory<TestService> server_factory;
+    private Server server;
+
+    @Before
+    public void setUp() throws Exception {
+
+        final Codecs codecs = new Codecs();
+        resources = new TransportResources(Transport.NIO, 2, PooledByteBufAllocator.DEFAULT);
+        client_factory = new LeanClientFactory<TestService>(SERVICE_TYPES, codecs, Framing.DEFAULT, resources);
+        other_client_factory = new LeanClientFactory<TestService>(SERVICE_TYPES, codecs, Framing.DEFAULT, resources);
+        server_factory = new LeanServerFactory<TestService>(SERVICE_TYPES, codecs, Framing.DEFAULT, resources);
+        server = server_factory.createServer(new NormalOperationTestService(client_factory));
+        server.setBindAddress(new InetSocketAddress("localhost", 0));
+        server.expose();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        server.unexpose();
+        client_factory.shutdown();
+        other_client_factory.shutdown();
+        server_factory.shutdown();
+        if (resources.getReferenceCount() > 0) {
+            resources.release();
+        }
+    }
+
+    @Test
+    public void testFactoriesRetainResources() throws Exception {
+
+        Assert.assertEquals(4, resources.getReferenceCount());
+        Assert.assertSame(resources.getAllocator(), client_factory.getAllocator());
+        Assert.assertSame(resources.getAllocator(), server_factory.getAllocator());
+    }
+
+    @Test
+    public void testResourcesOutliveShutDownFactory() throws Exception {
+
+        Assert.assertEquals(Integer.valueOf(3), client_factory.get(server.getLocalAddress())
+                .add(1, 2)
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+
+        client_factory.shutdown();
+        client_factory.shutdown();
+        Assert.assertEquals(3, resources.getReferenceCount());
+        Assert.assertEquals(Integer.valueOf(7), other_client_factory.get(server.getLocalAddress())
+                .add(3, 4)
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLastReleaseShutsDownResources() throws Exception {
+
+        client_factory.shutdown();
+        other_client_factory.shutdown();
+        server.unexpose();
+        server_factory.shutdown();
+        Assert.assertEquals(1, resources.getReferenceCount());
+        Assert.assertTrue(resources.release());
+        Assert.assertEquals(0, resources.getReferenceCount());
+        Assert.assertTrue(resources.getIoEventLoop().isShuttingDown());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRetainAfterReleaseFails() throws Exception {
+
+        final TransportResources released = new TransportResources(Transport.NIO);
+        released.release();
+        released.retain();
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson;
+
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.unix.DomainSocketAddress;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.mashti.jetson.lean.LeanClientFactory;
+import org.mashti.jetson.lean.LeanServerFactory;
+import org.mashti.jetson.lean.codec.Codecs;
+
+import static org.mashti.jetson.AbstractTest.AWAIT_TIMEOUT_IN_SECONDS;
+
+@RunWith(Parameterized.class)
+public class TransportTest {
+
+    private static final Class<?>[] SERVICE_TYPES = {TestService.class};
+    private final Transport transport;
+    private LeanClientFactory<TestService> client_factory;
+    private LeanServerFactory<TestService> server_factory;
+    private Server server;
+
+    public TransportTest(final Transport transport) {
+
+        this.transport = transport;
+    }
+
+    @Parameterized.Parameters(name = "{index} - {0}")
+    public static Collection<Object[]> getParameters() {
+
+        final Collection<Object[]> parameters = new ArrayList<Object[]>();
+        for (final Transport transport : Transport.values()) {
+            parameters.add(new Object[] {transport});
+        }
+        return parameters;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+
+        Assume.assumeTrue(transport + " is not available", transport.isAvailable() || transport.isTcp());
+        final Codecs codecs = new Codecs();
+        client_factory = new LeanClientFactory<TestService>(SERVICE_TYPES, codecs, Framing.DEFAULT, transport);
+        server_factory = new LeanServerFactory<TestService>(SERVICE_TYPES, codecs, Framing.DEFAULT, transport);
+        server = server_factory.createServer(new NormalOperationTestService(client_factory));
+        server.setBindAddress(createBindAddress(transport));
+        server.expose();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        if (server != null) {
+            server.unexpose();
+            client_factory.shutdown();
+            server_factory.shutdown();
+        }
+    }
+
+    @Test
+    public void testCallOverTransport() throws Exception {
+
+        Assert.assertEquals(Integer.valueOf(3), client_factory.get(server.getLocalAddress())
+                .add(1, 2)
+                .get(AWAIT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUnavailableTransportFallsBackToNio() throws Exception {
+
+        Assert.assertEquals(transport.isAvailable() ? transport : Transport.NIO, transport.orFallback());
+    }
+
+    private static SocketAddress createBindAddress(final Transport transport) throws IOException {
+
+        if (transport.isTcp()) { return new InetSocketAddress("localhost", 0); }
+        return transport == Transport.LOCAL ? LocalAddress.ANY : createSocketPath();
+    }
+
+    private static DomainSocketAddress createSocketPath() throws IOException {
+
+        final File socket_file = File.createTempFile("jetson", ".sock");
+        socket_file.delete();
+        socket_file.deleteOnExit();
+        return new DomainSocketAddress(socket_file);
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.lean;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mashti.jetson.lean.codec.Codecs;
+
+/** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
+public class LeanMethodCodecTest {
+
+    private final Codecs codecs = new Codecs();
+    private final ByteBuf buffer = Unpooled.buffer();
+
+    public interface Sample {
+
+        CompletableFuture<String[]> join(String text, int count, String[] items);
+
+        CompletableFuture<Void> doNothing();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+
+        buffer.clear();
+    }
+
+    @Test
+    public void testArgumentsRoundTrip() throws Exception {
+
+        final LeanMethodCodec method_codec = new LeanMethodCodec(Sample.class.getMethod("join", String.class, int.class, String[].class), codecs);
+        final Object[] arguments = {"text", 42, new String[] {"a", "b"}};
+
+        method_codec.writeArguments(arguments, buffer);
+        Assert.assertArrayEquals(arguments, method_codec.readArguments(buffer));
+        Assert.assertFalse(buffer.isReadable());
+    }
+
+    @Test
+    public void testResultRoundTrip() throws Exception {
+
+        final LeanMethodCodec method_codec = new LeanMethodCodec(Sample.class.getMethod("join", String.class, int.class, String[].class), codecs);
+        final String[] result = {"x", "y", "z"};
+
+        method_codec.writeResult(result, buffer);
+        Assert.assertArrayEquals(result, (String[]) method_codec.readResult(buffer));
+    }
+
+    @Test
+    public void testNoArguments() throws Exception {
+
+        final LeanMethodCodec method_codec = new LeanMethodCodec(Sample.class.getMethod("doNothing"), codecs);
+
+        method_codec.writeArguments(null, buffer);
+        Assert.assertNull(method_codec.readArguments(buffer));
+        method_codec.writeResult(null, buffer);
+        Assert.assertNull(method_codec.readResult(buffer));
+        Assert.assertFalse(buffer.isReadable());
+    }
+
+    @Test
+    public void testMethodCodecsAreCached() throws Exception {
+
+        final LeanMethodCodec.Cache cache = new LeanMethodCodec.Cache(codecs);
+        Assert.assertSame(cache.get(Sample.class.getMethod("doNothing")), cache.get(Sample.class.getMethod("doNothing")));
+    }
+
+    @Test
+    public void testMethodCodecsAreLookedUpByIndex() throws Exception {
+
+        final Method join = Sample.class.getMethod("join", String.class, int.class, String[].class);
+        final Method do_nothing = Sample.class.getMethod("doNothing");
+        final LeanMethodCodec.Table table = new LeanMethodCodec.Table(Arrays.asList(join, do_nothing), codecs);
+
+        Assert.assertTrue(table.isAt(1, do_nothing));
+        Assert.assertSame(table.get(1, do_nothing), table.get(1, do_nothing));
+        Assert.assertFalse(table.isAt(0, do_nothing));
+        Assert.assertFalse(table.isAt(2, do_nothing));
+        Assert.assertSame(table.get(0, do_nothing), table.get(-1, do_nothing));
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.lean;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mashti.jetson.exception.InvalidRequestException;
+import org.mashti.jetson.lean.codec.Codecs;
+
+/** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
+public class LeanRequestCodecTest {
+
+    private static final int METHOD_INDEX = 200;
+    private final Codecs codecs = new Codecs();
+    private final ByteBuf buffer = Unpooled.buffer();
+    private Method method;
+    private LeanRequestEncoder encoder;
+    private LeanRequestDecoder decoder;
+
+    @Before
+    public void setUp() throws Exception {
+
+        buffer.clear();
+        method = LeanMethodCodecTest.Sample.class.getMethod("join", String.class, int.class, String[].class);
+
+        // Pads the dispatch so that the method code no longer fits in a single byte
+        final Method padding = LeanMethodCodecTest.Sample.class.getMethod("doNothing");
+        final List<Method> dispatch = new ArrayList<Method>();
+        for (int i = 0; i < METHOD_INDEX; i++) {
+            dispatch.add(padding);
+        }
+        dispatch.add(method);
+
+        encoder = new LeanRequestEncoder(dispatch, codecs);
+        decoder = new LeanRequestDecoder(dispatch, codecs);
+    }
+
+    @Test
+    public void testRequestRoundTripBeyondSingleByteMethodCode() throws Exception {
+
+        final Object[] arguments = {"text", 42, new String[] {"a", "b"}};
+        encoder.encodeRequest(null, 7, method, arguments, buffer);
+
+        Assert.assertEquals(7, decoder.decodeId(null, buffer));
+        final int method_code_start = buffer.readerIndex();
+        Assert.assertSame(method, decoder.decodeMethod(null, buffer));
+        Assert.assertEquals(2, buffer.readerIndex() - method_code_start);
+        Assert.assertArrayEquals(arguments, decoder.decodeMethodArguments(null, buffer, method));
+        Assert.assertFalse(buffer.isReadable());
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void testUnknownVersionIsRejected() throws Exception {
+
+        encoder.encodeRequest(null, 7, method, new Object[] {"text", 42, new String[0]}, buffer);
+        buffer.setByte(0, LeanHeader.VERSION + 1);
+
+        decoder.decodeId(null, buffer);
+    }
+
+    @Test
+    public void testReadVersion() throws Exception {
+
+        buffer.writeByte(LeanHeader.VERSION);
+        buffer.writeByte(LeanHeader.VERSION + 1);
+
+        Assert.assertTrue(LeanHeader.readVersion(buffer));
+        Assert.assertFalse(LeanHeader.readVersion(buffer));
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
+public class ClockCacheTest {
+
+    private final List<Integer> evicted = new ArrayList<Integer>();
+    private final ClockCache<Integer, String> cache = new ClockCache<Integer, String>(3, (key, value) -> evicted.add(key));
+
+    @Test
+    public void testPutIfAbsentAndGet() throws Exception {
+
+        Assert.assertNull(cache.putIfAbsent(1, "one"));
+        Assert.assertEquals("one", cache.putIfAbsent(1, "uno"));
+        Assert.assertEquals("one", cache.get(1));
+        Assert.assertNull(cache.get(2));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvictsWhenCapacityIsExceeded() throws Exception {
+
+        for (int i = 0; i < 10; i++) {
+            cache.putIfAbsent(i, String.valueOf(i));
+            Assert.assertTrue(cache.size() <= cache.getCapacity());
+        }
+        Assert.assertEquals(7, evicted.size());
+    }
+
+    @Test
+    public void testRecentlyReadMappingSurvivesEviction() throws Exception {
+
+        cache.putIfAbsent(1, "one");
+        cache.putIfAbsent(2, "two");
+        cache.putIfAbsent(3, "three");
+        cache.putIfAbsent(4, "four");
+        Assert.assertEquals(1, evicted.size());
+
+        final Integer survivor = evicted.contains(2) ? 3 : 2;
+        cache.get(survivor);
+        cache.putIfAbsent(5, "five");
+        Assert.assertEquals(2, evicted.size());
+        Assert.assertFalse(evicted.contains(survivor));
+        Assert.assertNotNull(cache.get(survivor));
+    }
+
+    @Test
+    public void testRemoveDoesNotNotifyListener() throws Exception {
+
+        cache.putIfAbsent(1, "one");
+        Assert.assertFalse(cache.remove(1, "uno"));
+        Assert.assertTrue(cache.remove(1, "one"));
+        Assert.assertNull(cache.remove(1));
+        Assert.assertTrue(evicted.isEmpty());
+    }
+
+    @Test
+    public void testShrinkingCapacityEvicts() throws Exception {
+
+        cache.putIfAbsent(1, "one");
+        cache.putIfAbsent(2, "two");
+        cache.putIfAbsent(3, "three");
+        cache.setCapacity(1);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(2, evicted.size());
+    }
+
+    @Test
+    public void testClearEvictsAll() throws Exception {
+
+        cache.putIfAbsent(1, "one");
+        cache.putIfAbsent(2, "two");
+        cache.clear();
+        Assert.assertTrue(cache.isEmpty());
+        Assert.assertEquals(2, evicted.size());
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
+public class IntObjectHashMapTest {
+
+    private final IntObjectHashMap<String> map = new IntObjectHashMap<String>();
+
+    @Test
+    public void testPutAndGet() throws Exception {
+
+        Assert.assertNull(map.put(1, "one"));
+        Assert.assertNull(map.put(-1, "minus one"));
+        Assert.assertNull(map.put(Integer.MIN_VALUE, "min"));
+        Assert.assertEquals("one", map.put(1, "uno"));
+        Assert.assertEquals("uno", map.get(1));
+        Assert.assertEquals("minus one", map.get(-1));
+        Assert.assertEquals("min", map.get(Integer.MIN_VALUE));
+        Assert.assertNull(map.get(2));
+        Assert.assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testPutIfAbsent() throws Exception {
+
+        Assert.assertNull(map.putIfAbsent(7, "seven"));
+        Assert.assertEquals("seven", map.putIfAbsent(7, "siete"));
+        Assert.assertEquals("seven", map.get(7));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+
+        map.put(1, "one");
+        map.put(2, "two");
+        Assert.assertEquals("one", map.remove(1));
+        Assert.assertNull(map.remove(1));
+        Assert.assertFalse(map.remove(2, new String("two")));
+        Assert.assertTrue(map.containsKey(2));
+        Assert.assertTrue(map.remove(2, map.get(2)));
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullValue() throws Exception {
+
+        map.put(1, null);
+    }
+
+    @Test
+    public void testAgainstHashMap() throws Exception {
+
+        final Map<Integer, String> expected = new HashMap<Integer, String>();
+        final Random random = new Random(8852);
+        for (int i = 0; i < 100000; i++) {
+            final int key = random.nextInt(512);
+            if (random.nextBoolean()) {
+                final String value = String.valueOf(i);
+                Assert.assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            else {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+        for (int key = 0; key < 512; key++) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+        }
+        Assert.assertEquals(expected.size(), map.values().size());
+    }
+}
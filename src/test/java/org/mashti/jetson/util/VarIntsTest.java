@@ -0,0 +1,70 @@
+/**
+ * Copyright © 2015, Masih H. Derkani
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.mashti.jetson.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.CorruptedFrameException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** @author Masih Hajiarabderkani (mh638@st-andrews.ac.uk) */
+public class VarIntsTest {
+
+    private static final int[] VALUES = {0, 1, 127, 128, 16383, 16384, 2097151, 2097152, 268435455, 268435456, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+    private final ByteBuf buffer = Unpooled.buffer();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+
+        for (final int value : VALUES) {
+            buffer.clear();
+            VarInts.writeUnsignedInt(buffer, value);
+            Assert.assertEquals(VarInts.getLength(value), buffer.readableBytes());
+            Assert.assertEquals(value, VarInts.readUnsignedInt(buffer));
+            Assert.assertFalse(buffer.isReadable());
+        }
+    }
+
+    @Test
+    public void testLength() throws Exception {
+
+        Assert.assertEquals(1, VarInts.getLength(0));
+        Assert.assertEquals(1, VarInts.getLength(127));
+        Assert.assertEquals(2, VarInts.getLength(128));
+        Assert.assertEquals(VarInts.MAX_VAR_INT_LENGTH, VarInts.getLength(-1));
+    }
+
+    @Test(expected = CorruptedFrameException.class)
+    public void testTooLongIntegerIsRejected() throws Exception {
+
+        for (int i = 0; i < VarInts.MAX_VAR_INT_LENGTH + 1; i++) {
+            buffer.writeByte(0x80);
+        }
+        VarInts.readUnsignedInt(buffer);
+    }
+}